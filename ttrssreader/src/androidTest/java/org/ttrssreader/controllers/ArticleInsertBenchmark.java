@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+
+package org.ttrssreader.controllers;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.ttrssreader.model.pojos.Article;
+import org.ttrssreader.utils.TestArticles;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures how many articles per second {@link DBHelper#insertArticles(java.util.Collection)} stores, once for new
+ * articles and once for articles which exist already and are updated.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ArticleInsertBenchmark {
+
+	private static final String TAG = ArticleInsertBenchmark.class.getSimpleName();
+
+	private static final String DATABASE_NAME = "insert_articles.db";
+	private static final int ARTICLES = 5000;
+	// Articles are stored page by page during a sync
+	private static final int PAGE_SIZE = 200;
+
+	private Context context;
+	private DBHelper dbHelper;
+
+	@Before
+	public void setUp() {
+		context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+		context.deleteDatabase(DATABASE_NAME);
+		dbHelper = new DBHelper(context, DATABASE_NAME);
+		// Warm up the statements and the code paths
+		dbHelper.insertArticles(TestArticles.build(ARTICLES + 1, PAGE_SIZE));
+	}
+
+	@After
+	public void tearDown() {
+		dbHelper.closeDB();
+		context.deleteDatabase(DATABASE_NAME);
+	}
+
+	@Test
+	public void insertAndUpdate() {
+		List<Article> articles = TestArticles.build(1, ARTICLES);
+		long inserted = insert(articles);
+		assertEquals(ARTICLES + PAGE_SIZE, countArticles());
+
+		articles = TestArticles.build(1, ARTICLES);
+		long updated = insert(articles);
+		assertEquals(ARTICLES + PAGE_SIZE, countArticles());
+
+		Log.i(TAG, String.format("Inserted %s articles in %sms (%s articles/s), updated them in %sms (%s articles/s)",
+				ARTICLES, inserted, ARTICLES * 1000 / Math.max(1, inserted), updated, ARTICLES * 1000 / Math.max(1, updated)));
+	}
+
+	/**
+	 * @return the time it took to store the articles in milliseconds
+	 */
+	private long insert(List<Article> articles) {
+		long time = System.currentTimeMillis();
+		for (int start = 0; start < articles.size(); start += PAGE_SIZE) {
+			dbHelper.insertArticles(articles.subList(start, Math.min(start + PAGE_SIZE, articles.size())));
+		}
+		return System.currentTimeMillis() - time;
+	}
+
+	private long countArticles() {
+		return DatabaseUtils.queryNumEntries(dbHelper.getOpenHelper().getReadableDatabase(), DBHelper.TABLE_ARTICLES);
+	}
+
+}
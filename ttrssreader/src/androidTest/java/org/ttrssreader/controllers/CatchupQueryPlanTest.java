@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+package org.ttrssreader.controllers;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteQueryBuilder;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.ttrssreader.utils.QueryPlans.assertNoFullScan;
+
+/**
+ * markRead() selects the articles of a feed or category with {@link DBHelper#getCatchupSelection(int, boolean)}, these
+ * tests make sure the selections are read from an index.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CatchupQueryPlanTest {
+
+	private static final String DATABASE_NAME = "queryplan_catchup.db";
+
+	// id and isCategory of a feed, a category and the virtual categories
+	private static final int[][] CATCHUPS = new int[][]{
+			{5, 0},
+			{3, 1},
+			{Data.VCAT_STAR, 1},
+			{Data.VCAT_PUB, 1},
+			{Data.VCAT_FRESH, 1},
+			{Data.VCAT_ALL, 1}};
+
+	private Context context;
+	private DBHelper.OpenHelper helper;
+	private SQLiteDatabase db;
+
+	@Before
+	public void setUp() {
+		context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+		context.deleteDatabase(DATABASE_NAME);
+		helper = new DBHelper.OpenHelper(context, DATABASE_NAME);
+		db = helper.getReadableDatabase();
+	}
+
+	@After
+	public void tearDown() {
+		helper.close();
+		context.deleteDatabase(DATABASE_NAME);
+	}
+
+	@Test
+	public void catchupSelectionsUseIndexes() {
+		for (int[] catchup : CATCHUPS) {
+			String selection = DBHelper.getCatchupSelection(catchup[0], catchup[1] != 0);
+
+			// markRead()
+			assertNoFullScan(db, SQLiteQueryBuilder.buildQueryString(false, DBHelper.TABLE_ARTICLES,
+					new String[]{"_id"}, selection + " AND isUnread>0", null, null, null, null));
+		}
+	}
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+
+package org.ttrssreader.controllers;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.ttrssreader.utils.TestArticles;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the latency of reads while a sync stores articles. In WAL mode readers use their own connections and must
+ * not wait for the transaction of the writer, without it every read would take as long as the whole insert.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseContentionBenchmark {
+
+	private static final String TAG = DatabaseContentionBenchmark.class.getSimpleName();
+
+	private static final String DATABASE_NAME = "contention.db";
+	private static final int EXISTING_ARTICLES = 1000;
+	private static final int INSERTED_ARTICLES = 5000;
+	private static final int READERS = 4;
+	// Reads per reader without a writer, for the latency to compare with
+	private static final int BASELINE_READS = 500;
+
+	private Context context;
+	private DBHelper dbHelper;
+
+	@Before
+	public void setUp() {
+		context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+		context.deleteDatabase(DATABASE_NAME);
+		dbHelper = new DBHelper(context, DATABASE_NAME);
+		dbHelper.insertArticles(TestArticles.build(1, EXISTING_ARTICLES));
+	}
+
+	@After
+	public void tearDown() {
+		dbHelper.closeDB();
+		context.deleteDatabase(DATABASE_NAME);
+	}
+
+	@Test
+	public void readsDuringInsert() throws InterruptedException {
+		assertTrue(dbHelper.getOpenHelper().getWritableDatabase().isWriteAheadLoggingEnabled());
+
+		long[] baseline = new long[READERS * BASELINE_READS];
+		for (int i = 0; i < baseline.length; i++) {
+			baseline[i] = read(i);
+		}
+
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		final CountDownLatch started = new CountDownLatch(READERS);
+		final long[][] latencies = new long[READERS][];
+		final int[] counts = new int[READERS];
+		Thread[] readers = new Thread[READERS];
+		for (int r = 0; r < READERS; r++) {
+			final int reader = r;
+			readers[r] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					long[] samples = new long[1024];
+					int count = 0;
+					started.countDown();
+					while (writing.get()) {
+						if (count == samples.length)
+							samples = Arrays.copyOf(samples, count * 2);
+						samples[count] = read(reader * 7919 + count);
+						count++;
+					}
+					latencies[reader] = samples;
+					counts[reader] = count;
+				}
+			});
+			readers[r].start();
+		}
+		started.await(10, TimeUnit.SECONDS);
+
+		long time = System.nanoTime();
+		dbHelper.insertArticles(TestArticles.build(EXISTING_ARTICLES + 1, INSERTED_ARTICLES));
+		long insertTime = System.nanoTime() - time;
+		writing.set(false);
+
+		int total = 0;
+		for (Thread reader : readers) {
+			reader.join();
+		}
+		for (int count : counts) {
+			total += count;
+		}
+		long[] during = new long[total];
+		int pos = 0;
+		for (int r = 0; r < READERS; r++) {
+			System.arraycopy(latencies[r], 0, during, pos, counts[r]);
+			pos += counts[r];
+		}
+
+		Arrays.sort(baseline);
+		Arrays.sort(during);
+		Log.i(TAG, String.format("Insert of %s articles took %sms", INSERTED_ARTICLES, TimeUnit.NANOSECONDS.toMillis(insertTime)));
+		Log.i(TAG, "Reads without writer: " + summary(baseline));
+		Log.i(TAG, "Reads during insert:  " + summary(during));
+
+		// Readers made progress while the transaction of the writer was open, none of them waited for its end
+		assertTrue("No reads finished during the insert", during.length > READERS);
+		assertTrue("Reads waited for the writer: " + summary(during), during[during.length - 1] < insertTime / 2);
+	}
+
+	/**
+	 * One read as done by the lists: the unread counter of a virtual category and a single article.
+	 *
+	 * @return the time it took in nanoseconds
+	 */
+	private long read(int seed) {
+		long time = System.nanoTime();
+		dbHelper.getUnreadCount(Data.VCAT_ALL, true);
+		dbHelper.getArticle(seed % EXISTING_ARTICLES + 1);
+		return System.nanoTime() - time;
+	}
+
+	private static long percentile(long[] sorted, int percentile) {
+		if (sorted.length == 0)
+			return 0;
+		return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+	}
+
+	private static String summary(long[] sorted) {
+		return String.format("%s reads, median %sus, p95 %sus, max %sus", sorted.length,
+				TimeUnit.NANOSECONDS.toMicros(percentile(sorted, 50)), TimeUnit.NANOSECONDS.toMicros(percentile(sorted, 95)),
+				TimeUnit.NANOSECONDS.toMicros(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+
+package org.ttrssreader.controllers;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.ttrssreader.model.pojos.Category;
+import org.ttrssreader.model.pojos.Feed;
+import org.ttrssreader.utils.TestArticles;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * The cache of {@link DBHelper#getFeed(int)} and {@link DBHelper#getCategory(int)}: binding a list must query each
+ * feed and category only once, changed rows have to be read again.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FeedCacheTest {
+
+	private static final String DATABASE_NAME = "feed_cache.db";
+	private static final int CATEGORIES = 4;
+	private static final int ARTICLES = 500;
+	// Rows of a screen of the headline list
+	private static final int SCREEN = 30;
+
+	private Context context;
+	private DBHelper dbHelper;
+
+	@Before
+	public void setUp() {
+		context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+		context.deleteDatabase(DATABASE_NAME);
+		dbHelper = new DBHelper(context, DATABASE_NAME);
+
+		Set<Category> categories = new HashSet<>();
+		for (int id = 1; id <= CATEGORIES; id++) {
+			categories.add(new Category(id, "Category " + id, 0));
+		}
+		dbHelper.insertCategories(categories);
+
+		Set<Feed> feeds = new HashSet<>();
+		for (int id = 1; id <= TestArticles.FEEDS; id++) {
+			feeds.add(feed(id, "Feed " + id));
+		}
+		dbHelper.insertFeeds(feeds);
+		dbHelper.insertArticles(TestArticles.build(1, ARTICLES));
+	}
+
+	@After
+	public void tearDown() {
+		dbHelper.closeDB();
+		context.deleteDatabase(DATABASE_NAME);
+	}
+
+	@Test
+	public void bindsListWithOneLookupPerFeed() {
+		int misses = dbHelper.getCacheMisses();
+		Set<Integer> feeds = new HashSet<>();
+		Set<Integer> categories = new HashSet<>();
+		for (int offset = 0; offset < ARTICLES; offset += SCREEN) {
+			bindScreen(offset, feeds, categories);
+		}
+		assertEquals(TestArticles.FEEDS, feeds.size());
+		assertEquals(CATEGORIES, categories.size());
+		assertEquals(feeds.size() + categories.size(), dbHelper.getCacheMisses() - misses);
+
+		// Scrolling back runs no queries at all
+		misses = dbHelper.getCacheMisses();
+		for (int offset = 0; offset < ARTICLES; offset += SCREEN) {
+			bindScreen(offset, feeds, categories);
+		}
+		assertEquals(misses, dbHelper.getCacheMisses());
+	}
+
+	@Test
+	public void readsChangedFeedsAgain() {
+		Feed feed = dbHelper.getFeed(1);
+		Feed other = dbHelper.getFeed(2);
+		assertSame(feed, dbHelper.getFeed(1));
+
+		int misses = dbHelper.getCacheMisses();
+		dbHelper.insertFeeds(Collections.singleton(feed(1, "Renamed")));
+		assertEquals("Renamed", dbHelper.getFeed(1).title);
+		assertSame(other, dbHelper.getFeed(2));
+		assertEquals(misses + 1, dbHelper.getCacheMisses());
+	}
+
+	@Test
+	public void readsChangedCategoriesAgain() {
+		Category category = dbHelper.getCategory(1);
+		Category other = dbHelper.getCategory(2);
+		assertSame(category, dbHelper.getCategory(1));
+
+		int misses = dbHelper.getCacheMisses();
+		dbHelper.insertCategories(Collections.singleton(new Category(1, "Renamed", 0)));
+		assertEquals("Renamed", dbHelper.getCategory(1).title);
+		assertSame(other, dbHelper.getCategory(2));
+		assertEquals(misses + 1, dbHelper.getCacheMisses());
+	}
+
+	@Test
+	public void clearsCacheWhenClosed() {
+		Feed feed = dbHelper.getFeed(1);
+		Category category = dbHelper.getCategory(1);
+		assertEquals("Feed 1", feed.title);
+		assertEquals("Category 1", category.title);
+
+		dbHelper.closeDB();
+
+		// Without the database only empty objects are returned, nothing comes from the cache
+		assertNotSame(feed, dbHelper.getFeed(1));
+		assertNull(dbHelper.getFeed(1).title);
+		assertNotSame(category, dbHelper.getCategory(1));
+		assertNull(dbHelper.getCategory(1).title);
+	}
+
+	/**
+	 * Bind the rows of one screen of the headline list like the lists do: the feed of every article and the category
+	 * of that feed.
+	 */
+	private void bindScreen(int offset, Set<Integer> feeds, Set<Integer> categories) {
+		Cursor c = dbHelper.getOpenHelper().getReadableDatabase().rawQuery(
+				"SELECT feedId FROM " + DBHelper.TABLE_ARTICLES + " ORDER BY updateDate DESC, _id DESC LIMIT ? OFFSET ?",
+				new String[]{String.valueOf(SCREEN), String.valueOf(offset)});
+		try {
+			while (c.moveToNext()) {
+				Feed feed = dbHelper.getFeed(c.getInt(0));
+				Category category = dbHelper.getCategory(feed.categoryId);
+				feeds.add(feed.id);
+				categories.add(category.id);
+			}
+		} finally {
+			c.close();
+		}
+	}
+
+	private static Feed feed(int id, String title) {
+		Feed feed = new Feed();
+		feed.id = id;
+		feed.categoryId = (id - 1) % CATEGORIES + 1;
+		feed.title = title;
+		feed.url = "https://example.com/feed/" + id;
+		return feed;
+	}
+
+}
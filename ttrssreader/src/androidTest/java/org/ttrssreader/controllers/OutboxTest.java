@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+
+package org.ttrssreader.controllers;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The outbox of changed article states, see {@link DBHelper#markUnsynchronizedStates(java.util.Collection, String,
+ * int)} and {@link DBHelper#setMarked(java.util.Collection, String, int)}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class OutboxTest {
+
+	private static final String DATABASE_NAME = "outbox.db";
+
+	private Context context;
+	private DBHelper dbHelper;
+
+	@Before
+	public void setUp() {
+		context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+		context.deleteDatabase(DATABASE_NAME);
+		dbHelper = new DBHelper(context, DATABASE_NAME);
+	}
+
+	@After
+	public void tearDown() {
+		dbHelper.closeDB();
+		context.deleteDatabase(DATABASE_NAME);
+	}
+
+	@Test
+	public void keepsLatestState() {
+		dbHelper.markUnsynchronizedStates(ids(1, 2, 3), DBHelper.MARK_READ, 0);
+		dbHelper.markUnsynchronizedStates(ids(2), DBHelper.MARK_READ, 1);
+		dbHelper.markUnsynchronizedStates(ids(3), DBHelper.MARK_READ, 0);
+
+		assertEquals(ids(1, 3), dbHelper.getMarked(DBHelper.MARK_READ, 0));
+		assertEquals(ids(2), dbHelper.getMarked(DBHelper.MARK_READ, 1));
+	}
+
+	@Test
+	public void keepsOtherMarks() {
+		dbHelper.markUnsynchronizedStates(ids(1), DBHelper.MARK_READ, 0);
+		dbHelper.markUnsynchronizedStates(ids(1), DBHelper.MARK_STAR, 1);
+		dbHelper.setMarked(ids(1), DBHelper.MARK_READ, 0);
+
+		assertTrue(dbHelper.getMarked(DBHelper.MARK_READ, 0).isEmpty());
+		assertEquals(ids(1), dbHelper.getMarked(DBHelper.MARK_STAR, 1));
+	}
+
+	@Test
+	public void removesSentMarks() {
+		dbHelper.markUnsynchronizedStates(ids(1, 2), DBHelper.MARK_STAR, 1);
+		dbHelper.setMarked(dbHelper.getMarked(DBHelper.MARK_STAR, 1), DBHelper.MARK_STAR, 1);
+
+		assertTrue(dbHelper.getMarked(DBHelper.MARK_STAR, 1).isEmpty());
+		assertTrue(dbHelper.getMarked(DBHelper.MARK_STAR, 0).isEmpty());
+	}
+
+	@Test
+	public void keepsToggleDuringFlush() {
+		dbHelper.markUnsynchronizedStates(ids(1, 2), DBHelper.MARK_READ, 0);
+
+		// Data.synchronizeStatus() reads the marks and sends them, the user marks an article as unread again meanwhile
+		Set<Integer> sending = dbHelper.getMarked(DBHelper.MARK_READ, 0);
+		dbHelper.markUnsynchronizedStates(ids(1), DBHelper.MARK_READ, 1);
+		dbHelper.setMarked(sending, DBHelper.MARK_READ, 0);
+
+		// The server has the article as read now, the new state has to be sent by the next run
+		assertTrue(dbHelper.getMarked(DBHelper.MARK_READ, 0).isEmpty());
+		assertEquals(ids(1), dbHelper.getMarked(DBHelper.MARK_READ, 1));
+	}
+
+	@Test
+	public void sendsToggleDuringFlushInSameRun() {
+		dbHelper.markUnsynchronizedStates(ids(1, 2), DBHelper.MARK_STAR, 1);
+
+		// The starred articles are sent first, the user removes the star of one of them meanwhile
+		Set<Integer> starred = dbHelper.getMarked(DBHelper.MARK_STAR, 1);
+		dbHelper.markUnsynchronizedStates(ids(2), DBHelper.MARK_STAR, 0);
+		dbHelper.setMarked(starred, DBHelper.MARK_STAR, 1);
+
+		// The unstarred articles are sent afterwards by the same run
+		Set<Integer> unstarred = dbHelper.getMarked(DBHelper.MARK_STAR, 0);
+		assertEquals(ids(2), unstarred);
+		dbHelper.setMarked(unstarred, DBHelper.MARK_STAR, 0);
+
+		assertTrue(dbHelper.getMarked(DBHelper.MARK_STAR, 1).isEmpty());
+		assertTrue(dbHelper.getMarked(DBHelper.MARK_STAR, 0).isEmpty());
+	}
+
+	@Test
+	public void markReadRemovesReadMarksOfVirtualCategories() {
+		SQLiteDatabase db = dbHelper.getOpenHelper().getWritableDatabase();
+		db.execSQL("INSERT INTO " + DBHelper.TABLE_ARTICLES + " (_id, feedId, isUnread, isStarred, isPublished, updateDate)"
+				+ " VALUES (1, 1, 1, 1, 0, 1000), (2, 1, 1, 1, 0, 2000), (3, 1, 1, 0, 0, 3000)");
+		dbHelper.markUnsynchronizedStates(ids(1, 3), DBHelper.MARK_READ, 1);
+		dbHelper.markUnsynchronizedStates(ids(1), DBHelper.MARK_STAR, 1);
+
+		int[] changed = dbHelper.markRead(Data.VCAT_STAR, true).toArray();
+		Arrays.sort(changed);
+
+		// The catchup or the new marks returned by markRead() cover the starred articles, the other one keeps its mark
+		assertArrayEquals(new int[]{1, 2}, changed);
+		assertEquals(ids(3), dbHelper.getMarked(DBHelper.MARK_READ, 1));
+		assertEquals(ids(1), dbHelper.getMarked(DBHelper.MARK_STAR, 1));
+	}
+
+	private static Set<Integer> ids(Integer... ids) {
+		return new HashSet<>(Arrays.asList(ids));
+	}
+
+}
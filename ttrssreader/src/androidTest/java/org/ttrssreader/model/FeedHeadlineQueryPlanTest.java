@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+package org.ttrssreader.model;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.ttrssreader.controllers.Controller;
+import org.ttrssreader.controllers.DBHelper;
+import org.ttrssreader.controllers.Data;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.ttrssreader.utils.QueryPlans.assertNoFullScan;
+
+/**
+ * The headline lists are read page by page from the index while they are scrolled, these tests make sure the
+ * queries built by {@link FeedHeadlineCursorHelper} and {@link KeysetCursor} don't fall back to full table scans.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FeedHeadlineQueryPlanTest {
+
+	private static final String DATABASE_NAME = "queryplan_headlines.db";
+
+	// feedId, categoryId and selectArticlesForCategory of a feed, the virtual categories, a category and a label
+	private static final int[][] LISTS = new int[][]{
+			{5, 3, 0},
+			{Data.VCAT_STAR, 0, 0},
+			{Data.VCAT_PUB, 0, 0},
+			{Data.VCAT_FRESH, -1, 0},
+			{Data.VCAT_ALL, -1, 0},
+			{3, 3, 1},
+			{-11, -2, 0}};
+
+	private Context context;
+	private DBHelper.OpenHelper helper;
+	private SQLiteDatabase db;
+
+	private boolean onlyUnread;
+	private Set<Integer> lastOpenedArticles;
+
+	@Before
+	public void setUp() {
+		context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+		context.deleteDatabase(DATABASE_NAME);
+		helper = new DBHelper.OpenHelper(context, DATABASE_NAME);
+		db = helper.getReadableDatabase();
+
+		onlyUnread = Controller.getInstance().onlyUnread();
+		lastOpenedArticles = Controller.getInstance().lastOpenedArticles;
+		// Opened articles are added to the selection of unread articles
+		Controller.getInstance().lastOpenedArticles = new HashSet<>(Arrays.asList(1, 2, 3));
+	}
+
+	@After
+	public void tearDown() {
+		Controller.getInstance().setDisplayOnlyUnread(onlyUnread);
+		Controller.getInstance().lastOpenedArticles = lastOpenedArticles;
+		helper.close();
+		context.deleteDatabase(DATABASE_NAME);
+	}
+
+	@Test
+	public void pagesUseIndexes() {
+		for (boolean displayUnread : new boolean[]{true, false}) {
+			Controller.getInstance().setDisplayOnlyUnread(displayUnread);
+			for (int[] list : LISTS) {
+				for (boolean buildSafeQuery : new boolean[]{false, true}) {
+					String query = buildQuery(list, buildSafeQuery);
+					for (boolean ascending : new boolean[]{false, true}) {
+						KeysetCursor cursor = new KeysetCursor(db, query, "a.updateDate", "a._id", ascending);
+						try {
+							assertNoFullScan(db, cursor.buildPageQuery(false));
+							assertNoFullScan(db, cursor.buildPageQuery(true), "0", "0");
+						} finally {
+							cursor.close();
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * hasUnread() runs the fail-safe query of the unread articles before every list is displayed.
+	 */
+	@Test
+	public void unreadProbesUseIndexes() {
+		Controller.getInstance().setDisplayOnlyUnread(true);
+		for (int[] list : LISTS) {
+			assertNoFullScan(db, "SELECT EXISTS (" + buildQuery(list, true) + ")");
+		}
+	}
+
+	private static String buildQuery(int[] list, boolean buildSafeQuery) {
+		FeedHeadlineCursorHelper cursorHelper = new FeedHeadlineCursorHelper(list[0], list[1], list[2] != 0);
+		if (list[0] > -10)
+			return cursorHelper.buildFeedQuery(false, buildSafeQuery);
+		else
+			return cursorHelper.buildLabelQuery(false, buildSafeQuery);
+	}
+
+}
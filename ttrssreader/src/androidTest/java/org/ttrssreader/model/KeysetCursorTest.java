@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+
+package org.ttrssreader.model;
+
+import android.database.DataSetObserver;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.ttrssreader.model.KeysetCursor.MAX_PAGES;
+import static org.ttrssreader.model.KeysetCursor.PAGE_SIZE;
+
+/**
+ * Reads lists through {@link KeysetCursor} and compares every row with the order of the whole table: rows with the same
+ * updateDate on both sides of a page boundary, pages which have been closed and are read again, and rows which have
+ * been deleted after they were counted.
+ */
+@RunWith(AndroidJUnit4.class)
+public class KeysetCursorTest {
+
+	private static final String QUERY = "SELECT _id, updateDate FROM items WHERE 1";
+
+	private SQLiteDatabase db;
+
+	@Before
+	public void setUp() {
+		db = SQLiteDatabase.create(null);
+		db.execSQL("CREATE TABLE items (_id INTEGER PRIMARY KEY, updateDate INTEGER)");
+		db.execSQL("CREATE INDEX idx_items_date ON items (updateDate, _id)");
+	}
+
+	@After
+	public void tearDown() {
+		db.close();
+	}
+
+	/**
+	 * Blocks of 40 rows share their updateDate, so pages end in the middle of a block. The ids of a block are not in
+	 * the order of insertion.
+	 */
+	@Test
+	public void keepsTiesAcrossPages() {
+		List<long[]> rows = new ArrayList<>();
+		int count = 3 * PAGE_SIZE + 50;
+		for (int i = 0; i < count; i++) {
+			int id = (i * 37) % count + 1;
+			rows.add(new long[]{id, 1000 + i / 40});
+		}
+		insert(rows);
+
+		for (boolean ascending : new boolean[]{true, false}) {
+			assertRows(expected(rows, ascending), ascending);
+		}
+	}
+
+	@Test
+	public void keepsTiesOfWholePages() {
+		List<long[]> rows = new ArrayList<>();
+		for (int id = 1; id <= 2 * PAGE_SIZE + 1; id++) {
+			rows.add(new long[]{id, 1000});
+		}
+		insert(rows);
+
+		for (boolean ascending : new boolean[]{true, false}) {
+			assertRows(expected(rows, ascending), ascending);
+		}
+	}
+
+	@Test
+	public void readsClosedPagesAgain() {
+		List<long[]> rows = new ArrayList<>();
+		int count = (MAX_PAGES * 2 + 1) * PAGE_SIZE + 30;
+		for (int id = 1; id <= count; id++) {
+			rows.add(new long[]{id, 1000 + id / 7});
+		}
+		insert(rows);
+
+		for (boolean ascending : new boolean[]{true, false}) {
+			List<Long> expected = expected(rows, ascending);
+			KeysetCursor cursor = new KeysetCursor(db, QUERY, "updateDate", "_id", ascending);
+			try {
+				assertEquals(count, cursor.getCount());
+				// Forward and backward again, the first pages have been closed when the end is reached
+				for (int pos = 0; pos < count; pos++) {
+					assertRow(cursor, expected, pos);
+				}
+				for (int pos = count - 1; pos >= 0; pos--) {
+					assertRow(cursor, expected, pos);
+				}
+				// Jumping around opens and closes pages in any order
+				Random random = new Random(42);
+				for (int i = 0; i < 1000; i++) {
+					assertRow(cursor, expected, random.nextInt(count));
+				}
+			} finally {
+				cursor.close();
+			}
+		}
+	}
+
+	@Test
+	public void reducesCountWhenPageIsShort() {
+		List<long[]> rows = new ArrayList<>();
+		int count = 4 * PAGE_SIZE + 50;
+		for (int id = 1; id <= count; id++) {
+			rows.add(new long[]{id, 1000 + id / 3});
+		}
+		insert(rows);
+		List<Long> expected = expected(rows, true);
+
+		KeysetCursor cursor = new KeysetCursor(db, QUERY, "updateDate", "_id", true);
+		final int[] changes = new int[1];
+		cursor.registerDataSetObserver(new DataSetObserver() {
+			@Override
+			public void onChanged() {
+				changes[0]++;
+			}
+		});
+		try {
+			assertEquals(count, cursor.getCount());
+
+			// Delete the newest rows after they have been counted, the list now ends in the middle of page 3
+			int remaining = 3 * PAGE_SIZE + 20;
+			db.execSQL("DELETE FROM items WHERE _id > " + remaining);
+
+			// The position has been valid before, the last remaining row is returned instead
+			assertTrue(cursor.moveToPosition(4 * PAGE_SIZE + 10));
+			assertEquals((long) expected.get(remaining - 1), cursor.getLong(0));
+			assertEquals(remaining, cursor.getCount());
+			assertEquals(1, changes[0]);
+
+			assertFalse(cursor.moveToPosition(remaining));
+			for (int pos = 0; pos < remaining; pos++) {
+				assertRow(cursor, expected, pos);
+			}
+			assertEquals(1, changes[0]);
+		} finally {
+			cursor.close();
+		}
+	}
+
+	private void assertRows(List<Long> expected, boolean ascending) {
+		KeysetCursor cursor = new KeysetCursor(db, QUERY, "updateDate", "_id", ascending);
+		try {
+			assertEquals(expected.size(), cursor.getCount());
+			List<Long> ids = new ArrayList<>();
+			Set<Long> unique = new HashSet<>();
+			while (cursor.moveToNext()) {
+				ids.add(cursor.getLong(0));
+				unique.add(cursor.getLong(0));
+			}
+			assertEquals(ids.size(), unique.size());
+			assertEquals(expected, ids);
+		} finally {
+			cursor.close();
+		}
+	}
+
+	private static void assertRow(KeysetCursor cursor, List<Long> expected, int pos) {
+		assertTrue("Position " + pos, cursor.moveToPosition(pos));
+		assertEquals("Position " + pos, (long) expected.get(pos), cursor.getLong(0));
+	}
+
+	private void insert(List<long[]> rows) {
+		db.beginTransaction();
+		try {
+			for (long[] row : rows) {
+				db.execSQL("INSERT INTO items (_id, updateDate) VALUES (?, ?)", new Object[]{row[0], row[1]});
+			}
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	/**
+	 * @return the ids of the rows ordered by updateDate and id
+	 */
+	private static List<Long> expected(List<long[]> rows, boolean ascending) {
+		List<long[]> sorted = new ArrayList<>(rows);
+		Collections.sort(sorted, new Comparator<long[]>() {
+			@Override
+			public int compare(long[] left, long[] right) {
+				int ret = left[1] != right[1] ? Long.compare(left[1], right[1]) : Long.compare(left[0], right[0]);
+				return ascending ? ret : -ret;
+			}
+		});
+		List<Long> ids = new ArrayList<>(sorted.size());
+		for (long[] row : sorted) {
+			ids.add(row[0]);
+		}
+		return ids;
+	}
+
+}
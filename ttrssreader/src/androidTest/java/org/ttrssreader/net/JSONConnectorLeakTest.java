@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+
+package org.ttrssreader.net;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.ttrssreader.model.pojos.Article;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sends thousands of requests through {@link JSONConnector} while the server injects errors and checks that no
+ * response is left open: the number of open {@link ResponseReader}s has to go back to where it was, all connections in
+ * the pool have to be idle and their number must not grow.
+ */
+@RunWith(AndroidJUnit4.class)
+public class JSONConnectorLeakTest {
+
+	private static final int ROUNDS = 2100;
+	// The pool state is checked after this many rounds
+	private static final int CHECK_INTERVAL = 100;
+	private static final int MAX_IDLE_CONNECTIONS = 5;
+	// Cancelled pages may still be on their way when a round ends
+	private static final long SETTLE_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+	private static final int PAGE_SIZE = JSONConnector.PARAM_LIMIT_MAX_VALUE;
+	// getHeadlines() asks for three pages, the last one is short and ends the list
+	private static final int LIMIT = 3 * PAGE_SIZE;
+	private static final int SHORT_PAGE_SIZE = 10;
+
+	private static final String LOGIN = "{\"seq\":0,\"status\":0,\"content\":{\"session_id\":\"leaktest\",\"api_level\":15}}";
+	private static final String OK = "{\"seq\":0,\"status\":0,\"content\":{\"status\":\"OK\",\"updated\":1}}";
+	private static final String NOT_LOGGED_IN = "{\"seq\":0,\"status\":1,\"content\":{\"error\":\"NOT_LOGGED_IN\"}}";
+	private static final String INCORRECT_USAGE = "{\"seq\":0,\"status\":1,\"content\":{\"error\":\"INCORRECT_USAGE\"}}";
+
+	/**
+	 * What goes wrong in a round.
+	 */
+	private enum Fault {
+		// All pages are delivered, the last one is short
+		NONE,
+		// The first page is short, the pages requested in advance are cancelled
+		SHORT_PAGE,
+		// The second page and the update fail with an HTTP error
+		STATUS,
+		// The connection breaks while the second page and the update are transferred
+		TRUNCATED,
+		// The server answers with an API error, prepareReader() returns early
+		API_ERROR,
+		// The second page can't be parsed, parseArticleArray() stops in the middle of the body
+		MALFORMED,
+		// The session has expired, the first page is requested again after the login
+		NOT_LOGGED_IN
+	}
+
+	@Rule
+	public final MockWebServer server = new MockWebServer();
+
+	private final AtomicBoolean sessionExpired = new AtomicBoolean();
+	private volatile Fault fault = Fault.NONE;
+
+	private OkHttpClient client;
+	private JSONConnector connector;
+	private int openReaders;
+
+	@Before
+	public void setUp() {
+		server.setDispatcher(new Dispatcher() {
+			@Override
+			public MockResponse dispatch(RecordedRequest request) {
+				try {
+					return respond(new JSONObject(request.getBody().readUtf8()));
+				} catch (JSONException e) {
+					return new MockResponse().setResponseCode(400);
+				}
+			}
+		});
+
+		client = new OkHttpClient.Builder()
+				.connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, 5, TimeUnit.MINUTES))
+				.build();
+		connector = new JSONConnector(client, server.url("/api/").toString());
+		openReaders = ResponseReader.getOpenReaders();
+	}
+
+	@After
+	public void tearDown() {
+		client.dispatcher().cancelAll();
+		client.connectionPool().evictAll();
+	}
+
+	@Test
+	public void keepsConnectionPoolStable() throws InterruptedException {
+		Set<Integer> ids = Collections.singleton(1);
+		Fault[] faults = Fault.values();
+
+		for (int round = 0; round < ROUNDS; round++) {
+			fault = faults[round % faults.length];
+			sessionExpired.set(fault == Fault.NOT_LOGGED_IN);
+
+			Set<Article> articles = new HashSet<>();
+			connector.getHeadlines(articles, -4, LIMIT, "all_articles", true, 0, null, null, new JSONConnector.ApiResult());
+			connector.setArticleRead(ids, 0);
+
+			if (fault == Fault.NONE)
+				assertEquals(PAGE_SIZE + SHORT_PAGE_SIZE, articles.size());
+
+			if ((round + 1) % CHECK_INTERVAL == 0)
+				assertNoLeaks(round);
+		}
+	}
+
+	private MockResponse respond(JSONObject request) {
+		String op = request.optString("op");
+		if ("login".equals(op))
+			return new MockResponse().setBody(LOGIN);
+
+		if ("getHeadlines".equals(op)) {
+			int skip = request.optInt("skip");
+			boolean firstPage = skip == 0;
+			switch (fault) {
+				case SHORT_PAGE:
+					return new MockResponse().setBody(buildPage(skip, firstPage ? SHORT_PAGE_SIZE : PAGE_SIZE, false));
+				case STATUS:
+					if (!firstPage)
+						return new MockResponse().setResponseCode(500);
+					break;
+				case TRUNCATED:
+					MockResponse response = new MockResponse().setBody(buildPage(skip, PAGE_SIZE, false));
+					return firstPage ? response : response.setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+				case API_ERROR:
+					return new MockResponse().setBody(INCORRECT_USAGE);
+				case MALFORMED:
+					return new MockResponse().setBody(buildPage(skip, PAGE_SIZE, !firstPage));
+				case NOT_LOGGED_IN:
+					if (firstPage && sessionExpired.compareAndSet(true, false))
+						return new MockResponse().setBody(NOT_LOGGED_IN);
+					break;
+			}
+			return new MockResponse().setBody(buildPage(skip, skip < PAGE_SIZE ? PAGE_SIZE : SHORT_PAGE_SIZE, false));
+		}
+
+		switch (fault) {
+			case STATUS:
+				return new MockResponse().setResponseCode(500);
+			case TRUNCATED:
+				return new MockResponse().setBody(OK).setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+			case API_ERROR:
+				return new MockResponse().setBody(INCORRECT_USAGE);
+			default:
+				return new MockResponse().setBody(OK);
+		}
+	}
+
+	/**
+	 * Waits until the responses of the last round have been closed, cancelled pages are closed by the thread of
+	 * their call, then checks the pool.
+	 */
+	private void assertNoLeaks(int round) throws InterruptedException {
+		ConnectionPool pool = client.connectionPool();
+		long deadline = System.currentTimeMillis() + SETTLE_TIMEOUT;
+		while (System.currentTimeMillis() < deadline) {
+			if (client.dispatcher().runningCallsCount() == 0 && ResponseReader.getOpenReaders() == openReaders
+					&& pool.idleConnectionCount() == pool.connectionCount() && pool.connectionCount() <= MAX_IDLE_CONNECTIONS)
+				break;
+			Thread.sleep(10);
+		}
+
+		String state = String.format("after round %s: %s connections, %s idle", round, pool.connectionCount(), pool.idleConnectionCount());
+		assertEquals("Open responses " + state, openReaders, ResponseReader.getOpenReaders());
+		assertEquals("Connections in use " + state, pool.connectionCount(), pool.idleConnectionCount());
+		assertTrue("Connections " + state, pool.connectionCount() <= MAX_IDLE_CONNECTIONS);
+	}
+
+	/**
+	 * @param firstId   the articles get the ids after this one, like the offset of the page
+	 * @param malformed if set a number is put into the middle of the array where an article is expected
+	 */
+	private static String buildPage(int firstId, int size, boolean malformed) {
+		StringBuilder sb = new StringBuilder("{\"seq\":0,\"status\":0,\"content\":[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				sb.append(',');
+			if (malformed && i == size / 2) {
+				sb.append("42");
+				continue;
+			}
+			int id = firstId + i + 1;
+			sb.append("{\"id\":").append(id)
+					.append(",\"title\":\"Article ").append(id).append('"')
+					.append(",\"unread\":true,\"marked\":false,\"published\":false")
+					.append(",\"updated\":").append(1700000000 + id)
+					.append(",\"feed_id\":\"1\",\"link\":\"https://example.com/").append(id).append('"')
+					.append(",\"content\":\"<p>Text of article ").append(id).append(" <img src=\\\"//example.com/").append(id).append(".png\\\"></p>\"}");
+		}
+		return sb.append("]}").toString();
+	}
+
+}
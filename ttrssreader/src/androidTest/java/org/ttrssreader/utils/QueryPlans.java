@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+package org.ttrssreader.utils;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the plans of queries on the hot paths, so a change of a query or an index which makes SQLite read a whole
+ * table is noticed by the tests and not by users with large databases.
+ */
+public final class QueryPlans {
+
+	private QueryPlans() {
+	}
+
+	/**
+	 * Fails if EXPLAIN QUERY PLAN contains a step which reads a whole table instead of an index.
+	 *
+	 * @param db    the database
+	 * @param query the query as it is run by the app
+	 * @param args  the arguments of the query
+	 */
+	public static void assertNoFullScan(SQLiteDatabase db, String query, String... args) {
+		Cursor c = db.rawQuery("EXPLAIN QUERY PLAN " + query, args);
+		try {
+			while (c.moveToNext()) {
+				// The last column contains the description, e.g. "SCAN TABLE articles" or
+				// "SEARCH TABLE articles USING INDEX idx_articles_feed (feedId=?)". The constant row is the one row
+				// returned by "SELECT EXISTS (...)".
+				String detail = c.getString(c.getColumnCount() - 1);
+				if (detail.startsWith("SCAN") && !detail.contains(" USING ") && !detail.contains("CONSTANT ROW"))
+					fail(String.format("Full table scan (%s) in query: %s", detail, query));
+			}
+		} finally {
+			c.close();
+		}
+	}
+
+}
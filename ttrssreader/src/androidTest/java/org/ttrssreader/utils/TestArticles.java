@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+
+package org.ttrssreader.utils;
+
+import org.ttrssreader.model.pojos.Article;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Builds articles as they come from the server for the database benchmarks.
+ */
+public final class TestArticles {
+
+	// Number of feeds the articles are spread over
+	public static final int FEEDS = 20;
+
+	private TestArticles() {
+	}
+
+	/**
+	 * @param firstId id of the first article, the others get the following ids
+	 * @param count   number of articles
+	 * @return articles with content of a few kilobytes, every third one is unread
+	 */
+	public static List<Article> build(int firstId, int count) {
+		List<Article> ret = new ArrayList<>(count);
+		for (int id = firstId; id < firstId + count; id++) {
+			Article a = new Article();
+			a.id = id;
+			a.guid = "guid-" + id;
+			a.title = "Article " + id;
+			a.feedId = id % FEEDS + 1;
+			a.isUnread = id % 3 == 0;
+			a.isStarred = id % 17 == 0;
+			a.url = "https://example.com/" + id;
+			a.commentUrl = "";
+			a.updated = new Date(1700000000000L + id * 60000L);
+			a.content = content(id);
+			a.attachments = new LinkedHashSet<>();
+			a.labels = new LinkedHashSet<>();
+			a.author = "Author " + id % 7;
+			ret.add(a);
+		}
+		return ret;
+	}
+
+	private static String content(int id) {
+		StringBuilder sb = new StringBuilder("<div>");
+		for (int p = 0; p < 8; p++) {
+			sb.append("<p>Paragraph ").append(p).append(" of article ").append(id)
+					.append(" with <a href=\"https://example.com/").append(p).append("\">a link</a> and enough words to be")
+					.append(" about as long as a paragraph of a usual news article, which is what a sync stores.</p>");
+		}
+		return sb.append("</div>").toString();
+	}
+
+}
@@ -26,7 +26,6 @@ import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.Signature;
 import android.content.res.Configuration;
-import android.net.http.HttpResponseCache;
 import android.net.wifi.WifiInfo;
 import android.net.wifi.WifiManager;
 import android.os.Build;
@@ -52,25 +51,33 @@ import org.ttrssreader.utils.SSLUtils;
 import org.ttrssreader.utils.Utils;
 
 import java.io.File;
-import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
+import java.net.Proxy;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.URLConnection;
-import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import androidx.appcompat.app.AppCompatDelegate;
 import androidx.preference.PreferenceManager;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Credentials;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
 
 /**
  * Not entirely sure why this is called the "Controller". Actually, in terms of MVC, it isn't the controller. There
@@ -93,6 +100,18 @@ public class Controller extends Constants implements OnSharedPreferenceChangeLis
 	private volatile JSONConnector ttrssConnector;
 	private static final Object lockConnector = new Object();
 
+	// Shared by every OkHttpClient handed out by getHttpClient(), also when the client is rebuilt after settings changed
+	private static final int MAX_REQUESTS = 16;
+	private static final int MAX_REQUESTS_PER_HOST = 4;
+	private static final int MAX_IDLE_CONNECTIONS = 5;
+	private final ConnectionPool connectionPool = new ConnectionPool(MAX_IDLE_CONNECTIONS, 5, TimeUnit.MINUTES);
+	private final Dispatcher dispatcher = new Dispatcher();
+	private volatile Cache httpCache;
+
+	private volatile OkHttpClient httpClient;
+	private volatile String httpClientSettings = "";
+	private static final Object lockHttpClient = new Object();
+
 	private volatile ImageCache imageCache = null;
 	private boolean imageCacheLoaded = false;
 
@@ -142,6 +161,9 @@ public class Controller extends Constants implements OnSharedPreferenceChangeLis
 	private Integer cacheFolderMaxSize = null;
 	private Integer cacheImageMaxSize = null;
 	private Integer cacheImageMinSize = null;
+	private Integer articleLimit = null;
+	private Integer articleMaxAge = null;
+	private Integer databaseMaxSize = null;
 	private Boolean deleteDbScheduled = null;
 	private Boolean cacheImagesOnStartup = null;
 	private Boolean cacheImagesOnlyWifi = null;
@@ -326,15 +348,15 @@ public class Controller extends Constants implements OnSharedPreferenceChangeLis
 	}
 
 	/**
-	 * Enables HTTP response caching, see http://android-developers.blogspot.de/2011/09/androids-http-clients.html
+	 * Enables HTTP response caching for the shared client, see {@link #getHttpClient()}.
 	 */
 	private void enableHttpResponseCache(final File cacheDir) {
 		long httpCacheSize = 10 * 1024 * 1024; // 10 MiB
 		File httpCacheDir = new File(cacheDir, "http");
-		try {
-			HttpResponseCache.install(httpCacheDir, httpCacheSize);
-		} catch (IOException e) {
-			e.printStackTrace();
+		synchronized (lockHttpClient) {
+			httpCache = new Cache(httpCacheDir, httpCacheSize);
+			// Rebuild the client with the cache on next access
+			httpClient = null;
 		}
 	}
 
@@ -649,11 +671,15 @@ public class Controller extends Constants implements OnSharedPreferenceChangeLis
 	}
 
 	public boolean urlNeedsAuthentication(URL url) {
+		return hostNeedsAuthentication(url.getHost());
+	}
+
+	private boolean hostNeedsAuthentication(String host) {
 		if (!this.useHttpAuth())
 			return false;
 
 		try {
-			return url.getHost().equalsIgnoreCase(this.url().getHost());
+			return host.equalsIgnoreCase(this.url().getHost());
 		} catch (MalformedURLException e) {
 			Log.e(TAG, "Malformed URL: " + e);
 		}
@@ -661,17 +687,78 @@ public class Controller extends Constants implements OnSharedPreferenceChangeLis
 		return false;
 	}
 
-	@SuppressWarnings("CharsetObjectCanBeUsed")
-	public URLConnection openConnection(URL url) throws IOException {
-		URLConnection c = url.openConnection();
+	/**
+	 * Returns the client used for all network access: API calls, feed icons, cached images and media downloads.
+	 * Every client returned here uses the same connection pool and dispatcher, so connections and their TLS sessions are
+	 * reused across all of these and requests to one host are limited to {@link #MAX_REQUESTS_PER_HOST} at once.
+	 * Proxy, SSL and HTTP-Basic Authentication settings are applied to all requests, the latter only for requests to
+	 * the configured server.
+	 * <p>
+	 * The client is rebuilt when any of the proxy or SSL settings change. Callers needing different timeouts should
+	 * derive a client with {@link OkHttpClient#newBuilder()}, which keeps the shared pool.
+	 */
+	public OkHttpClient getHttpClient() {
+		// Just build a string out of all settings involved here, then check against the old string to see if anything changed in between:
+		String settings = useProxy() + proxyHost() + proxyPort() + System.identityHashCode(SSLUtils.factory) + System.identityHashCode(SSLUtils.hostnameVerifier);
+
+		OkHttpClient client = httpClient;
+		if (client != null && settings.equals(httpClientSettings))
+			return client;
+
+		synchronized (lockHttpClient) {
+			if (httpClient == null || !settings.equals(httpClientSettings)) {
+				httpClient = buildHttpClient();
+				httpClientSettings = settings;
+			}
+			return httpClient;
+		}
+	}
+
+	private OkHttpClient buildHttpClient() {
+		dispatcher.setMaxRequests(MAX_REQUESTS);
+		dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
 
-		if (this.urlNeedsAuthentication(url)) {
-			String auth = this.httpUsername() + ":" + this.httpPassword();
-			String encoded = Base64.encodeToString(auth.getBytes(StandardCharsets.UTF_8), Base64.NO_WRAP);
-			c.setRequestProperty("Authorization", "Basic " + encoded);
+		OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder();
+		clientBuilder.connectionPool(connectionPool);
+		clientBuilder.dispatcher(dispatcher);
+		clientBuilder.protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+		clientBuilder.connectTimeout(10, TimeUnit.SECONDS);
+		clientBuilder.readTimeout(10, TimeUnit.SECONDS);
+		if (SSLUtils.factory != null) {
+			clientBuilder.sslSocketFactory(SSLUtils.factory);
+		}
+		if (SSLUtils.hostnameVerifier != null) {
+			clientBuilder.hostnameVerifier(SSLUtils.hostnameVerifier);
 		}
+		if (httpCache != null) {
+			clientBuilder.cache(httpCache);
+		}
+		clientBuilder.proxy(getProxy());
+
+		// HTTP-Basic Authentication, OkHttp drops the header itself when following a redirect to another host
+		clientBuilder.addInterceptor(chain -> {
+			Request request = chain.request();
+			if (request.header("Authorization") == null && hostNeedsAuthentication(request.url().host())) {
+				String user = httpUsername();
+				String pw = httpPassword();
+				request = request.newBuilder().header("Authorization", Credentials.basic(user, pw)).build();
+			}
+			return chain.proceed(request);
+		});
+
+		Log.d(TAG, "Built new HTTP client");
+		return clientBuilder.build();
+	}
 
-		return c;
+	private Proxy getProxy() {
+		if (useProxy()) {
+			String host = proxyHost();
+			if (!EMPTY.equals(host)) {
+				int port = proxyPort();
+				return new Proxy(Proxy.Type.SOCKS, new InetSocketAddress(host, port));
+			}
+		}
+		return Proxy.NO_PROXY;
 	}
 
 	public JSONConnector getConnector() {
@@ -1189,6 +1276,24 @@ public class Controller extends Constants implements OnSharedPreferenceChangeLis
 		this.cacheFolderMaxSize = cacheFolderMaxSize;
 	}
 
+	public Integer articleLimit() {
+		if (articleLimit == null)
+			articleLimit = prefs.getInt(ARTICLE_LIMIT, ARTICLE_LIMIT_DEFAULT);
+		return articleLimit;
+	}
+
+	public Integer articleMaxAge() {
+		if (articleMaxAge == null)
+			articleMaxAge = prefs.getInt(ARTICLE_MAX_AGE, ARTICLE_MAX_AGE_DEFAULT);
+		return articleMaxAge;
+	}
+
+	public Integer databaseMaxSize() {
+		if (databaseMaxSize == null)
+			databaseMaxSize = prefs.getInt(DATABASE_MAX_SIZE, DATABASE_MAX_SIZE_DEFAULT);
+		return databaseMaxSize;
+	}
+
 	public Integer cacheImageMaxSize() {
 		if (cacheImageMaxSize == null)
 			cacheImageMaxSize = prefs.getInt(CACHE_IMAGE_MAX_SIZE, CACHE_IMAGE_MAX_SIZE_DEFAULT);
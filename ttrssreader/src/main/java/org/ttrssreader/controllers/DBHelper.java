@@ -17,7 +17,6 @@
 
 package org.ttrssreader.controllers;
 
-import android.annotation.SuppressLint;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
@@ -31,8 +30,12 @@ import android.text.Html;
 import android.util.Log;
 import android.widget.Toast;
 
+import androidx.annotation.VisibleForTesting;
+
+import org.jsoup.Jsoup;
 import org.ttrssreader.MyApplication;
 import org.ttrssreader.gui.dialogs.ErrorDialog;
+import org.ttrssreader.imageCache.FeedIconCache;
 import org.ttrssreader.imageCache.ImageCache;
 import org.ttrssreader.model.pojos.Article;
 import org.ttrssreader.model.pojos.Category;
@@ -40,8 +43,10 @@ import org.ttrssreader.model.pojos.Feed;
 import org.ttrssreader.model.pojos.Label;
 import org.ttrssreader.model.pojos.RemoteFile;
 import org.ttrssreader.utils.AsyncTask;
+import org.ttrssreader.utils.CompressionUtils;
 import org.ttrssreader.utils.FileUtils;
-import org.ttrssreader.utils.StringSupport;
+import org.ttrssreader.utils.IntLongMap;
+import org.ttrssreader.utils.IntSet;
 import org.ttrssreader.utils.Utils;
 
 import java.io.File;
@@ -52,19 +57,25 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
 
 public class DBHelper {
 
 	private static final String TAG = DBHelper.class.getSimpleName();
 
 	private static final String DATABASE_NAME = "ttrss.db";
-	private static final int DATABASE_VERSION = 67;
+	private static final int DATABASE_VERSION = 79;
 
 	public static final String[] CATEGORIES_COLUMNS = new String[]{"_id", "title", "unread"};
 
@@ -72,10 +83,16 @@ public class DBHelper {
 	public static final String TABLE_FEEDS = "feeds";
 	public static final String TABLE_ARTICLES = "articles";
 	public static final String TABLE_ARTICLES2LABELS = "articles2labels";
+	public static final String TABLE_LABELS = "labels";
 	private static final String TABLE_MARK = "marked";
 	private static final String TABLE_NOTES = "notes";
+	// Catchups were queued here between version 77 and 79
+	private static final String TABLE_CATCHUP = "catchup";
 	public static final String TABLE_REMOTEFILES = "remotefiles";
 	public static final String TABLE_REMOTEFILE2ARTICLE = "remotefile2article";
+	public static final String TABLE_ARTICLE_CONTENT = "article_content";
+	public static final String TABLE_ARTICLES_FTS = "articles_fts";
+	public static final String TABLE_FEED_ICONS = "feed_icons";
 
 	static final String MARK_READ = "isUnread";
 	static final String MARK_STAR = "isStarred";
@@ -92,6 +109,16 @@ public class DBHelper {
 					+ " unread INTEGER)";
 
 	private static final String CREATE_TABLE_FEEDS =
+			"CREATE TABLE "
+					+ TABLE_FEEDS
+					+ " (_id INTEGER PRIMARY KEY,"
+					+ " categoryId INTEGER,"
+					+ " title TEXT,"
+					+ " url TEXT,"
+					+ " unread INTEGER)";
+
+	// Definition of the feeds table before version 76, needed by the upgrade to version 58
+	private static final String CREATE_TABLE_FEEDS_V75 =
 			"CREATE TABLE "
 					+ TABLE_FEEDS
 					+ " (_id INTEGER PRIMARY KEY,"
@@ -101,7 +128,37 @@ public class DBHelper {
 					+ " unread INTEGER,"
 					+ " icon BLOB)";
 
+	// Icons are only read for display, so they are kept out of the feeds table. The hash (CRC32) of the icon is used to
+	// skip writing icons which haven't changed.
+	private static final String CREATE_TABLE_FEED_ICONS =
+			"CREATE TABLE "
+					+ TABLE_FEED_ICONS
+					+ " (_id INTEGER PRIMARY KEY,"
+					+ " hash INTEGER,"
+					+ " icon BLOB)";
+
 	private static final String CREATE_TABLE_ARTICLES =
+			"CREATE TABLE "
+					+ TABLE_ARTICLES
+					+ " (_id INTEGER PRIMARY KEY,"
+					+ " feedId INTEGER,"
+					+ " title TEXT,"
+					+ " isUnread INTEGER,"
+					+ " articleUrl TEXT,"
+					+ " articleCommentUrl TEXT,"
+					+ " updateDate INTEGER,"
+					+ " isStarred INTEGER,"
+					+ " isPublished INTEGER,"
+					+ " cachedImages INTEGER DEFAULT 0,"
+					+ " author TEXT,"
+					+ " note TEXT,"
+					+ " score INTEGER DEFAULT 0,"
+					+ " searchPending INTEGER DEFAULT 0)";
+	// "searchPending" is set for articles which were stored before the search index existed, see indexArticles().
+	// Articles inserted later are indexed right away by insertArticles().
+
+	// Definition of the articles table before version 70, needed by the upgrade to version 58
+	private static final String CREATE_TABLE_ARTICLES_V69 =
 			"CREATE TABLE "
 					+ TABLE_ARTICLES
 					+ " (_id INTEGER PRIMARY KEY,"
@@ -121,12 +178,39 @@ public class DBHelper {
 					+ " note TEXT,"
 					+ " score INTEGER DEFAULT 0)";
 
+	// The bodies are kept apart from the articles so queries on the articles don't have to read through them
+	private static final String CREATE_TABLE_ARTICLE_CONTENT =
+			"CREATE TABLE "
+					+ TABLE_ARTICLE_CONTENT
+					+ " (_id INTEGER PRIMARY KEY,"
+					+ " content TEXT,"
+					+ " attachments TEXT)";
+
+	// Full-text index for the offline search, the docid is the id of the article. Content is indexed without HTML.
+	// FTS4 is used since FTS5 is not available in the SQLite of older Android versions. The table keeps its own copy of
+	// the text: a contentless table can't delete rows (purged articles) and doesn't support offsets() which ranks the
+	// results, an external-content table would need the indexed text again for every delete while the bodies are only
+	// stored as compressed HTML.
+	private static final String CREATE_TABLE_ARTICLES_FTS =
+			"CREATE VIRTUAL TABLE IF NOT EXISTS "
+					+ TABLE_ARTICLES_FTS
+					+ " USING fts4(title, author, note, content)";
+
 	private static final String CREATE_TABLE_ARTICLES2LABELS =
 			"CREATE TABLE "
 					+ TABLE_ARTICLES2LABELS
 					+ " (articleId INTEGER,"
 					+ " labelId INTEGER, PRIMARY KEY(articleId, labelId))";
 
+	// Caption and colors of the labels, the id is the same as the id of the label in the feeds table (<= -11)
+	private static final String CREATE_TABLE_LABELS =
+			"CREATE TABLE "
+					+ TABLE_LABELS
+					+ " (_id INTEGER PRIMARY KEY,"
+					+ " caption TEXT,"
+					+ " foregroundColor TEXT,"
+					+ " backgroundColor TEXT)";
+
 	private static final String CREATE_TABLE_MARK =
 			"CREATE TABLE "
 					+ TABLE_MARK
@@ -141,33 +225,119 @@ public class DBHelper {
 					+ " (_id INTEGER PRIMARY KEY,"
 					+ " " + COL_NOTE + " TEXT)";
 
+	// Categories, feeds and articles are written with an UPDATE first and an INSERT OR IGNORE if no row was changed.
+	// REPLACE would delete the old row without firing the delete-triggers (recursive_triggers is off), so the unread
+	// counters maintained by the triggers would drift.
+	private static final String UPDATE_CATEGORY =
+			"UPDATE "
+					+ TABLE_CATEGORIES
+					+ " SET title=?"
+					+ " WHERE _id=?";
+
 	private static final String INSERT_CATEGORY =
-			"REPLACE INTO "
+			"INSERT OR IGNORE INTO "
 					+ TABLE_CATEGORIES
 					+ " (_id, title, unread)"
-					+ " VALUES (?, ?, ?)";
+					+ " VALUES (?, ?, CASE WHEN ?>=0 THEN (SELECT ifnull(sum(unread), 0) FROM " + TABLE_FEEDS
+					+ " WHERE categoryId=?) ELSE ? END)";
+	// Real categories start with the sum of their feeds, virtual categories with the value given by the caller.
+
+	private static final String UPDATE_FEED =
+			"UPDATE "
+					+ TABLE_FEEDS
+					+ " SET categoryId=?, title=?, url=?"
+					+ " WHERE _id=?";
 
 	private static final String INSERT_FEED =
-			"REPLACE INTO "
+			"INSERT OR IGNORE INTO "
 					+ TABLE_FEEDS
-					+ " (_id, categoryId, title, url, unread, icon)"
-					+ " VALUES (?, ?, ?, ?, ?, ?)";
+					+ " (_id, categoryId, title, url, unread)"
+					+ " VALUES (?, ?, ?, ?, (SELECT count(*) FROM " + TABLE_ARTICLES
+					+ " WHERE feedId=? AND isUnread>0))";
+	// The unread count of a feed is always taken from the local articles, the value sent by the server is ignored.
+
+	private static final String UPDATE_ARTICLE =
+			"UPDATE "
+					+ TABLE_ARTICLES
+					+ " SET feedId=?, title=?, isUnread=?, articleUrl=?, articleCommentUrl=?, updateDate=?,"
+					+ " isStarred=?, isPublished=?, author=?, note=?, score=?"
+					+ " WHERE _id=?";
+	// "cachedImages" is not touched here so an already inserted value is kept.
 
 	private static final String INSERT_ARTICLE =
-			"INSERT OR REPLACE INTO "
+			"INSERT OR IGNORE INTO "
 					+ TABLE_ARTICLES
-					+ " (_id, feedId, title, isUnread, articleUrl, articleCommentUrl, updateDate, content,"
-					+ " attachments, isStarred, isPublished, cachedImages, articleLabels, author, note, score)"
-					+ " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, coalesce((SELECT cachedImages FROM " + TABLE_ARTICLES
-					+ " WHERE _id=?), NULL), ?, ?, ?, ?)";
-	// This should insert new values or replace existing values but should always keep an already inserted value for
-	// "cachedImages". When inserting it is set to the default value which is 0 (not "NULL").
-
-	private static final String INSERT_LABEL =
+					+ " (_id, feedId, title, isUnread, articleUrl, articleCommentUrl, updateDate,"
+					+ " isStarred, isPublished, cachedImages, author, note, score)"
+					+ " VALUES ";
+	private static final String INSERT_ARTICLE_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, NULL, ?, ?, ?)";
+	// New articles start with "cachedImages" set to NULL ("unknown") so the ImageCacher picks them up. The statement
+	// is completed with one INSERT_ARTICLE_ROW per article, see insertArticles().
+
+	// Article bodies are compressed (see CompressionUtils) and stored as BLOB, this index contains all rows which
+	// still have to be compressed.
+	private static final String CREATE_INDEX_ARTICLE_CONTENT_PLAIN =
+			"CREATE INDEX IF NOT EXISTS idx_article_content_plain"
+					+ " ON " + TABLE_ARTICLE_CONTENT
+					+ " (_id)"
+					+ " WHERE typeof(content)='text'";
+
+	// Contains all articles which still have to be added to the search index
+	private static final String CREATE_INDEX_ARTICLES_SEARCH_PENDING =
+			"CREATE INDEX IF NOT EXISTS idx_articles_search_pending"
+					+ " ON " + TABLE_ARTICLES
+					+ " (_id)"
+					+ " WHERE searchPending=1";
+
+	private static final String INSERT_ARTICLE_CONTENT =
+			"REPLACE INTO "
+					+ TABLE_ARTICLE_CONTENT
+					+ " (_id, content, attachments)"
+					+ " VALUES ";
+	private static final String INSERT_ARTICLE_CONTENT_ROW = "(?, ?, ?)";
+
+	private static final String INSERT_ARTICLE_FTS =
 			"REPLACE INTO "
+					+ TABLE_ARTICLES_FTS
+					+ " (docid, title, author, note, content)"
+					+ " VALUES ";
+	private static final String INSERT_ARTICLE_FTS_ROW = "(?, ?, ?, ?, ?)";
+
+	// Only adds articles which still exist and have not been indexed by insertArticles() in the meantime
+	private static final String INSERT_ARTICLE_FTS_MISSING =
+			"INSERT INTO "
+					+ TABLE_ARTICLES_FTS
+					+ " (docid, title, author, note, content)"
+					+ " SELECT ?, ?, ?, ?, ?"
+					+ " WHERE EXISTS (SELECT 1 FROM " + TABLE_ARTICLES + " WHERE _id=?)"
+					+ " AND NOT EXISTS (SELECT 1 FROM " + TABLE_ARTICLES_FTS + " WHERE docid=?)";
+
+	private static final String INSERT_LABELS =
+			"INSERT OR IGNORE INTO "
 					+ TABLE_ARTICLES2LABELS
 					+ " (articleId, labelId)"
-					+ " VALUES (?, ?)";
+					+ " VALUES ";
+	private static final String INSERT_LABELS_ROW = "(?, ?)";
+
+	private static final String INSERT_LABEL_INFO =
+			"REPLACE INTO "
+					+ TABLE_LABELS
+					+ " (_id, caption, foregroundColor, backgroundColor)"
+					+ " VALUES ";
+	private static final String INSERT_LABEL_INFO_ROW = "(?, ?, ?, ?)";
+
+	// Session-local set of ids which statements join against instead of having the ids spliced into the SQL, so the
+	// same few statements are used for any number of ids. Temporary tables only exist on the connection which created
+	// them, the set is therefore filled and used inside one transaction, see fillIdSet().
+	private static final String TABLE_ID_SET = "temp.id_set";
+	private static final String CREATE_TABLE_ID_SET = "CREATE TEMP TABLE IF NOT EXISTS id_set (id INTEGER PRIMARY KEY)";
+	private static final String INSERT_ID_SET =
+			"INSERT OR IGNORE INTO "
+					+ TABLE_ID_SET
+					+ " (id)"
+					+ " VALUES ";
+	private static final String INSERT_ID_SET_ROW = "(?)";
+	private static final String IN_ID_SET = " IN (SELECT id FROM " + TABLE_ID_SET + ")";
 
 	private static final String INSERT_REMOTEFILE =
 			"INSERT OR FAIL INTO "
@@ -180,34 +350,72 @@ public class DBHelper {
 					+ TABLE_REMOTEFILE2ARTICLE
 					+ " (remotefileId, articleId)"
 					+ " VALUES (?, ?)";
+
+	// Eviction score of a remote file, cached files with the lowest score are deleted first: files of read articles
+	// before files of unread articles, then by the newest update date of their articles.
+	private static final long EVICT_SCORE_UNREAD = 1L << 42;
+	private static final String EVICT_SCORE =
+			"(SELECT MAX(a.isUnread>0)*" + EVICT_SCORE_UNREAD + "+MAX(a.updateDate)"
+					+ " FROM " + TABLE_REMOTEFILE2ARTICLE + " m, " + TABLE_ARTICLES + " a"
+					+ " WHERE m.remotefileId=%s AND a._id=m.articleId)";
 	// @formatter:on
 
-	private volatile boolean initialized = false;
+	// Columns of the articles table without the content, which is loaded on demand
+	private static final String[] ARTICLES_COLUMNS = new String[]{"_id", "feedId", "title", "isUnread", "articleUrl", "articleCommentUrl", "updateDate", "isStarred", "isPublished", "author", "note"};
+	// Columns of the feeds table, databases upgraded from before version 76 still have the unused icon column
+	private static final String[] FEEDS_COLUMNS = new String[]{"_id", "categoryId", "title", "url", "unread"};
+
+	// SQLite allows at most 999 bound values per statement
+	private static final int ARTICLE_VALUES = 12;
+	private static final int ARTICLE_CHUNK_SIZE = 50;
+	private static final int CONTENT_CHUNK_SIZE = 300;
+	private static final int FTS_CHUNK_SIZE = 150;
+	private static final int LABEL_CHUNK_SIZE = 400;
+	private static final int LABEL_INFO_CHUNK_SIZE = 200;
+	private static final int ID_SET_CHUNK_SIZE = 500;
+	// Articles deleted per transaction when purging
+	private static final int PURGE_BATCH_SIZE = 500;
+	// Smallest amount of articles worth preparing on another thread
+	private static final int NORMALIZE_CHUNK_SIZE = 250;
 
-	private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
-	private final Lock read = rwl.readLock();
-	private final Lock write = rwl.writeLock();
+	private volatile boolean initialized = false;
 
-	private OpenHelper openHelper;
+	// The database runs in WAL mode: readers use their own connections from the pool and never wait for the writer,
+	// writers are serialized by SQLite itself. Access to the helper therefore needs no lock, only a volatile handle
+	// which is set once the database is opened and cleared when it gets closed. Methods read the handle once into a
+	// local variable and use it for the check and for getting the database, so closeDB() can't clear it in between.
+	private volatile OpenHelper openHelper;
 
-	public synchronized OpenHelper getOpenHelper() {
+	public OpenHelper getOpenHelper() {
 		return openHelper;
 	}
 
 	private final Object insertCategoryLock = new Object();
 	private final Object insertFeedLock = new Object();
 	private final Object insertArticleLock = new Object();
-	private final Object insertLabelLock = new Object();
 	private final Object insertRemoteFileLock = new Object();
 	private final Object insertRemoteFile2ArticleLock = new Object();
+	private final Object purgeRemoteFilesLock = new Object();
+	private final AtomicBoolean remoteFilePurgeScheduled = new AtomicBoolean(false);
 
+	private SQLiteStatement updateCategory;
 	private SQLiteStatement insertCategory;
+	private SQLiteStatement updateFeed;
 	private SQLiteStatement insertFeed;
-	private SQLiteStatement insertArticle;
-	private SQLiteStatement insertLabel;
+	private SQLiteStatement updateArticle;
 	private SQLiteStatement insertRemoteFile;
 	private SQLiteStatement insertRemoteFile2Article;
 
+	// Read-through cache of feeds and categories for getFeed() and getCategory(). The generation is increased on every
+	// invalidation, so rows which have been read before can't be put back into the cache afterwards. Invalidating and
+	// the check of the generation before a put are done under cacheLock, lookups don't need it.
+	private final Map<Integer, Feed> feedCache = new ConcurrentHashMap<>();
+	private final Map<Integer, Category> categoryCache = new ConcurrentHashMap<>();
+	private final AtomicInteger cacheGeneration = new AtomicInteger();
+	private final Object cacheLock = new Object();
+	// Number of queries run by getFeed() and getCategory() because the row was not cached
+	private final AtomicInteger cacheMisses = new AtomicInteger();
+
 	private static boolean specialUpgradeSuccessful = false;
 
 	// Singleton (see http://stackoverflow.com/a/11165926)
@@ -222,6 +430,17 @@ public class DBHelper {
 		return InstanceHolder.instance;
 	}
 
+	/**
+	 * Instance working on its own database file, tests use it instead of the singleton so the database of the app is
+	 * never touched.
+	 *
+	 * @param name file name of the database
+	 */
+	@VisibleForTesting
+	DBHelper(Context context, String name) {
+		open(new OpenHelper(context, name));
+	}
+
 	public synchronized void initialize(final Context context) {
 		new AsyncTask<Void, Void, Void>() {
 			protected Void doInBackground(Void... params) {
@@ -248,12 +467,12 @@ public class DBHelper {
 				}
 
 				// Test if DB is accessible, backup and delete if not
-				if (initialized) {
+				OpenHelper helper = getOpenHelper();
+				if (initialized && helper != null) {
 					Cursor c = null;
-					read.lock();
 					try {
 						// Try to access the DB
-						c = getOpenHelper().getReadableDatabase().rawQuery("SELECT COUNT(*) FROM " + TABLE_CATEGORIES, null);
+						c = helper.getReadableDatabase().rawQuery("SELECT COUNT(*) FROM " + TABLE_CATEGORIES, null);
 						c.getCount();
 						if (c.moveToFirst())
 							c.getInt(0);
@@ -267,8 +486,14 @@ public class DBHelper {
 						ErrorDialog.getInstance("The Database was corrupted and had to be recreated. If this happened more " + "than once to you please let me know under what circumstances this " + "happened.");
 					} finally {
 						close(c);
-						read.unlock();
 					}
+
+					// Bodies stored before version 71 are compressed now, later articles are compressed on insert
+					if (isDBAvailable())
+						compressArticleContent();
+					// Articles flagged by the upgrade to version 78 are added to the search index
+					if (isDBAvailable())
+						indexArticles();
 				}
 				return null;
 			}
@@ -281,14 +506,16 @@ public class DBHelper {
 		if (getOpenHelper() != null)
 			closeDB();
 
-		openHelper = new OpenHelper(context);
-		SQLiteDatabase db = openHelper.getWritableDatabase();
+		// The handle is only published after the statements are compiled, until then all methods see the database as
+		// not available.
+		OpenHelper helper = new OpenHelper(context);
+		SQLiteDatabase db = helper.getWritableDatabase();
 
 		if (specialUpgradeSuccessful) {
 			// Re-open DB for final usage:
-			closeDB();
-			openHelper = new OpenHelper(context);
-			db = openHelper.getWritableDatabase();
+			helper.close();
+			helper = new OpenHelper(context);
+			db = helper.getWritableDatabase();
 
 			Toast.makeText(context, "ImageCache is beeing cleaned...", Toast.LENGTH_LONG).show();
 			new AsyncTask<Void, Void, Void>() {
@@ -310,14 +537,24 @@ public class DBHelper {
 			}.execute();
 		}
 
+		open(helper);
+	}
+
+	/**
+	 * Compile the statements and publish the handle, until then all methods see the database as not available.
+	 */
+	private void open(OpenHelper helper) {
+		SQLiteDatabase db = helper.getWritableDatabase();
+		updateCategory = db.compileStatement(UPDATE_CATEGORY);
 		insertCategory = db.compileStatement(INSERT_CATEGORY);
+		updateFeed = db.compileStatement(UPDATE_FEED);
 		insertFeed = db.compileStatement(INSERT_FEED);
-		insertArticle = db.compileStatement(INSERT_ARTICLE);
-		insertLabel = db.compileStatement(INSERT_LABEL);
+		updateArticle = db.compileStatement(UPDATE_ARTICLE);
 		insertRemoteFile = db.compileStatement(INSERT_REMOTEFILE);
 		insertRemoteFile2Article = db.compileStatement(INSERT_REMOTEFILE2ARTICLE);
 
 		db.acquireReference();
+		openHelper = helper;
 		initialized = true;
 	}
 
@@ -336,24 +573,36 @@ public class DBHelper {
 		return false;
 	}
 
-	private synchronized void closeDB() {
-		write.lock();
-		try {
-			getOpenHelper().close();
-			openHelper = null;
-		} finally {
-			write.unlock();
-		}
+	@VisibleForTesting
+	synchronized void closeDB() {
+		// Clear the handle first so no new work is started, queries which are still running hold their own reference
+		// on the database and finish before it is really closed.
+		OpenHelper helper = openHelper;
+		openHelper = null;
+		if (helper != null)
+			helper.close();
+		invalidateCache(feedCache, null);
+		invalidateCache(categoryCache, null);
 	}
 
-	private synchronized boolean isDBAvailable() {
+	private boolean isDBAvailable() {
 		return getOpenHelper() != null;
 	}
 
 	public static class OpenHelper extends SQLiteOpenHelper {
 
 		public OpenHelper(Context context) {
-			super(context, DATABASE_NAME, null, DATABASE_VERSION);
+			this(context, DATABASE_NAME);
+		}
+
+		/**
+		 * @param name file name of the database, tests use their own database instead of the one of the app
+		 */
+		@VisibleForTesting
+		public OpenHelper(Context context, String name) {
+			super(context, name, null, DATABASE_VERSION);
+			// Readers get a pool of connections and can work while a sync writes articles
+			setWriteAheadLoggingEnabled(true);
 		}
 
 		/**
@@ -377,11 +626,22 @@ public class DBHelper {
 		public void onCreate(SQLiteDatabase db) {
 			db.execSQL(CREATE_TABLE_CATEGORIES);
 			db.execSQL(CREATE_TABLE_FEEDS);
+			db.execSQL(CREATE_TABLE_FEED_ICONS);
 			db.execSQL(CREATE_TABLE_ARTICLES);
+			db.execSQL(CREATE_TABLE_ARTICLE_CONTENT);
 			db.execSQL(CREATE_TABLE_ARTICLES2LABELS);
+			db.execSQL(CREATE_TABLE_LABELS);
 			db.execSQL(CREATE_TABLE_MARK);
 			db.execSQL(CREATE_TABLE_NOTES);
 			createRemoteFilesSupportDBObjects(db);
+			createIndexes(db);
+			createCounterTriggers(db);
+			createArticleContentTrigger(db);
+			db.execSQL(CREATE_INDEX_ARTICLE_CONTENT_PLAIN);
+			db.execSQL(CREATE_TABLE_ARTICLES_FTS);
+			db.execSQL(CREATE_INDEX_ARTICLES_SEARCH_PENDING);
+			createSearchIndexTriggers(db);
+			createFeedIconTrigger(db);
 		}
 
 		@Override
@@ -394,10 +654,15 @@ public class DBHelper {
 		private void dropAllTables(SQLiteDatabase db) {
 			db.execSQL("DROP TABLE IF EXISTS " + TABLE_CATEGORIES);
 			db.execSQL("DROP TABLE IF EXISTS " + TABLE_FEEDS);
+			db.execSQL("DROP TABLE IF EXISTS " + TABLE_FEED_ICONS);
 			db.execSQL("DROP TABLE IF EXISTS " + TABLE_ARTICLES);
+			db.execSQL("DROP TABLE IF EXISTS " + TABLE_ARTICLE_CONTENT);
+			db.execSQL("DROP TABLE IF EXISTS " + TABLE_ARTICLES_FTS);
 			db.execSQL("DROP TABLE IF EXISTS " + TABLE_ARTICLES2LABELS);
+			db.execSQL("DROP TABLE IF EXISTS " + TABLE_LABELS);
 			db.execSQL("DROP TABLE IF EXISTS " + TABLE_MARK);
 			db.execSQL("DROP TABLE IF EXISTS " + TABLE_NOTES);
+			db.execSQL("DROP TABLE IF EXISTS " + TABLE_CATCHUP);
 			db.execSQL("DROP TABLE IF EXISTS " + TABLE_REMOTEFILES);
 			db.execSQL("DROP TABLE IF EXISTS " + TABLE_REMOTEFILE2ARTICLE);
 		}
@@ -483,8 +748,8 @@ public class DBHelper {
 					db.execSQL("PRAGMA writable_schema=1;");
 					String sql = "UPDATE SQLITE_MASTER SET SQL = '%s' WHERE NAME = '%s';";
 					db.execSQL(String.format(sql, CREATE_TABLE_CATEGORIES, TABLE_CATEGORIES));
-					db.execSQL(String.format(sql, CREATE_TABLE_FEEDS, TABLE_FEEDS));
-					db.execSQL(String.format(sql, CREATE_TABLE_ARTICLES, TABLE_ARTICLES));
+					db.execSQL(String.format(sql, CREATE_TABLE_FEEDS_V75, TABLE_FEEDS));
+					db.execSQL(String.format(sql, CREATE_TABLE_ARTICLES_V69, TABLE_ARTICLES));
 					db.execSQL("PRAGMA writable_schema=0;");
 
 					if (createRemoteFilesSupportDBObjects(db)) {
@@ -514,7 +779,7 @@ public class DBHelper {
 				Log.i(TAG, String.format("Upgrading database from %s to 60.", oldVersion));
 				Log.i(TAG, " (Re-Creating View: remotefiles_sequence )");
 
-				createRemotefilesView(db);
+				// The view has been replaced by the eviction score in version 75
 				didUpgrade = true;
 			}
 
@@ -599,6 +864,138 @@ public class DBHelper {
 
 			}
 
+			if (oldVersion < 68) {
+				Log.i(TAG, String.format("Upgrading database from %s to 68.", oldVersion));
+				Log.i(TAG, " (Creating indexes on articles, feeds and link tables)");
+
+				createIndexes(db);
+				didUpgrade = true;
+			}
+
+			if (oldVersion < 69) {
+				Log.i(TAG, String.format("Upgrading database from %s to 69.", oldVersion));
+				Log.i(TAG, " (Creating triggers for unread counters)");
+
+				createCounterTriggers(db);
+				recountUnread(db);
+				didUpgrade = true;
+			}
+
+			if (oldVersion < 70) {
+				Log.i(TAG, String.format("Upgrading database from %s to 70.", oldVersion));
+				Log.i(TAG, " (Moving article content to separate table)");
+
+				// SQLite can't drop columns here, the old ones stay in the table but are emptied
+				db.execSQL(CREATE_TABLE_ARTICLE_CONTENT);
+				db.execSQL("INSERT INTO " + TABLE_ARTICLE_CONTENT + " (_id, content, attachments)"
+						+ " SELECT _id, content, attachments FROM " + TABLE_ARTICLES);
+				db.execSQL("UPDATE " + TABLE_ARTICLES + " SET content=NULL, attachments=NULL");
+				createArticleContentTrigger(db);
+				didUpgrade = true;
+			}
+
+			if (oldVersion < 71) {
+				Log.i(TAG, String.format("Upgrading database from %s to 71.", oldVersion));
+				Log.i(TAG, " (Article content will be compressed in background)");
+
+				db.execSQL(CREATE_INDEX_ARTICLE_CONTENT_PLAIN);
+				didUpgrade = true;
+			}
+
+			if (oldVersion < 72) {
+				Log.i(TAG, String.format("Upgrading database from %s to 72.", oldVersion));
+				Log.i(TAG, " (Adding search index, existing articles are indexed in background)");
+
+				db.execSQL(CREATE_TABLE_ARTICLES_FTS);
+				createSearchIndexTriggers(db);
+				didUpgrade = true;
+			}
+
+			if (oldVersion < 73) {
+				Log.i(TAG, String.format("Upgrading database from %s to 73.", oldVersion));
+				Log.i(TAG, " (Moving labels of articles to separate table)");
+
+				// The links are already in articles2labels, colors are filled in with the next update of the articles
+				db.execSQL(CREATE_TABLE_LABELS);
+				db.execSQL("INSERT OR IGNORE INTO " + TABLE_LABELS + " (_id, caption)"
+						+ " SELECT _id, title FROM " + TABLE_FEEDS + " WHERE _id<=-11");
+				db.execSQL("UPDATE " + TABLE_ARTICLES + " SET articleLabels=NULL");
+				didUpgrade = true;
+			}
+
+			if (oldVersion < 74) {
+				Log.i(TAG, String.format("Upgrading database from %s to 74.", oldVersion));
+				Log.i(TAG, " (Adding reference count to remote files)");
+
+				// Databases upgraded from before 58 got the new remotefiles table already
+				if (!hasColumn(db, TABLE_REMOTEFILES, "refcount"))
+					db.execSQL("ALTER TABLE " + TABLE_REMOTEFILES + " ADD COLUMN refcount INTEGER DEFAULT 0");
+
+				db.execSQL("UPDATE " + TABLE_REMOTEFILES + " SET refcount=(SELECT COUNT(*) FROM "
+						+ TABLE_REMOTEFILE2ARTICLE + " WHERE remotefileId=" + TABLE_REMOTEFILES + ".id)");
+				createRemotefilesUpdateTrigger(db);
+				createRemotefilesRefcount(db);
+				didUpgrade = true;
+			}
+
+			if (oldVersion < 75) {
+				Log.i(TAG, String.format("Upgrading database from %s to 75.", oldVersion));
+				Log.i(TAG, " (Replacing view remotefile_sequence with eviction score of remote files)");
+
+				if (!hasColumn(db, TABLE_REMOTEFILES, "evictScore"))
+					db.execSQL("ALTER TABLE " + TABLE_REMOTEFILES + " ADD COLUMN evictScore INTEGER");
+
+				db.execSQL("UPDATE " + TABLE_REMOTEFILES + " SET evictScore="
+						+ String.format(EVICT_SCORE, TABLE_REMOTEFILES + ".id"));
+				createRemotefilesEvictScore(db);
+				didUpgrade = true;
+			}
+
+			if (oldVersion < 76) {
+				Log.i(TAG, String.format("Upgrading database from %s to 76.", oldVersion));
+				Log.i(TAG, " (Moving feed icons to separate table)");
+
+				// SQLite can't drop columns here, the old one stays in the table but is emptied. The hash is left empty,
+				// so the icons are written again when they are downloaded the next time.
+				db.execSQL(CREATE_TABLE_FEED_ICONS);
+				db.execSQL("INSERT INTO " + TABLE_FEED_ICONS + " (_id, icon)"
+						+ " SELECT _id, icon FROM " + TABLE_FEEDS + " WHERE icon IS NOT NULL");
+				db.execSQL("UPDATE " + TABLE_FEEDS + " SET icon=NULL WHERE icon IS NOT NULL");
+				createFeedIconTrigger(db);
+				didUpgrade = true;
+			}
+
+			if (oldVersion < 77) {
+				Log.i(TAG, String.format("Upgrading database from %s to 77.", oldVersion));
+				Log.i(TAG, " (Adding table for pending catchups of feeds and categories)");
+
+				// The table is dropped again by the upgrade to 79
+				didUpgrade = true;
+			}
+
+			if (oldVersion < 78) {
+				Log.i(TAG, String.format("Upgrading database from %s to 78.", oldVersion));
+				Log.i(TAG, " (Flagging articles which are missing in the search index)");
+
+				// Looking for missing articles once here, indexArticles() only has to read the flagged ones
+				if (!hasColumn(db, TABLE_ARTICLES, "searchPending"))
+					db.execSQL("ALTER TABLE " + TABLE_ARTICLES + " ADD COLUMN searchPending INTEGER DEFAULT 0");
+				db.execSQL("UPDATE " + TABLE_ARTICLES + " SET searchPending=1"
+						+ " WHERE _id NOT IN (SELECT docid FROM " + TABLE_ARTICLES_FTS + ")");
+				db.execSQL(CREATE_INDEX_ARTICLES_SEARCH_PENDING);
+				didUpgrade = true;
+			}
+
+			if (oldVersion < 79) {
+				Log.i(TAG, String.format("Upgrading database from %s to 79.", oldVersion));
+				Log.i(TAG, " (Removing table for pending catchups, they are stored as marks of single articles)");
+
+				// Pending catchups are lost, the articles are still marked as read locally and the next sync fetches the
+				// state of the server again
+				db.execSQL("DROP TABLE IF EXISTS " + TABLE_CATCHUP);
+				didUpgrade = true;
+			}
+
 			if (!didUpgrade) {
 				Log.i(TAG, "Upgrading database, this will drop tables and recreate.");
 				dropAllTables(db);
@@ -607,6 +1004,228 @@ public class DBHelper {
 
 		}
 
+		private boolean hasColumn(SQLiteDatabase db, String table, String column) {
+			Cursor res = null;
+			try {
+				res = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+				while (res.moveToNext()) {
+					if (column.equals(res.getString(1)))
+						return true;
+				}
+				return false;
+			} finally {
+				if (res != null && !res.isClosed())
+					res.close();
+			}
+		}
+
+		/**
+		 * create the indexes used by the headline, counter, mark and purge queries. Partial indexes only contain the
+		 * rows matching their WHERE clause, so they stay small and queries using the same condition (e.g.
+		 * "isUnread>0") can be answered from the index alone.
+		 *
+		 * @param db current database
+		 */
+		private void createIndexes(SQLiteDatabase db) {
+			// @formatter:off
+			// headlines of a feed, counters per feed
+			db.execSQL("CREATE INDEX IF NOT EXISTS idx_articles_feed"
+					+ " ON " + TABLE_ARTICLES
+					+ " (feedId, updateDate)");
+			// unread headlines and counters, markRead(), image cache
+			db.execSQL("CREATE INDEX IF NOT EXISTS idx_articles_unread"
+					+ " ON " + TABLE_ARTICLES
+					+ " (feedId, updateDate)"
+					+ " WHERE isUnread>0");
+			// "All articles" and "Fresh articles"
+			db.execSQL("CREATE INDEX IF NOT EXISTS idx_articles_updated"
+					+ " ON " + TABLE_ARTICLES
+					+ " (updateDate)");
+			// virtual categories "Starred articles" and "Published articles"
+			db.execSQL("CREATE INDEX IF NOT EXISTS idx_articles_starred"
+					+ " ON " + TABLE_ARTICLES
+					+ " (isStarred, updateDate)");
+			db.execSQL("CREATE INDEX IF NOT EXISTS idx_articles_published"
+					+ " ON " + TABLE_ARTICLES
+					+ " (isPublished, updateDate)");
+			// purgeLastArticles() only ever deletes articles which are neither starred nor published
+			db.execSQL("CREATE INDEX IF NOT EXISTS idx_articles_purge"
+					+ " ON " + TABLE_ARTICLES
+					+ " (updateDate)"
+					+ " WHERE isPublished=0 AND isStarred=0");
+			db.execSQL("CREATE INDEX IF NOT EXISTS idx_feeds_category"
+					+ " ON " + TABLE_FEEDS
+					+ " (categoryId)");
+			// the primary key starts with articleId, label queries start with labelId
+			db.execSQL("CREATE INDEX IF NOT EXISTS idx_articles2labels_label"
+					+ " ON " + TABLE_ARTICLES2LABELS
+					+ " (labelId, articleId)");
+			// the primary key starts with remotefileId, deleting articles needs the other direction
+			db.execSQL("CREATE INDEX IF NOT EXISTS idx_remotefile2article_article"
+					+ " ON " + TABLE_REMOTEFILE2ARTICLE
+					+ " (articleId)");
+			// @formatter:on
+		}
+
+		/**
+		 * create the triggers which keep the unread counters of feeds and categories up to date. Every change of an
+		 * article adds or subtracts one from its feed and from the virtual categories "All articles", "Starred
+		 * articles" and "Published articles", every change of a feed counter is passed on to its category. Labels are
+		 * stored as feeds with negative category ids and must not touch the virtual categories, so only categories
+		 * with {@code _id>=0} are updated from feeds. "Fresh articles" depends on the current time and is counted
+		 * separately, see {@link DBHelper#calculateCounters()}.
+		 *
+		 * @param db current database
+		 */
+		private void createCounterTriggers(SQLiteDatabase db) {
+			// @formatter:off
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS insert_article_unread"
+					+ " AFTER INSERT ON " + TABLE_ARTICLES
+					+ " WHEN new.isUnread>0"
+					+ " BEGIN"
+					+ "  UPDATE " + TABLE_FEEDS + " SET unread=unread+1 WHERE _id=new.feedId;"
+					+ "  UPDATE " + TABLE_CATEGORIES + " SET unread=unread+1"
+					+ "   WHERE _id=" + Data.VCAT_ALL
+					+ "   OR (_id=" + Data.VCAT_STAR + " AND new.isStarred>0)"
+					+ "   OR (_id=" + Data.VCAT_PUB + " AND new.isPublished>0);"
+					+ " END");
+
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS delete_article_unread"
+					+ " AFTER DELETE ON " + TABLE_ARTICLES
+					+ " WHEN old.isUnread>0"
+					+ " BEGIN"
+					+ "  UPDATE " + TABLE_FEEDS + " SET unread=unread-1 WHERE _id=old.feedId;"
+					+ "  UPDATE " + TABLE_CATEGORIES + " SET unread=unread-1"
+					+ "   WHERE _id=" + Data.VCAT_ALL
+					+ "   OR (_id=" + Data.VCAT_STAR + " AND old.isStarred>0)"
+					+ "   OR (_id=" + Data.VCAT_PUB + " AND old.isPublished>0);"
+					+ " END");
+
+			// (x>0) evaluates to 0 or 1, so the difference of old and new state is the delta for the counter
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS update_article_unread"
+					+ " AFTER UPDATE OF isUnread, isStarred, isPublished, feedId ON " + TABLE_ARTICLES
+					+ " WHEN old.isUnread>0 OR new.isUnread>0"
+					+ " BEGIN"
+					+ "  UPDATE " + TABLE_FEEDS + " SET unread=unread-1"
+					+ "   WHERE _id=old.feedId AND old.isUnread>0 AND NOT (new.isUnread>0 AND new.feedId=old.feedId);"
+					+ "  UPDATE " + TABLE_FEEDS + " SET unread=unread+1"
+					+ "   WHERE _id=new.feedId AND new.isUnread>0 AND NOT (old.isUnread>0 AND new.feedId=old.feedId);"
+					+ "  UPDATE " + TABLE_CATEGORIES + " SET unread=unread+(new.isUnread>0)-(old.isUnread>0)"
+					+ "   WHERE _id=" + Data.VCAT_ALL + " AND (new.isUnread>0)<>(old.isUnread>0);"
+					+ "  UPDATE " + TABLE_CATEGORIES + " SET unread=unread"
+					+ "   +(new.isUnread>0 AND new.isStarred>0)-(old.isUnread>0 AND old.isStarred>0)"
+					+ "   WHERE _id=" + Data.VCAT_STAR
+					+ "   AND (new.isUnread>0 AND new.isStarred>0)<>(old.isUnread>0 AND old.isStarred>0);"
+					+ "  UPDATE " + TABLE_CATEGORIES + " SET unread=unread"
+					+ "   +(new.isUnread>0 AND new.isPublished>0)-(old.isUnread>0 AND old.isPublished>0)"
+					+ "   WHERE _id=" + Data.VCAT_PUB
+					+ "   AND (new.isUnread>0 AND new.isPublished>0)<>(old.isUnread>0 AND old.isPublished>0);"
+					+ " END");
+
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS insert_feed_unread"
+					+ " AFTER INSERT ON " + TABLE_FEEDS
+					+ " WHEN new.categoryId>=0 AND new.unread<>0"
+					+ " BEGIN"
+					+ "  UPDATE " + TABLE_CATEGORIES + " SET unread=unread+new.unread WHERE _id=new.categoryId;"
+					+ " END");
+
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS delete_feed_unread"
+					+ " AFTER DELETE ON " + TABLE_FEEDS
+					+ " WHEN old.categoryId>=0 AND old.unread<>0"
+					+ " BEGIN"
+					+ "  UPDATE " + TABLE_CATEGORIES + " SET unread=unread-old.unread WHERE _id=old.categoryId;"
+					+ " END");
+
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS update_feed_unread"
+					+ " AFTER UPDATE OF unread, categoryId ON " + TABLE_FEEDS
+					+ " WHEN old.unread IS NOT new.unread OR old.categoryId IS NOT new.categoryId"
+					+ " BEGIN"
+					+ "  UPDATE " + TABLE_CATEGORIES + " SET unread=unread-ifnull(old.unread, 0)"
+					+ "   WHERE _id=old.categoryId AND old.categoryId>=0;"
+					+ "  UPDATE " + TABLE_CATEGORIES + " SET unread=unread+ifnull(new.unread, 0)"
+					+ "   WHERE _id=new.categoryId AND new.categoryId>=0;"
+					+ " END");
+			// @formatter:on
+		}
+
+		/**
+		 * create the trigger which removes the content of an article together with the article.
+		 *
+		 * @param db current database
+		 */
+		private void createArticleContentTrigger(SQLiteDatabase db) {
+			// @formatter:off
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS delete_article_content"
+					+ " AFTER DELETE ON " + TABLE_ARTICLES
+					+ " BEGIN"
+					+ "  DELETE FROM " + TABLE_ARTICLE_CONTENT + " WHERE _id=old._id;"
+					+ " END");
+			// @formatter:on
+		}
+
+		/**
+		 * create the trigger which removes the icon of a feed together with the feed.
+		 *
+		 * @param db current database
+		 */
+		private void createFeedIconTrigger(SQLiteDatabase db) {
+			// @formatter:off
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS delete_feed_icon"
+					+ " AFTER DELETE ON " + TABLE_FEEDS
+					+ " BEGIN"
+					+ "  DELETE FROM " + TABLE_FEED_ICONS + " WHERE _id=old._id;"
+					+ " END");
+			// @formatter:on
+		}
+
+		/**
+		 * create the triggers which keep the search index in line with the articles: purged articles are removed and
+		 * edited notes are updated. New and updated articles are indexed by insertArticles().
+		 *
+		 * @param db current database
+		 */
+		private void createSearchIndexTriggers(SQLiteDatabase db) {
+			// @formatter:off
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS delete_article_fts"
+					+ " AFTER DELETE ON " + TABLE_ARTICLES
+					+ " BEGIN"
+					+ "  DELETE FROM " + TABLE_ARTICLES_FTS + " WHERE docid=old._id;"
+					+ " END");
+
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS update_article_fts_note"
+					+ " AFTER UPDATE OF note ON " + TABLE_ARTICLES
+					+ " WHEN ifnull(old.note, '')<>ifnull(new.note, '')"
+					+ " BEGIN"
+					+ "  UPDATE " + TABLE_ARTICLES_FTS + " SET note=new.note WHERE docid=new._id;"
+					+ " END");
+			// @formatter:on
+		}
+
+		/**
+		 * recount all unread counters of feeds and categories from the articles table, except for "Fresh articles"
+		 * which depends on the current time. Used after upgrading and when the incremental counters have drifted.
+		 *
+		 * @param db current database
+		 */
+		private static void recountUnread(SQLiteDatabase db) {
+			// @formatter:off
+			db.execSQL("UPDATE " + TABLE_FEEDS + " SET unread="
+					+ "(SELECT count(*) FROM " + TABLE_ARTICLES + " a WHERE a.feedId=" + TABLE_FEEDS + "._id AND a.isUnread>0)");
+			db.execSQL("UPDATE " + TABLE_CATEGORIES + " SET unread="
+					+ "(SELECT ifnull(sum(f.unread), 0) FROM " + TABLE_FEEDS + " f WHERE f.categoryId=" + TABLE_CATEGORIES + "._id)"
+					+ " WHERE _id>=0");
+			db.execSQL("UPDATE " + TABLE_CATEGORIES + " SET unread="
+					+ "(SELECT count(*) FROM " + TABLE_ARTICLES + " WHERE isUnread>0)"
+					+ " WHERE _id=" + Data.VCAT_ALL);
+			db.execSQL("UPDATE " + TABLE_CATEGORIES + " SET unread="
+					+ "(SELECT count(*) FROM " + TABLE_ARTICLES + " WHERE isUnread>0 AND isStarred>0)"
+					+ " WHERE _id=" + Data.VCAT_STAR);
+			db.execSQL("UPDATE " + TABLE_CATEGORIES + " SET unread="
+					+ "(SELECT count(*) FROM " + TABLE_ARTICLES + " WHERE isUnread>0 AND isPublished>0)"
+					+ " WHERE _id=" + Data.VCAT_PUB);
+			// @formatter:on
+		}
+
 		/**
 		 * create DB objects (tables, triggers, views) which
 		 * are necessary for file cache support
@@ -618,7 +1237,8 @@ public class DBHelper {
 			try {
 				createRemotefiles(db);
 				createRemotefiles2Articles(db);
-				createRemotefilesView(db);
+				createRemotefilesRefcount(db);
+				createRemotefilesEvictScore(db);
 				success = true;
 			} catch (SQLException e) {
 				Log.e(TAG, "Creation of remote file support DB objects failed.\n" + e);
@@ -645,7 +1265,13 @@ public class DBHelper {
 					// (set automatically by triggers)
 					+ " updateDate INTEGER,"
 					// boolean flag determining if the file is locally stored
-					+ " cached INTEGER DEFAULT 0)");
+					+ " cached INTEGER DEFAULT 0,"
+					// number of articles referencing the file
+					// (set automatically by triggers)
+					+ " refcount INTEGER DEFAULT 0,"
+					// order in which cached files are deleted
+					// (set automatically by triggers)
+					+ " evictScore INTEGER)");
 
 			// index for quiicker search by by URL
 			db.execSQL("DROP INDEX IF EXISTS idx_remotefiles_by_url");
@@ -662,17 +1288,51 @@ public class DBHelper {
 					+ "	   SET updateDate = strftime('%s', 'now')"
 					+ "	 WHERE id = new.id;"
 					+ "   END");
+			// @formatter:on
+
+			createRemotefilesUpdateTrigger(db);
+		}
 
-			// sets last change unix timestamp after row update
+		private void createRemotefilesUpdateTrigger(SQLiteDatabase db) {
+			// @formatter:off
+			// sets last change unix timestamp after row update, changes of the reference count are no changes of the
+			// file itself
 			db.execSQL("DROP TRIGGER IF EXISTS update_remotefiles_lastchanged");
 			db.execSQL("CREATE TRIGGER IF NOT EXISTS update_remotefiles_lastchanged AFTER UPDATE"
+					+ " OF url, length, ext, cached"
 					+ " ON " + TABLE_REMOTEFILES
 					+ "   BEGIN"
 					+ "	 UPDATE " + TABLE_REMOTEFILES
 					+ "	   SET updateDate = strftime('%s', 'now')"
 					+ "	 WHERE id = new.id;"
 					+ "   END");
+			// @formatter:on
+		}
 
+		/**
+		 * create the triggers which count the articles referencing a remote file and the index on files which aren't
+		 * referenced anymore, these are deleted by {@link DBHelper#purgeOrphanedRemoteFiles()}.
+		 *
+		 * @param db current database
+		 */
+		private void createRemotefilesRefcount(SQLiteDatabase db) {
+			// @formatter:off
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS insert_remotefile2article_refcount"
+					+ " AFTER INSERT ON " + TABLE_REMOTEFILE2ARTICLE
+					+ " BEGIN"
+					+ "  UPDATE " + TABLE_REMOTEFILES + " SET refcount=refcount+1 WHERE id=new.remotefileId;"
+					+ " END");
+
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS delete_remotefile2article_refcount"
+					+ " AFTER DELETE ON " + TABLE_REMOTEFILE2ARTICLE
+					+ " BEGIN"
+					+ "  UPDATE " + TABLE_REMOTEFILES + " SET refcount=refcount-1 WHERE id=old.remotefileId;"
+					+ " END");
+
+			db.execSQL("CREATE INDEX IF NOT EXISTS idx_remotefiles_orphaned"
+					+ " ON " + TABLE_REMOTEFILES
+					+ " (id)"
+					+ " WHERE refcount=0");
 			// @formatter:on
 		}
 
@@ -722,24 +1382,43 @@ public class DBHelper {
 			// @formatter:on
 		}
 
-		private void createRemotefilesView(SQLiteDatabase db) {
+		/**
+		 * create the triggers which keep the eviction score of remote files up to date when links to articles change
+		 * or when articles are read or updated, and the index in which cached files are sorted by it. Files of the same
+		 * score are deleted in order of their size, biggest first.
+		 *
+		 * @param db current database
+		 */
+		private void createRemotefilesEvictScore(SQLiteDatabase db) {
 			// @formatter:off
-			// represents importance of cached files
-			// the sequence is defined by
-			// 1. the article to which the remote file belongs to is not read
-			// 2. update date of the article to which the remote file belongs to
-			// 3. the file length
 			db.execSQL("DROP VIEW IF EXISTS remotefile_sequence");
-			db.execSQL("CREATE VIEW IF NOT EXISTS remotefile_sequence AS"
-					+ " SELECT r.*, MAX(a.isUnread) AS isUnread,"
-					+ "   MAX(a.updateDate) AS articleUpdateDate,"
-					+ "   MAX(a.isUnread)||MAX(a.updateDate)||(100000000000-r.length)"
-					+ "	 AS ord"
-					+ " FROM " + TABLE_REMOTEFILES + " r,"
-					+ TABLE_REMOTEFILE2ARTICLE + " m,"
-					+ TABLE_ARTICLES + " a"
-					+ " WHERE m.remotefileId=r.id AND m.articleId=a._id"
-					+ " GROUP BY r.id");
+
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS insert_remotefile2article_evict"
+					+ " AFTER INSERT ON " + TABLE_REMOTEFILE2ARTICLE
+					+ " BEGIN"
+					+ "  UPDATE " + TABLE_REMOTEFILES + " SET evictScore=" + String.format(EVICT_SCORE, "new.remotefileId")
+					+ "   WHERE id=new.remotefileId;"
+					+ " END");
+
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS delete_remotefile2article_evict"
+					+ " AFTER DELETE ON " + TABLE_REMOTEFILE2ARTICLE
+					+ " BEGIN"
+					+ "  UPDATE " + TABLE_REMOTEFILES + " SET evictScore=" + String.format(EVICT_SCORE, "old.remotefileId")
+					+ "   WHERE id=old.remotefileId;"
+					+ " END");
+
+			db.execSQL("CREATE TRIGGER IF NOT EXISTS update_article_evict"
+					+ " AFTER UPDATE OF isUnread, updateDate ON " + TABLE_ARTICLES
+					+ " WHEN (old.isUnread>0)<>(new.isUnread>0) OR old.updateDate IS NOT new.updateDate"
+					+ " BEGIN"
+					+ "  UPDATE " + TABLE_REMOTEFILES + " SET evictScore=" + String.format(EVICT_SCORE, TABLE_REMOTEFILES + ".id")
+					+ "   WHERE id IN (SELECT remotefileId FROM " + TABLE_REMOTEFILE2ARTICLE + " WHERE articleId=new._id);"
+					+ " END");
+
+			db.execSQL("CREATE INDEX IF NOT EXISTS idx_remotefiles_evict"
+					+ " ON " + TABLE_REMOTEFILES
+					+ " (evictScore, length DESC)"
+					+ " WHERE cached=1");
 			// @formatter:on
 		}
 
@@ -748,225 +1427,599 @@ public class DBHelper {
 	// *******| INSERT |*******************************************************************
 
 	void insertCategories(Set<Category> set) {
-		if (!isDBAvailable() || set == null || set.isEmpty()) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null || set == null || set.isEmpty()) {
 			return;
 		}
 
 		List<Category> list = new ArrayList<>(set);
 		Collections.sort(list);
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
 			db.beginTransaction();
 			for (int i = 0; i < list.size(); i++) {
 				Category c = list.get(i);
-				insertCategory.bindLong(1, c.id);
-				insertCategory.bindString(2, c.title == null ? "" : c.title);
-				insertCategory.bindLong(3, c.unread);
-				if (isDBAvailable()) {
+				String title = c.title == null ? "" : c.title;
+				if (!isDBAvailable())
+					break;
+				synchronized (insertCategoryLock) {
+					updateCategory.bindString(1, title);
+					updateCategory.bindLong(2, c.id);
+					if (updateCategory.executeUpdateDelete() > 0)
+						continue;
+
+					insertCategory.bindLong(1, c.id);
+					insertCategory.bindString(2, title);
+					insertCategory.bindLong(3, c.id);
+					insertCategory.bindLong(4, c.id);
+					insertCategory.bindLong(5, c.unread);
 					insertCategory.execute();
 				}
 			}
 			db.setTransactionSuccessful();
 		} finally {
-			try {
-				db.endTransaction();
-			} finally {
-				write.unlock();
-			}
+			db.endTransaction();
+		}
+
+		List<Integer> ids = new ArrayList<>(list.size());
+		for (Category c : list) {
+			ids.add(c.id);
 		}
+		invalidateCache(categoryCache, ids);
 	}
 
+	/**
+	 * store the icon of a feed unless the same icon is stored already.
+	 *
+	 * @param id   ID of the feed
+	 * @param icon the icon
+	 * @return the number of changed rows
+	 */
 	int insertFeedIcon(int id, byte[] icon) {
 		int ret = -1;
-		if (!isDBAvailable() || icon == null || icon.length == 0) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null || icon == null || icon.length == 0) {
 			return ret;
 		}
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		ContentValues cv = new ContentValues(1);
-		write.lock();
+		CRC32 crc = new CRC32();
+		crc.update(icon);
+		long hash = crc.getValue();
+
+		SQLiteDatabase db = helper.getWritableDatabase();
+		Cursor c = null;
 		try {
 			db.beginTransaction();
-			cv.put("icon", icon);
-			ret = db.update(TABLE_FEEDS, cv, "_id = " + id, null);
+			c = db.query(TABLE_FEED_ICONS, new String[]{"hash"}, "_id=?", new String[]{String.valueOf(id)}, null, null, null);
+			if (c.moveToFirst() && !c.isNull(0) && c.getLong(0) == hash) {
+				ret = 0;
+			} else {
+				ContentValues cv = new ContentValues(3);
+				cv.put("_id", id);
+				cv.put("hash", hash);
+				cv.put("icon", icon);
+				ret = db.replace(TABLE_FEED_ICONS, null, cv) != -1 ? 1 : 0;
+			}
 			db.setTransactionSuccessful();
 		} finally {
-			try {
-				db.endTransaction();
-			} finally {
-				write.unlock();
-			}
+			close(c);
+			db.endTransaction();
 		}
+
+		if (ret > 0)
+			FeedIconCache.getInstance().remove(id);
 		return ret;
 	}
 
-	private void insertFeed(int id, int categoryId, String title, String url, int unread, byte[] icon) {
+	private void insertFeed(int id, int categoryId, String title, String url) {
 		if (title == null)
 			title = "";
 		if (url == null)
 			url = "";
 
 		synchronized (insertFeedLock) {
-			insertFeed.bindLong(1, Integer.valueOf(id).longValue());
-			insertFeed.bindLong(2, Integer.valueOf(categoryId).longValue());
-			insertFeed.bindString(3, title);
-			insertFeed.bindString(4, url);
-			insertFeed.bindLong(5, unread);
-			if (icon != null && icon.length > 0) {
-				insertFeed.bindBlob(6, icon);
-			} else {
-				insertFeed.bindNull(6);
-			}
-
 			if (!isDBAvailable())
 				return;
+
+			updateFeed.bindLong(1, categoryId);
+			updateFeed.bindString(2, title);
+			updateFeed.bindString(3, url);
+			updateFeed.bindLong(4, id);
+			if (updateFeed.executeUpdateDelete() > 0)
+				return;
+
+			insertFeed.bindLong(1, id);
+			insertFeed.bindLong(2, categoryId);
+			insertFeed.bindString(3, title);
+			insertFeed.bindString(4, url);
+			insertFeed.bindLong(5, id); // ID again for the unread-count
 			insertFeed.execute();
 		}
 	}
 
 	void insertFeeds(Set<Feed> set) {
-		if (!isDBAvailable() || set == null || set.isEmpty())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null || set == null || set.isEmpty())
 			return;
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
 			db.beginTransaction();
 			for (Feed f : set) {
-				insertFeed(f.id, f.categoryId, f.title, f.url, f.unread, f.icon);
+				insertFeed(f.id, f.categoryId, f.title, f.url);
 			}
 			db.setTransactionSuccessful();
 		} finally {
-			try {
-				db.endTransaction();
-			} finally {
-				write.unlock();
-			}
+			db.endTransaction();
 		}
-	}
 
-	private void insertArticleIntern(Article a) {
-		if (a.title == null)
-			a.title = "";
-		if (a.content == null)
-			a.content = "";
-		if (a.url == null)
-			a.url = "";
-		if (a.commentUrl == null)
-			a.commentUrl = "";
-		if (a.updated == null)
-			a.updated = new Date();
-		if (a.attachments == null)
-			a.attachments = new LinkedHashSet<>();
-		if (a.labels == null)
-			a.labels = new LinkedHashSet<>();
-		if (a.author == null)
-			a.author = "";
-		if (a.note == null)
-			a.note = "";
-
-		// articleLabels
-		long retId;
-		synchronized (insertArticleLock) {
-			insertArticle.bindLong(1, a.id);
-			insertArticle.bindLong(2, a.feedId);
+		List<Integer> ids = new ArrayList<>(set.size());
+		for (Feed f : set) {
+			ids.add(f.id);
+		}
+		invalidateCache(feedCache, ids);
+	}
 
+	/**
+	 * Article values which have been prepared for the database. Building these strings (especially parsing the HTML of
+	 * the title) is the expensive part of storing articles, so it is done in parallel before the transaction starts.
+	 */
+	private static final class ArticleRow {
+		final Article article;
+		final String title;
+		final byte[] content;
+		final String attachments;
+		final String text;
+
+		ArticleRow(Article a) {
+			if (a.title == null)
+				a.title = "";
+			if (a.content == null)
+				a.content = "";
+			if (a.url == null)
+				a.url = "";
+			if (a.commentUrl == null)
+				a.commentUrl = "";
+			if (a.updated == null)
+				a.updated = new Date();
+			if (a.attachments == null)
+				a.attachments = new LinkedHashSet<>();
+			if (a.labels == null)
+				a.labels = new LinkedHashSet<>();
+			if (a.author == null)
+				a.author = "";
+			if (a.note == null)
+				a.note = "";
+
+			article = a;
 			if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N)
-				insertArticle.bindString(3, Html.fromHtml(a.title).toString());
+				title = Html.fromHtml(a.title).toString();
 			else
-				insertArticle.bindString(3, Html.fromHtml(a.title, Html.FROM_HTML_MODE_COMPACT).toString());
-
-			insertArticle.bindLong(4, (a.isUnread ? 1 : 0));
-			insertArticle.bindString(5, a.url);
-			insertArticle.bindString(6, a.commentUrl);
-			insertArticle.bindLong(7, a.updated.getTime());
-			insertArticle.bindString(8, a.content);
-			insertArticle.bindString(9, Utils.separateItems(a.attachments, ";"));
-			insertArticle.bindLong(10, (a.isStarred ? 1 : 0));
-			insertArticle.bindLong(11, (a.isPublished ? 1 : 0));
-			insertArticle.bindLong(12, a.id); // ID again for the where-clause
-			insertArticle.bindString(13, Utils.separateItems(a.labels, "---"));
-			insertArticle.bindString(14, a.author);
-			insertArticle.bindString(15, a.note);
-			insertArticle.bindLong(16, a.score);
-
-			if (!isDBAvailable())
-				return;
-			retId = insertArticle.executeInsert();
+				title = Html.fromHtml(a.title, Html.FROM_HTML_MODE_COMPACT).toString();
+			content = CompressionUtils.compress(a.content);
+			attachments = Utils.separateItems(a.attachments, ";");
+			text = stripTags(a.content);
 		}
-
-		if (retId != -1)
-			insertLabels(a.id, a.labels);
 	}
 
-	void insertArticles(Collection<Article> articles) {
-		if (!isDBAvailable() || articles == null || articles.isEmpty())
-			return;
+	/**
+	 * @return the text of the given HTML without tags, as it is stored in the search index
+	 */
+	private static String stripTags(String html) {
+		if (html == null || html.isEmpty())
+			return "";
+		return Jsoup.parse(html).text();
+	}
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
-		try {
-			db.beginTransaction();
-			for (Article a : articles) {
-				insertArticleIntern(a);
+	/**
+	 * Prepare the given articles for the database. The list is split into chunks which are processed on the thread
+	 * pool while the calling thread works on the first chunk. Chunks which haven't been started by the pool yet are run
+	 * by the calling thread itself: it may be a pool thread, waiting for tasks queued behind it could block forever.
+	 *
+	 * @param articles articles to be prepared
+	 * @return the prepared rows, mapped by article id. Duplicate ids keep the last article.
+	 */
+	private Map<Integer, ArticleRow> normalizeArticles(final List<Article> articles) {
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+		int chunkSize = Math.max(NORMALIZE_CHUNK_SIZE, (articles.size() + threads - 1) / threads);
+
+		List<FutureTask<List<ArticleRow>>> tasks = new ArrayList<>();
+		for (int start = chunkSize; start < articles.size(); start += chunkSize) {
+			final List<Article> chunk = articles.subList(start, Math.min(start + chunkSize, articles.size()));
+			FutureTask<List<ArticleRow>> task = new FutureTask<>(new Callable<List<ArticleRow>>() {
+				@Override
+				public List<ArticleRow> call() {
+					return normalizeChunk(chunk);
+				}
+			});
+			AsyncTask.THREAD_POOL_EXECUTOR.execute(task);
+			tasks.add(task);
+		}
+
+		Map<Integer, ArticleRow> ret = new LinkedHashMap<>(articles.size());
+		for (ArticleRow row : normalizeChunk(articles.subList(0, Math.min(chunkSize, articles.size()))))
+			ret.put(row.article.id, row);
+
+		for (int i = 0; i < tasks.size(); i++) {
+			FutureTask<List<ArticleRow>> task = tasks.get(i);
+			// Does nothing if the task has already been started by the pool
+			task.run();
+
+			List<ArticleRow> rows;
+			try {
+				rows = task.get();
+			} catch (InterruptedException | ExecutionException e) {
+				if (e instanceof InterruptedException)
+					Thread.currentThread().interrupt();
+				Log.w(TAG, "Preparing articles in background failed, doing it here instead.", e);
+				int start = (i + 1) * chunkSize;
+				rows = normalizeChunk(articles.subList(start, Math.min(start + chunkSize, articles.size())));
+			}
+			for (ArticleRow row : rows)
+				ret.put(row.article.id, row);
+		}
+		return ret;
+	}
+
+	private static List<ArticleRow> normalizeChunk(List<Article> chunk) {
+		List<ArticleRow> ret = new ArrayList<>(chunk.size());
+		for (Article a : chunk) {
+			ret.add(new ArticleRow(a));
+		}
+		return ret;
+	}
+
+	/**
+	 * Build a statement which inserts the given number of rows at once.
+	 *
+	 * @param prefix the statement up to and including "VALUES"
+	 * @param row    the placeholders for one row, e.g. "(?, ?)"
+	 * @param rows   number of rows
+	 */
+	private static String buildMultiRowInsert(String prefix, String row, int rows) {
+		StringBuilder sb = new StringBuilder(prefix.length() + (row.length() + 1) * rows);
+		sb.append(prefix);
+		for (int i = 0; i < rows; i++) {
+			if (i > 0)
+				sb.append(",");
+			sb.append(row);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Replace the content of the id set with the given ids. Must be called inside a transaction, statements of the same
+	 * transaction can then use "_id" + {@link #IN_ID_SET}. Full chunks of {@link #ID_SET_CHUNK_SIZE} ids are inserted
+	 * with one statement, the rest one by one, so only two different statements are ever compiled.
+	 *
+	 * @param db  the database, inside a transaction
+	 * @param ids the ids
+	 */
+	private static void fillIdSet(SQLiteDatabase db, int[] ids) {
+		if (!db.inTransaction())
+			throw new IllegalStateException("The id set can only be used inside a transaction.");
+
+		db.execSQL(CREATE_TABLE_ID_SET);
+		db.execSQL("DELETE FROM " + TABLE_ID_SET);
+
+		int pos = 0;
+		SQLiteStatement stmt = null;
+		try {
+			if (ids.length >= ID_SET_CHUNK_SIZE) {
+				stmt = db.compileStatement(buildMultiRowInsert(INSERT_ID_SET, INSERT_ID_SET_ROW, ID_SET_CHUNK_SIZE));
+				for (; ids.length - pos >= ID_SET_CHUNK_SIZE; pos += ID_SET_CHUNK_SIZE) {
+					for (int i = 0; i < ID_SET_CHUNK_SIZE; i++) {
+						stmt.bindLong(i + 1, ids[pos + i]);
+					}
+					stmt.executeInsert();
+				}
+				stmt.close();
+				stmt = null;
+			}
+
+			if (pos < ids.length) {
+				stmt = db.compileStatement(INSERT_ID_SET + INSERT_ID_SET_ROW);
+				for (; pos < ids.length; pos++) {
+					stmt.bindLong(1, ids[pos]);
+					stmt.executeInsert();
+				}
 			}
-			db.setTransactionSuccessful();
 		} finally {
+			if (stmt != null)
+				stmt.close();
+		}
+	}
+
+	private static void fillIdSet(SQLiteDatabase db, IntSet ids) {
+		fillIdSet(db, ids.toArray());
+	}
+
+	private static void fillIdSet(SQLiteDatabase db, Collection<Integer> ids) {
+		int[] array = new int[ids.size()];
+		int i = 0;
+		for (Integer id : ids) {
+			array[i++] = id;
+		}
+		fillIdSet(db, array);
+	}
+
+	/**
+	 * Empty the id set so it doesn't keep memory until the next use.
+	 */
+	private static void clearIdSet(SQLiteDatabase db) {
+		db.execSQL("DELETE FROM " + TABLE_ID_SET);
+	}
+
+	private void updateArticle(ArticleRow row) {
+		Article a = row.article;
+		updateArticle.bindLong(1, a.feedId);
+		updateArticle.bindString(2, row.title);
+		updateArticle.bindLong(3, (a.isUnread ? 1 : 0));
+		updateArticle.bindString(4, a.url);
+		updateArticle.bindString(5, a.commentUrl);
+		updateArticle.bindLong(6, a.updated.getTime());
+		updateArticle.bindLong(7, (a.isStarred ? 1 : 0));
+		updateArticle.bindLong(8, (a.isPublished ? 1 : 0));
+		updateArticle.bindString(9, a.author);
+		updateArticle.bindString(10, a.note);
+		updateArticle.bindLong(11, a.score);
+		updateArticle.bindLong(12, a.id);
+		updateArticle.executeUpdateDelete();
+	}
+
+	private static void bindArticle(SQLiteStatement stmt, int offset, ArticleRow row) {
+		Article a = row.article;
+		stmt.bindLong(offset + 1, a.id);
+		stmt.bindLong(offset + 2, a.feedId);
+		stmt.bindString(offset + 3, row.title);
+		stmt.bindLong(offset + 4, (a.isUnread ? 1 : 0));
+		stmt.bindString(offset + 5, a.url);
+		stmt.bindString(offset + 6, a.commentUrl);
+		stmt.bindLong(offset + 7, a.updated.getTime());
+		stmt.bindLong(offset + 8, (a.isStarred ? 1 : 0));
+		stmt.bindLong(offset + 9, (a.isPublished ? 1 : 0));
+		stmt.bindString(offset + 10, a.author);
+		stmt.bindString(offset + 11, a.note);
+		stmt.bindLong(offset + 12, a.score);
+	}
+
+	/**
+	 * Store content and attachments of the given articles, {@link #CONTENT_CHUNK_SIZE} rows per statement.
+	 */
+	private void insertArticleContent(SQLiteDatabase db, List<ArticleRow> rows) {
+		for (int start = 0; start < rows.size(); start += CONTENT_CHUNK_SIZE) {
+			List<ArticleRow> chunk = rows.subList(start, Math.min(start + CONTENT_CHUNK_SIZE, rows.size()));
+			SQLiteStatement stmt = db.compileStatement(buildMultiRowInsert(INSERT_ARTICLE_CONTENT, INSERT_ARTICLE_CONTENT_ROW, chunk.size()));
 			try {
-				db.endTransaction();
+				for (int i = 0; i < chunk.size(); i++) {
+					ArticleRow row = chunk.get(i);
+					stmt.bindLong(i * 3 + 1, row.article.id);
+					stmt.bindBlob(i * 3 + 2, row.content);
+					stmt.bindString(i * 3 + 3, row.attachments);
+				}
+				stmt.executeInsert();
 			} finally {
-				write.unlock();
+				stmt.close();
 			}
 		}
 	}
 
-	private void insertLabels(int articleId, Set<Label> labels) {
-		for (Label label : labels) {
-			insertLabel(articleId, label);
+	/**
+	 * Add the given articles to the search index or replace their entries, {@link #FTS_CHUNK_SIZE} rows per
+	 * statement.
+	 */
+	private void insertArticleSearchIndex(SQLiteDatabase db, List<ArticleRow> rows) {
+		for (int start = 0; start < rows.size(); start += FTS_CHUNK_SIZE) {
+			List<ArticleRow> chunk = rows.subList(start, Math.min(start + FTS_CHUNK_SIZE, rows.size()));
+			SQLiteStatement stmt = db.compileStatement(buildMultiRowInsert(INSERT_ARTICLE_FTS, INSERT_ARTICLE_FTS_ROW, chunk.size()));
+			try {
+				for (int i = 0; i < chunk.size(); i++) {
+					ArticleRow row = chunk.get(i);
+					stmt.bindLong(i * 5 + 1, row.article.id);
+					stmt.bindString(i * 5 + 2, row.title);
+					stmt.bindString(i * 5 + 3, row.article.author);
+					stmt.bindString(i * 5 + 4, row.article.note);
+					stmt.bindString(i * 5 + 5, row.text);
+				}
+				stmt.executeInsert();
+			} finally {
+				stmt.close();
+			}
 		}
 	}
 
-	private void insertLabel(int articleId, Label label) {
-		if (!isDBAvailable())
+	/**
+	 * Store the given articles. Articles which already exist are updated one by one so the counter-triggers see the
+	 * changes, new articles are inserted with one statement per {@link #ARTICLE_CHUNK_SIZE} rows, their labels with
+	 * one statement per {@link #LABEL_CHUNK_SIZE} rows.
+	 *
+	 * @param articles articles to be stored
+	 */
+	void insertArticles(Collection<Article> articles) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null || articles == null || articles.isEmpty())
 			return;
 
-		if (label.id < -10) {
-			synchronized (insertLabelLock) {
-				insertLabel.bindLong(1, articleId);
-				insertLabel.bindLong(2, label.id);
-				insertLabel.executeInsert();
+		long time = System.currentTimeMillis();
+		Map<Integer, ArticleRow> rows = normalizeArticles(new ArrayList<>(articles));
+		long timeNormalized = System.currentTimeMillis();
+
+		int inserted = 0;
+		SQLiteDatabase db = helper.getWritableDatabase();
+		SQLiteStatement insertChunk = null;
+		try {
+			db.beginTransaction();
+
+			// Find out which articles already exist
+			Set<Integer> existing = new HashSet<>();
+			fillIdSet(db, rows.keySet());
+			Cursor c = null;
+			try {
+				c = db.query(TABLE_ARTICLES, new String[]{"_id"}, "_id" + IN_ID_SET, null, null, null, null);
+				while (c.moveToNext()) {
+					existing.add(c.getInt(0));
+				}
+			} finally {
+				close(c);
+			}
+
+			List<ArticleRow> inserts = new ArrayList<>(rows.size() - existing.size());
+			synchronized (insertArticleLock) {
+				for (ArticleRow row : rows.values()) {
+					if (existing.contains(row.article.id))
+						updateArticle(row);
+					else
+						inserts.add(row);
+				}
 			}
+			inserted = inserts.size();
+
+			for (int start = 0; start < inserts.size(); start += ARTICLE_CHUNK_SIZE) {
+				List<ArticleRow> chunk = inserts.subList(start, Math.min(start + ARTICLE_CHUNK_SIZE, inserts.size()));
+				SQLiteStatement stmt;
+				if (chunk.size() == ARTICLE_CHUNK_SIZE) {
+					if (insertChunk == null)
+						insertChunk = db.compileStatement(buildMultiRowInsert(INSERT_ARTICLE, INSERT_ARTICLE_ROW, ARTICLE_CHUNK_SIZE));
+					stmt = insertChunk;
+				} else {
+					stmt = db.compileStatement(buildMultiRowInsert(INSERT_ARTICLE, INSERT_ARTICLE_ROW, chunk.size()));
+				}
+
+				try {
+					for (int i = 0; i < chunk.size(); i++) {
+						bindArticle(stmt, i * ARTICLE_VALUES, chunk.get(i));
+					}
+					stmt.executeInsert();
+				} finally {
+					stmt.clearBindings();
+					if (stmt != insertChunk)
+						stmt.close();
+				}
+			}
+
+			List<ArticleRow> all = new ArrayList<>(rows.values());
+			insertArticleContent(db, all);
+			insertArticleSearchIndex(db, all);
+			insertArticleLabels(db, rows.values());
+			db.setTransactionSuccessful();
+		} finally {
+			if (insertChunk != null)
+				insertChunk.close();
+			db.endTransaction();
 		}
+
+		long timeTotal = System.currentTimeMillis() - time;
+		Log.d(TAG, String.format("Stored %s articles, %s new (took %sms, %sms preparing, %s articles/s)", rows.size(), inserted, timeTotal, (timeNormalized - time), rows.size() * 1000 / Math.max(1, timeTotal)));
 	}
 
-	private void removeLabel(int articleId, Label label) {
-		if (!isDBAvailable())
-			return;
+	/**
+	 * Replace the labels of the stored articles with the ones sent by the server and store caption and colors of these
+	 * labels.
+	 */
+	private void insertArticleLabels(SQLiteDatabase db, Collection<ArticleRow> rows) {
+		List<Integer> articleIds = new ArrayList<>(rows.size());
+		Map<Integer, Label> labels = new LinkedHashMap<>();
+		List<int[]> links = new ArrayList<>();
+		for (ArticleRow row : rows) {
+			articleIds.add(row.article.id);
+			for (Label label : row.article.labels) {
+				if (label.id < -10) {
+					labels.put(label.id, label);
+					links.add(new int[]{row.article.id, label.id});
+				}
+			}
+		}
 
-		if (label.id < -10) {
-			String[] args = new String[]{articleId + "", label.id + ""};
+		fillIdSet(db, articleIds);
+		db.delete(TABLE_ARTICLES2LABELS, "articleId" + IN_ID_SET, null);
+		clearIdSet(db);
+		insertLabelInfo(db, new ArrayList<>(labels.values()));
+		insertLabelLinks(db, links);
+	}
 
-			SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-			write.lock();
+	/**
+	 * Store caption and colors of the given labels, {@link #LABEL_INFO_CHUNK_SIZE} rows per statement.
+	 */
+	private void insertLabelInfo(SQLiteDatabase db, List<Label> labels) {
+		for (int start = 0; start < labels.size(); start += LABEL_INFO_CHUNK_SIZE) {
+			List<Label> chunk = labels.subList(start, Math.min(start + LABEL_INFO_CHUNK_SIZE, labels.size()));
+			SQLiteStatement stmt = db.compileStatement(buildMultiRowInsert(INSERT_LABEL_INFO, INSERT_LABEL_INFO_ROW, chunk.size()));
 			try {
-				db.delete(TABLE_ARTICLES2LABELS, "articleId=? AND labelId=?", args);
+				for (int i = 0; i < chunk.size(); i++) {
+					Label label = chunk.get(i);
+					stmt.bindLong(i * 4 + 1, label.id);
+					bindStringOrNull(stmt, i * 4 + 2, label.caption);
+					bindStringOrNull(stmt, i * 4 + 3, label.foregroundColor);
+					bindStringOrNull(stmt, i * 4 + 4, label.backgroundColor);
+				}
+				stmt.executeInsert();
 			} finally {
-				write.unlock();
+				stmt.close();
 			}
 		}
 	}
 
+	private static void bindStringOrNull(SQLiteStatement stmt, int index, String value) {
+		if (value == null)
+			stmt.bindNull(index);
+		else
+			stmt.bindString(index, value);
+	}
+
+	/**
+	 * Link articles to labels, {@link #LABEL_CHUNK_SIZE} rows per statement. Existing links are kept.
+	 *
+	 * @param links pairs of article id and label id
+	 */
+	private void insertLabelLinks(SQLiteDatabase db, List<int[]> links) {
+		for (int start = 0; start < links.size(); start += LABEL_CHUNK_SIZE) {
+			List<int[]> chunk = links.subList(start, Math.min(start + LABEL_CHUNK_SIZE, links.size()));
+			SQLiteStatement stmt = db.compileStatement(buildMultiRowInsert(INSERT_LABELS, INSERT_LABELS_ROW, chunk.size()));
+			try {
+				for (int i = 0; i < chunk.size(); i++) {
+					stmt.bindLong(i * 2 + 1, chunk.get(i)[0]);
+					stmt.bindLong(i * 2 + 2, chunk.get(i)[1]);
+				}
+				stmt.executeInsert();
+			} finally {
+				stmt.close();
+			}
+		}
+	}
+
+	/**
+	 * Assign the label to all given articles or remove it from them, in one transaction.
+	 *
+	 * @param articleIds the articles
+	 * @param label      the label, only real labels (id <= -11) are stored
+	 * @param assign     true to assign, false to remove the label
+	 */
 	void insertLabels(Set<Integer> articleIds, Label label, boolean assign) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null || articleIds == null || articleIds.isEmpty() || label.id >= -10)
 			return;
 
-		for (Integer articleId : articleIds) {
-			if (assign)
-				insertLabel(articleId, label);
-			else
-				removeLabel(articleId, label);
+		SQLiteDatabase db = helper.getWritableDatabase();
+		try {
+			db.beginTransaction();
+			if (assign) {
+				// Keep the colors if the label is already known
+				db.execSQL("INSERT OR IGNORE INTO " + TABLE_LABELS + " (_id, caption) VALUES (?, ?)", new Object[]{label.id, label.caption});
+
+				List<int[]> links = new ArrayList<>(articleIds.size());
+				for (Integer articleId : articleIds) {
+					links.add(new int[]{articleId, label.id});
+				}
+				insertLabelLinks(db, links);
+			} else {
+				fillIdSet(db, articleIds);
+				db.delete(TABLE_ARTICLES2LABELS, "labelId=? AND articleId" + IN_ID_SET, new String[]{String.valueOf(label.id)});
+				clearIdSet(db);
+			}
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
 		}
 	}
 
@@ -1023,73 +2076,93 @@ public class DBHelper {
 	// *******| UPDATE |*******************************************************************
 
 	/**
-	 * set read status in DB for given category/feed
+	 * set read status in DB for given category/feed with one statement. Pending read marks of the changed articles are
+	 * removed in the same transaction for every category/feed, also the virtual ones: the caller either sends a catchup
+	 * which covers them or puts the returned articles into the outbox as read again. Marks which are stored afterwards
+	 * are newer than the catchup and are kept.
 	 *
 	 * @param id         category/feed ID
 	 * @param isCategory if set to {@code true}, then given id is category
 	 *                   ID, otherwise - feed ID
-	 * @return collection of article IDs, which was marked as read or {@code null} if nothing was changed
+	 * @return IDs of the articles which were marked as read
 	 */
-	Collection<Integer> markRead(int id, boolean isCategory) {
-		Set<Integer> ret = null;
-		if (!isDBAvailable())
-			return null;
-
-		StringBuilder where = new StringBuilder();
-		StringBuilder feedIds = new StringBuilder();
-		switch (id) {
-			case Data.VCAT_ALL:
-				where.append(" 1 "); // Select everything...
-				break;
-			case Data.VCAT_FRESH:
-				long time = System.currentTimeMillis() - Controller.getInstance().getFreshArticleMaxAge();
-				where.append(" updateDate > ").append(time);
-				break;
-			case Data.VCAT_PUB:
-				where.append(" isPublished > 0 ");
-				break;
-			case Data.VCAT_STAR:
-				where.append(" isStarred > 0 ");
-				break;
-			default:
-				if (isCategory) {
-					feedIds.append("SELECT _id FROM ").append(TABLE_FEEDS).append(" WHERE categoryId=").append(id);
-				} else {
-					feedIds.append(id);
-				}
-				where.append(" feedId IN (").append(feedIds).append(") ");
-				break;
-		}
+	IntSet markRead(int id, boolean isCategory) {
+		IntSet ret = new IntSet();
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
+			return ret;
 
-		where.append(" and isUnread>0 ");
+		String where = getCatchupSelection(id, isCategory) + " AND isUnread>0";
 
+		SQLiteDatabase db = helper.getWritableDatabase();
 		Cursor c = null;
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
-		read.lock();
 		try {
-			// select id from articles where categoryId in (...)
-			c = db.query(TABLE_ARTICLES, new String[]{"_id"}, where.toString(), null, null, null, null);
-
-			int count = c.getCount();
-			if (count > 0) {
-				ret = new HashSet<>(count);
-				while (c.moveToNext()) {
-					ret.add(c.getInt(0));
-				}
+			db.beginTransaction();
+			c = db.query(TABLE_ARTICLES, new String[]{"_id"}, where, null, null, null, null);
+			while (c.moveToNext()) {
+				ret.add(c.getInt(0));
 			}
 
+			if (!ret.isEmpty()) {
+				// @formatter:off
+				db.execSQL("UPDATE " + TABLE_MARK + " SET " + MARK_READ + "=NULL"
+						+ " WHERE " + MARK_READ + " IS NOT NULL"
+						+ " AND id IN (SELECT _id FROM " + TABLE_ARTICLES + " WHERE " + where + ")");
+				db.delete(TABLE_MARK, MARK_READ + " IS NULL AND " + MARK_STAR + " IS NULL AND " + MARK_PUBLISH + " IS NULL", null);
+				// @formatter:on
+
+				ContentValues cv = new ContentValues(1);
+				cv.put(MARK_READ, 0);
+				db.update(TABLE_ARTICLES, cv, where, null);
+			}
+			db.setTransactionSuccessful();
 		} finally {
 			close(c);
-			read.unlock();
-		}
-
-		if (ret != null && !ret.isEmpty()) {
-			markArticles(ret, "isUnread", 0);
+			db.endTransaction();
 		}
 
 		return ret;
 	}
 
+	/**
+	 * set read status in DB for all articles with one statement, the outbox is not changed. Used before the unread
+	 * articles are fetched from the server again.
+	 */
+	void markAllRead() {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
+			return;
+
+		ContentValues cv = new ContentValues(1);
+		cv.put(MARK_READ, 0);
+
+		SQLiteDatabase db = helper.getWritableDatabase();
+		db.update(TABLE_ARTICLES, cv, MARK_READ + ">0", null);
+	}
+
+	/**
+	 * @return selection of all articles in the given category/feed
+	 */
+	@VisibleForTesting
+	static String getCatchupSelection(int id, boolean isCategory) {
+		switch (id) {
+			case Data.VCAT_ALL:
+				return " 1 "; // Select everything...
+			case Data.VCAT_FRESH:
+				long time = System.currentTimeMillis() - Controller.getInstance().getFreshArticleMaxAge();
+				return " updateDate > " + time;
+			case Data.VCAT_PUB:
+				return " isPublished > 0 ";
+			case Data.VCAT_STAR:
+				return " isStarred > 0 ";
+			default:
+				if (isCategory)
+					return " feedId IN (SELECT _id FROM " + TABLE_FEEDS + " WHERE categoryId=" + id + ") ";
+				else
+					return " feedId IN (" + id + ") ";
+		}
+	}
+
 	/**
 	 * mark given property of given articles with given state
 	 *
@@ -1098,24 +2171,32 @@ public class DBHelper {
 	 * @param state  value for the mark
 	 */
 	public void markArticles(Set<Integer> idList, String mark, int state) {
-		if (!isDBAvailable())
+		if (idList != null)
+			markArticles(IntSet.of(idList), mark, state);
+	}
+
+	/**
+	 * mark given property of given articles with given state
+	 *
+	 * @param idList set of article IDs, which should be processed
+	 * @param mark   mark to be set
+	 * @param state  value for the mark
+	 */
+	public void markArticles(IntSet idList, String mark, int state) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
 		if (idList != null && !idList.isEmpty()) {
-			SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-			write.lock();
+			SQLiteDatabase db = helper.getWritableDatabase();
 			try {
 				db.beginTransaction();
-				for (String ids : StringSupport.convertListToString(idList, 400)) {
-					markArticles(ids, mark, "" + state);
-				}
+				fillIdSet(db, idList);
+				markArticles("_id" + IN_ID_SET, null, mark, "" + state);
+				clearIdSet(db);
 				db.setTransactionSuccessful();
 			} finally {
-				try {
-					db.endTransaction();
-				} finally {
-					write.unlock();
-				}
+				db.endTransaction();
 			}
 		}
 	}
@@ -1128,21 +2209,17 @@ public class DBHelper {
 	 * @param state value for the mark
 	 */
 	public void markArticle(int id, String mark, int state) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
 			db.beginTransaction();
-			markArticles("" + id, mark, "" + state);
+			markArticles("_id=?", String.valueOf(id), mark, "" + state);
 			db.setTransactionSuccessful();
 		} finally {
-			try {
-				db.endTransaction();
-			} finally {
-				write.unlock();
-			}
+			db.endTransaction();
 		}
 	}
 
@@ -1153,89 +2230,99 @@ public class DBHelper {
 	 * @param note the note to be set
 	 */
 	public void addArticleNote(int id, String note) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
 			db.beginTransaction();
-			markArticles("" + id, "note", note);
+			markArticles("_id=?", String.valueOf(id), "note", note);
 			db.setTransactionSuccessful();
 		} finally {
-			try {
-				db.endTransaction();
-			} finally {
-				write.unlock();
-			}
+			db.endTransaction();
 		}
 	}
 
 	/**
-	 * mark given property of given articles with given state
+	 * mark given property of the selected articles with given state
 	 *
-	 * @param idList set of article IDs, which should be processed
-	 * @param mark   mark to be set
-	 * @param state  value for the mark
+	 * @param selection which articles should be processed, may contain one parameter
+	 * @param id        value of the parameter in the selection or null
+	 * @param mark      mark to be set
+	 * @param state     value for the mark
 	 * @return the number of rows affected
 	 */
-	private int markArticles(String idList, String mark, String state) {
+	private int markArticles(String selection, String id, String mark, String state) {
 		int ret = 0;
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return ret;
 
 		ContentValues cv = new ContentValues(1);
 		cv.put(mark, state);
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
 			db.beginTransaction();
-			ret = db.update(TABLE_ARTICLES, cv, "_id IN (" + idList + ") AND ? != ?", new String[]{mark, String.valueOf(state)});
+			String[] args = id != null ? new String[]{id, mark, state} : new String[]{mark, state};
+			ret = db.update(TABLE_ARTICLES, cv, selection + " AND ? != ?", args);
 			db.setTransactionSuccessful();
 		} finally {
-			try {
-				db.endTransaction();
-			} finally {
-				write.unlock();
-			}
+			db.endTransaction();
 		}
 
 		return ret;
 	}
 
 	void markUnsynchronizedStates(Collection<Integer> ids, String mark, int state) {
-		if (!isDBAvailable())
+		markUnsynchronizedStates(IntSet.of(ids), mark, state);
+	}
+
+	/**
+	 * Store changed states of articles in the outbox, they are sent to the server by Data.synchronizeStatus(). Changes
+	 * of the same article are coalesced, only the latest state is stored and sent. The opposite change doesn't cancel
+	 * a pending mark out: it may already be on its way to the server, then the server would keep the old state. So the
+	 * new state is stored instead, {@link #setMarked(Collection, String, int)} only removes marks which still have the
+	 * state that was sent and the new one is sent by the next run.
+	 * <p>
+	 * The IDs are put into the temporary id set in chunks of bound statements, then the marks are changed by two
+	 * statements for all articles: existing rows are updated first, then missing rows are inserted.
+	 *
+	 * @param ids   article IDs
+	 * @param mark  the changed state, {@link #MARK_READ}, {@link #MARK_STAR} or {@link #MARK_PUBLISH}
+	 * @param state the new state
+	 */
+	void markUnsynchronizedStates(IntSet ids, String mark, int state) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null || ids.isEmpty())
 			return;
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		Object[] args = new Object[]{state};
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
 			db.beginTransaction();
-			for (Integer id : ids) {
-				// First update, then insert. If row exists it gets updated and second call ignores it, else the second
-				// call inserts it.
-				db.execSQL(String.format("UPDATE %s SET %s=%s WHERE id=%s", TABLE_MARK, mark, state, id));
-				db.execSQL(String.format("INSERT OR IGNORE INTO %s (id, %s) VALUES (%s, %s)", TABLE_MARK, mark, id, state));
-			}
+			fillIdSet(db, ids);
+			// @formatter:off
+			db.execSQL("UPDATE " + TABLE_MARK + " SET " + mark + "=? WHERE id" + IN_ID_SET, args);
+			db.execSQL("INSERT OR IGNORE INTO " + TABLE_MARK + " (id, " + mark + ")"
+					+ " SELECT id, ? FROM " + TABLE_ID_SET, args);
+			// @formatter:on
+			clearIdSet(db);
 			db.setTransactionSuccessful();
 		} finally {
-			try {
-				db.endTransaction();
-			} finally {
-				write.unlock();
-			}
+			db.endTransaction();
 		}
 	}
 
 	// Special treatment for notes since the method markUnsynchronizedStates(...) doesn't support inserting any
-	// additional data.
+	// additional data. Only the latest note of an article is kept.
 	void markUnsynchronizedNotes(Map<Integer, String> ids) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
 			db.beginTransaction();
 			for (Map.Entry<Integer, String> entry : ids.entrySet()) {
@@ -1244,140 +2331,93 @@ public class DBHelper {
 				ContentValues cv = new ContentValues(2);
 				cv.put("_id", entry.getKey());
 				cv.put(COL_NOTE, entry.getValue());
-				db.insert(TABLE_NOTES, null, cv);
+				db.insertWithOnConflict(TABLE_NOTES, null, cv, SQLiteDatabase.CONFLICT_REPLACE);
 			}
 			db.setTransactionSuccessful();
 		} finally {
-			try {
-				db.endTransaction();
-			} finally {
-				write.unlock();
-			}
+			db.endTransaction();
 		}
 	}
 
 	/**
-	 * Set unread counters for feeds and categories according to real amount of unread articles. Split up the tasks in
-	 * single transactions so we can do other work in between.
+	 * Update the unread counter of the virtual category "Fresh articles". All other counters are kept up to date by
+	 * triggers whenever articles or feeds change, only this one depends on the current time and has to be counted
+	 * again. The range query on updateDate is answered from the index so this is cheap enough to be called after
+	 * every change of an article.
 	 */
 	void calculateCounters() {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
-		long time = System.currentTimeMillis();
-		int total = 0;
+		long fresh = System.currentTimeMillis() - Controller.getInstance().getFreshArticleMaxAge();
 
-		write.lock();
-		try {
-			countResetFeedsAndCategories();
-			total += countFeedsWithUnread();
-			countCategoriesWithUnread();
-			countSpecialCategories(total);
-		} finally {
-			write.unlock();
-		}
-
-		Log.i(TAG, String.format("Recalculated counters, total unread: %s (took %sms)", total, (System.currentTimeMillis() - time)));
-	}
-
-	/**
-	 * First of all, reset all feeds and all categories to unread=0.
-	 */
-	private void countResetFeedsAndCategories() {
-		final SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		try {
-			db.beginTransaction();
-			final ContentValues cv = new ContentValues(1);
-			cv.put(COL_UNREAD, 0);
-			db.update(TABLE_FEEDS, cv, null, null);
-			db.update(TABLE_CATEGORIES, cv, null, null);
-			db.setTransactionSuccessful();
-		} finally {
-			db.endTransaction();
-		}
+		final SQLiteDatabase db = helper.getWritableDatabase();
+		// @formatter:off
+		db.execSQL("UPDATE " + TABLE_CATEGORIES + " SET unread="
+				+ "(SELECT count(*) FROM " + TABLE_ARTICLES + " WHERE isUnread>0 AND updateDate>?)"
+				+ " WHERE _id=" + Data.VCAT_FRESH, new Object[]{fresh});
+		// @formatter:on
 	}
 
 	/**
-	 * Count all feeds where unread articles exist.
+	 * Compare the counters maintained by the triggers with a full recount of all unread articles. If any counter
+	 * differs the mismatches are logged and all counters are recounted from scratch.
 	 *
-	 * @return the number of overall unread articles
+	 * @return the number of feeds and categories which had a wrong counter
 	 */
-	private int countFeedsWithUnread() {
-		int total = 0;
-		Cursor c = null;
-		final SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		try {
-			db.beginTransaction();
-			final ContentValues cv = new ContentValues(1);
-			c = db.query(TABLE_ARTICLES, new String[]{"feedId", "count(*)"}, "isUnread>0", null, "feedId", null, null, null);
+	int verifyCounters() {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
+			return 0;
 
-			// update feeds
-			while (c.moveToNext()) {
-				int feedId = c.getInt(0);
-				int unreadCount = c.getInt(1);
-				total += unreadCount;
+		long time = System.currentTimeMillis();
+		int mismatches = 0;
 
-				cv.put(COL_UNREAD, unreadCount);
-				db.update(TABLE_FEEDS, cv, "_id=" + feedId, null);
-			}
-			db.setTransactionSuccessful();
-		} finally {
-			if (c != null && !c.isClosed())
-				c.close();
-			db.endTransaction();
-		}
-		return total;
-	}
+		final SQLiteDatabase db = helper.getWritableDatabase();
+		// @formatter:off
+		String[] queries = new String[]{
+				"SELECT 'feed', f._id, f.unread, (SELECT count(*) FROM " + TABLE_ARTICLES + " a"
+						+ " WHERE a.feedId=f._id AND a.isUnread>0) AS expected"
+						+ " FROM " + TABLE_FEEDS + " f WHERE f.unread IS NOT expected",
+				"SELECT 'category', c._id, c.unread, (SELECT ifnull(sum(f.unread), 0) FROM " + TABLE_FEEDS + " f"
+						+ " WHERE f.categoryId=c._id) AS expected"
+						+ " FROM " + TABLE_CATEGORIES + " c WHERE c._id>=0 AND c.unread IS NOT expected",
+				"SELECT 'category', c._id, c.unread, (SELECT count(*) FROM " + TABLE_ARTICLES + " WHERE isUnread>0"
+						+ " AND (c._id=" + Data.VCAT_ALL
+						+ " OR (c._id=" + Data.VCAT_STAR + " AND isStarred>0)"
+						+ " OR (c._id=" + Data.VCAT_PUB + " AND isPublished>0))) AS expected"
+						+ " FROM " + TABLE_CATEGORIES + " c"
+						+ " WHERE c._id IN (" + Data.VCAT_ALL + "," + Data.VCAT_STAR + "," + Data.VCAT_PUB + ")"
+						+ " AND c.unread IS NOT expected"};
+		// @formatter:on
 
-	/**
-	 * Count all categories where feeds with unread articles exist.
-	 */
-	private void countCategoriesWithUnread() {
-		Cursor c = null;
-		final SQLiteDatabase db = getOpenHelper().getWritableDatabase();
+		// Compare and repair in one transaction so no writer can change the articles in between
 		try {
 			db.beginTransaction();
-			final ContentValues cv = new ContentValues(1);
-			c = db.query(TABLE_FEEDS, new String[]{"categoryId", "sum(unread)"}, "categoryId>=0", null, "categoryId", null, null, null);
-
-			// update real categories
-			while (c.moveToNext()) {
-				int categoryId = c.getInt(0);
-				int unreadCount = c.getInt(1);
-
-				cv.put(COL_UNREAD, unreadCount);
-				db.update(TABLE_CATEGORIES, cv, "_id=" + categoryId, null);
+			for (String query : queries) {
+				Cursor c = null;
+				try {
+					c = db.rawQuery(query, null);
+					while (c.moveToNext()) {
+						mismatches++;
+						Log.w(TAG, String.format("Unread counter of %s %s is %s, expected %s", c.getString(0), c.getInt(1), c.getString(2), c.getInt(3)));
+					}
+				} finally {
+					close(c);
+				}
 			}
-			db.setTransactionSuccessful();
-		} finally {
-			close(c);
-			db.endTransaction();
-		}
-	}
-
-	/**
-	 * Count special categories.
-	 */
-	private void countSpecialCategories(final int total) {
-		final SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		try {
-			db.beginTransaction();
-			final ContentValues cv = new ContentValues(1);
-			cv.put(COL_UNREAD, total);
-			db.update(TABLE_CATEGORIES, cv, "_id=" + Data.VCAT_ALL, null);
-
-			cv.put(COL_UNREAD, getUnreadCount(Data.VCAT_FRESH, true));
-			db.update(TABLE_CATEGORIES, cv, "_id=" + Data.VCAT_FRESH, null);
-
-			cv.put(COL_UNREAD, getUnreadCount(Data.VCAT_PUB, true));
-			db.update(TABLE_CATEGORIES, cv, "_id=" + Data.VCAT_PUB, null);
 
-			cv.put(COL_UNREAD, getUnreadCount(Data.VCAT_STAR, true));
-			db.update(TABLE_CATEGORIES, cv, "_id=" + Data.VCAT_STAR, null);
+			if (mismatches > 0)
+				OpenHelper.recountUnread(db);
 			db.setTransactionSuccessful();
 		} finally {
 			db.endTransaction();
 		}
+
+		calculateCounters();
+		Log.i(TAG, String.format("Verified counters, %s mismatches (took %sms)", mismatches, (System.currentTimeMillis() - time)));
+		return mismatches;
 	}
 
 	/**
@@ -1388,7 +2428,8 @@ public class DBHelper {
 	 * @param filesCount new value for remote file references (may be {@code null})
 	 */
 	public void updateArticleCachedImages(int id, Integer filesCount) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
 		ContentValues cv = new ContentValues(1);
@@ -1397,48 +2438,208 @@ public class DBHelper {
 		else
 			cv.put("cachedImages", filesCount);
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
-		try {
-			db.update(TABLE_ARTICLES, cv, "_id=?", new String[]{String.valueOf(id)});
-		} finally {
-			write.unlock();
+		SQLiteDatabase db = helper.getWritableDatabase();
+		db.update(TABLE_ARTICLES, cv, "_id=?", new String[]{String.valueOf(id)});
+	}
+
+	/**
+	 * Compress all article bodies which are still stored as plain text. The rows are read, compressed and written back
+	 * in chunks so other threads can use the database in between, an interrupted run is continued the next time.
+	 */
+	void compressArticleContent() {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
+			return;
+
+		long time = System.currentTimeMillis();
+		long sizeBefore = 0;
+		long sizeAfter = 0;
+		int count = 0;
+
+		SQLiteDatabase db = helper.getWritableDatabase();
+		while (isDBAvailable()) {
+			List<Integer> ids = new ArrayList<>(CONTENT_CHUNK_SIZE);
+			List<byte[]> contents = new ArrayList<>(CONTENT_CHUNK_SIZE);
+
+			Cursor c = null;
+			try {
+				// @formatter:off
+				c = db.rawQuery("SELECT _id, content, length(CAST(content AS BLOB)) FROM " + TABLE_ARTICLE_CONTENT
+						+ " WHERE typeof(content)='text'"
+						+ " LIMIT " + CONTENT_CHUNK_SIZE, null);
+				// @formatter:on
+				while (c.moveToNext()) {
+					byte[] compressed = CompressionUtils.compress(c.getString(1));
+					sizeBefore += c.getLong(2);
+					sizeAfter += compressed.length;
+					ids.add(c.getInt(0));
+					contents.add(compressed);
+				}
+			} finally {
+				close(c);
+			}
+
+			if (ids.isEmpty())
+				break;
+
+			try {
+				db.beginTransaction();
+				ContentValues cv = new ContentValues(1);
+				for (int i = 0; i < ids.size(); i++) {
+					cv.put("content", contents.get(i));
+					// Skip rows which have been replaced by compressed content in the meantime
+					db.update(TABLE_ARTICLE_CONTENT, cv, "_id=? AND typeof(content)='text'", new String[]{String.valueOf(ids.get(i))});
+				}
+				db.setTransactionSuccessful();
+			} finally {
+				db.endTransaction();
+			}
+			count += ids.size();
+		}
+
+		if (count > 0)
+			Log.i(TAG, String.format("Compressed content of %s articles from %s to %s bytes, saved %s bytes (took %sms)", count, sizeBefore, sizeAfter, sizeBefore - sizeAfter, (System.currentTimeMillis() - time)));
+	}
+
+	/**
+	 * Add all articles to the search index which are flagged with "searchPending". Like
+	 * {@link #compressArticleContent()} this works in chunks and continues where it stopped the next time.
+	 */
+	void indexArticles() {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
+			return;
+
+		long time = System.currentTimeMillis();
+		int count = 0;
+
+		SQLiteDatabase db = helper.getWritableDatabase();
+		while (isDBAvailable()) {
+			List<Integer> ids = new ArrayList<>(FTS_CHUNK_SIZE);
+			List<String[]> values = new ArrayList<>(FTS_CHUNK_SIZE);
+
+			Cursor c = null;
+			try {
+				// @formatter:off
+				c = db.rawQuery("SELECT a._id, a.title, a.author, a.note, ac.content FROM " + TABLE_ARTICLES + " a"
+						+ " LEFT JOIN " + TABLE_ARTICLE_CONTENT + " ac ON ac._id=a._id"
+						+ " WHERE a.searchPending=1"
+						+ " LIMIT " + FTS_CHUNK_SIZE, null);
+				// @formatter:on
+				while (c.moveToNext()) {
+					ids.add(c.getInt(0));
+					values.add(new String[]{c.getString(1), c.getString(2), c.getString(3), stripTags(readContent(c, 4))});
+				}
+			} finally {
+				close(c);
+			}
+
+			if (ids.isEmpty())
+				break;
+
+			SQLiteStatement stmt = null;
+			SQLiteStatement done = null;
+			try {
+				db.beginTransaction();
+				stmt = db.compileStatement(INSERT_ARTICLE_FTS_MISSING);
+				done = db.compileStatement("UPDATE " + TABLE_ARTICLES + " SET searchPending=0 WHERE _id=?");
+				for (int i = 0; i < ids.size(); i++) {
+					String[] row = values.get(i);
+					stmt.bindLong(1, ids.get(i));
+					for (int j = 0; j < row.length; j++) {
+						if (row[j] == null)
+							stmt.bindNull(j + 2);
+						else
+							stmt.bindString(j + 2, row[j]);
+					}
+					stmt.bindLong(6, ids.get(i));
+					stmt.bindLong(7, ids.get(i));
+					stmt.executeInsert();
+					done.bindLong(1, ids.get(i));
+					done.executeUpdateDelete();
+				}
+				db.setTransactionSuccessful();
+			} finally {
+				if (stmt != null)
+					stmt.close();
+				if (done != null)
+					done.close();
+				db.endTransaction();
+			}
+			count += ids.size();
 		}
+
+		if (count > 0)
+			Log.i(TAG, String.format("Added %s articles to the search index (took %sms)", count, (System.currentTimeMillis() - time)));
 	}
 
 	void deleteCategories(boolean withVirtualCategories) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
 		String wherePart = "";
 		if (!withVirtualCategories)
 			wherePart = "_id > 0";
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
-		try {
-			db.delete(TABLE_CATEGORIES, wherePart, null);
-		} finally {
-			write.unlock();
-		}
+		SQLiteDatabase db = helper.getWritableDatabase();
+		db.delete(TABLE_CATEGORIES, wherePart, null);
+		invalidateCache(categoryCache, null);
 	}
 
 	/**
 	 * delete all rows from feeds table
 	 */
 	void deleteFeeds() {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
-		try {
-			db.delete(TABLE_FEEDS, null, null);
-		} finally {
-			write.unlock();
+		SQLiteDatabase db = helper.getWritableDatabase();
+		db.delete(TABLE_FEEDS, null, null);
+		invalidateCache(feedCache, null);
+		FeedIconCache.getInstance().clear();
+	}
+
+	/**
+	 * remove entries from the feed or category cache, this has to be done after the changes are committed.
+	 *
+	 * @param cache the cache
+	 * @param ids   IDs of the changed rows or {@code null} to remove all entries
+	 */
+	private <T> void invalidateCache(Map<Integer, T> cache, Collection<Integer> ids) {
+		synchronized (cacheLock) {
+			cacheGeneration.incrementAndGet();
+			if (ids == null)
+				cache.clear();
+			else
+				cache.keySet().removeAll(ids);
 		}
 	}
 
+	/**
+	 * put a row into the feed or category cache unless the cache has been invalidated since the row has been read.
+	 *
+	 * @param cache      the cache
+	 * @param id         ID of the row
+	 * @param value      the row
+	 * @param generation value of {@link #cacheGeneration} before the row has been read
+	 */
+	private <T> void putIntoCache(Map<Integer, T> cache, int id, T value, int generation) {
+		synchronized (cacheLock) {
+			if (generation == cacheGeneration.get())
+				cache.put(id, value);
+		}
+	}
+
+	/**
+	 * @return the number of queries run by {@link #getFeed(int)} and {@link #getCategory(int)} so far
+	 */
+	@VisibleForTesting
+	int getCacheMisses() {
+		return cacheMisses.get();
+	}
+
 	/**
 	 * delete articles and all its resources (e.g. remote files, labels etc.)
 	 *
@@ -1451,89 +2652,267 @@ public class DBHelper {
 	 * otherwise. To remove all rows and get a count pass "1" as the
 	 * whereClause.
 	 */
-	private int safelyDeleteArticles(String whereClause, String[] whereArgs) {
+	private int safelyDeleteArticles(SQLiteDatabase db, String whereClause, String[] whereArgs) {
+		IntSet ids = new IntSet();
+		Cursor c = null;
+		try {
+			c = db.query(TABLE_ARTICLES, new String[]{"_id"}, whereClause, whereArgs, null, null, null);
+			while (c.moveToNext()) {
+				ids.add(c.getInt(0));
+			}
+		} finally {
+			close(c);
+		}
+
+		int[] idArray = ids.toArray();
+		int deletedCount = 0;
+		for (int start = 0; start < idArray.length; start += PURGE_BATCH_SIZE) {
+			deletedCount += deleteArticles(Arrays.copyOfRange(idArray, start, Math.min(start + PURGE_BATCH_SIZE, idArray.length)));
+		}
+		return deletedCount;
+	}
+
+	/**
+	 * delete the given articles with their labels and links to remote files in one transaction. Remote files which
+	 * aren't used by other articles anymore are deleted in background afterwards.
+	 *
+	 * @param ids the articles
+	 * @return the number of deleted articles
+	 */
+	private int deleteArticles(int[] ids) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null || ids.length == 0)
+			return 0;
+
 		int deletedCount;
+		SQLiteDatabase db = helper.getWritableDatabase();
+		try {
+			db.beginTransaction();
+			fillIdSet(db, ids);
+			// first, delete article referencies from linking table to preserve foreign key constraint on the next step
+			db.delete(TABLE_REMOTEFILE2ARTICLE, "articleId" + IN_ID_SET, null);
+			db.delete(TABLE_ARTICLES2LABELS, "articleId" + IN_ID_SET, null);
+			deletedCount = db.delete(TABLE_ARTICLES, "_id" + IN_ID_SET, null);
+			clearIdSet(db);
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+
+		schedulePurgeOrphanedRemoteFiles();
+		return deletedCount;
+	}
+
+	/**
+	 * run {@link #purgeOrphanedRemoteFiles()} on the thread pool unless a run is already waiting to be started.
+	 */
+	private void schedulePurgeOrphanedRemoteFiles() {
+		if (remoteFilePurgeScheduled.getAndSet(true))
+			return;
+
+		AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+			@Override
+			public void run() {
+				remoteFilePurgeScheduled.set(false);
+				purgeOrphanedRemoteFiles();
+			}
+		});
+	}
+
+	/**
+	 * delete remote files which aren't referenced by any article and their cached files. The rows are found by the
+	 * index on the reference count and deleted in batches, the files are deleted after each batch is committed.
+	 *
+	 * @return the number of deleted remote files
+	 */
+	int purgeOrphanedRemoteFiles() {
+		if (!isDBAvailable())
+			return 0;
+
+		long time = System.currentTimeMillis();
+		int count = 0;
+
+		synchronized (purgeRemoteFilesLock) {
+			while (true) {
+				OpenHelper helper = getOpenHelper();
+				if (helper == null)
+					break;
+
+				List<String> urls = new ArrayList<>();
+				IntSet ids = new IntSet();
+
+				SQLiteDatabase db = helper.getWritableDatabase();
+				try {
+					db.beginTransaction();
+					Cursor c = null;
+					try {
+						c = db.query(TABLE_REMOTEFILES, new String[]{"id", "url"}, "refcount=0", null, null, null, null, String.valueOf(PURGE_BATCH_SIZE));
+						while (c.moveToNext()) {
+							ids.add(c.getInt(0));
+							urls.add(c.getString(1));
+						}
+					} finally {
+						close(c);
+					}
+
+					if (!ids.isEmpty()) {
+						fillIdSet(db, ids);
+						db.delete(TABLE_REMOTEFILES, "id" + IN_ID_SET, null);
+						clearIdSet(db);
+					}
+					db.setTransactionSuccessful();
+				} finally {
+					db.endTransaction();
+				}
+
+				if (ids.isEmpty())
+					break;
+				count += ids.size();
 
-		Collection<RemoteFile> rfs = getRemoteFilesForArticles(whereClause, whereArgs, true);
-		if (rfs != null && !rfs.isEmpty()) {
-			Set<Integer> rfIds = new HashSet<>(rfs.size());
-			for (RemoteFile rf : rfs) {
-				rfIds.add(rf.id);
 				ImageCache imageCache = Controller.getInstance().getImageCache();
 				if (imageCache != null) {
-					File file = imageCache.getCacheFile(rf.url);
-					boolean deleted = file.delete();
-					if (!deleted)
-						Log.e(TAG, "Couldn't delete file: " + file.getAbsolutePath());
+					for (String url : urls) {
+						File file = imageCache.getCacheFile(url);
+						if (file.exists() && !file.delete())
+							Log.e(TAG, "Couldn't delete file: " + file.getAbsolutePath());
+					}
 				}
 			}
-			deleteRemoteFiles(rfIds);
 		}
 
-		// @formatter:off
-		StringBuilder query = new StringBuilder();
-		query.append(
-				" articleId IN (").append(
-				"	 SELECT _id").append(
-				"	   FROM ").append(
-				TABLE_ARTICLES).append(
-				"	   WHERE ").append(
-				whereClause).append(
-				" )");
-		// @formatter:on
+		if (count > 0)
+			Log.d(TAG, String.format("purgeOrphanedRemoteFiles deleted %s files (took %sms)", count, (System.currentTimeMillis() - time)));
+		return count;
+	}
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
-		try {
-			db.beginTransaction();
-			// first, delete article referencies from linking table to preserve foreign key constraint on the next step
-			db.delete(TABLE_REMOTEFILE2ARTICLE, query.toString(), whereArgs);
+	/**
+	 * Apply the retention policy before new articles are stored. Articles are purged oldest first by their update date
+	 * until none is older than the configured maximum age, there is room for the new ones within the configured
+	 * number of articles and the database doesn't exceed the configured size. Starred and published articles are
+	 * never purged, so the limits are not exact upper limits.
+	 * <p>
+	 * The oldest articles are read from the purge index, and they are deleted in batches of
+	 * {@link #PURGE_BATCH_SIZE} with one transaction each. An interrupted purge simply continues the next time.
+	 *
+	 * @param amountToInsert amount of articles which are about to be stored
+	 */
+	void purgeLastArticles(int amountToInsert) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
+			return;
 
-			deletedCount = db.delete(TABLE_ARTICLES, whereClause, whereArgs);
-			purgeLabels();
-			db.setTransactionSuccessful();
-		} finally {
+		long time = System.currentTimeMillis();
+		int purged = 0;
+
+		SQLiteDatabase db = helper.getReadableDatabase();
+
+		int maxAge = Controller.getInstance().articleMaxAge();
+		if (maxAge > 0)
+			purged += purgeOldestArticles(Integer.MAX_VALUE, System.currentTimeMillis() - maxAge * Utils.DAY);
+
+		int limit = Controller.getInstance().articleLimit();
+		if (limit > 0) {
+			int excess = countPurgeableArticles(db) + amountToInsert - limit;
+			if (excess > 0)
+				purged += purgeOldestArticles(excess, Long.MAX_VALUE);
+		}
+
+		long maxSize = Controller.getInstance().databaseMaxSize() * Utils.MB;
+		if (maxSize > 0) {
+			while (getDatabaseUsedSize(db) > maxSize) {
+				int count = purgeOldestArticles(PURGE_BATCH_SIZE, Long.MAX_VALUE);
+				if (count == 0)
+					break;
+				purged += count;
+			}
+		}
+
+		Log.d(TAG, String.format("purgeLastArticles purged %s articles (took %sms)", purged, (System.currentTimeMillis() - time)));
+	}
+
+	/**
+	 * @param max    maximum amount of articles to be purged
+	 * @param before only articles updated before this time are purged
+	 * @return the amount of purged articles
+	 */
+	private int purgeOldestArticles(int max, long before) {
+		int purged = 0;
+		while (purged < max) {
+			OpenHelper helper = getOpenHelper();
+			if (helper == null)
+				break;
+
+			int batch = Math.min(PURGE_BATCH_SIZE, max - purged);
+			IntSet ids = new IntSet(batch);
+
+			SQLiteDatabase db = helper.getReadableDatabase();
+			Cursor c = null;
 			try {
-				db.endTransaction();
+				// @formatter:off
+				c = db.rawQuery("SELECT _id FROM " + TABLE_ARTICLES
+						+ " WHERE isPublished=0 AND isStarred=0 AND updateDate<?"
+						+ " ORDER BY updateDate LIMIT ?", new String[]{String.valueOf(before), String.valueOf(batch)});
+				// @formatter:on
+				while (c.moveToNext()) {
+					ids.add(c.getInt(0));
+				}
 			} finally {
-				write.unlock();
+				close(c);
 			}
+
+			if (ids.isEmpty())
+				break;
+			purged += deleteArticles(ids.toArray());
+			if (ids.size() < batch)
+				break;
 		}
+		return purged;
+	}
 
-		return deletedCount;
+	private int countPurgeableArticles(SQLiteDatabase db) {
+		Cursor c = null;
+		try {
+			c = db.rawQuery("SELECT count(*) FROM " + TABLE_ARTICLES + " WHERE isPublished=0 AND isStarred=0", null);
+			return c.moveToFirst() ? c.getInt(0) : 0;
+		} finally {
+			close(c);
+		}
 	}
 
 	/**
-	 * Delete given amount of last updated articles from DB. Published and Starred articles are ignored
-	 * so the configured limit is not an exact upper limit to the number of articles in the database.
-	 *
-	 * @param amountToPurge amount of articles to be purged
+	 * @return the amount of bytes used by data in the database file, without the free pages
 	 */
-	void purgeLastArticles(int amountToPurge) {
-		if (!isDBAvailable())
-			return;
-
-		long time = System.currentTimeMillis();
-		String query = "_id IN ( SELECT _id FROM " + TABLE_ARTICLES + " WHERE isPublished=0 AND isStarred=0 ORDER BY updateDate DESC LIMIT -1 OFFSET " + (Utils.ARTICLE_LIMIT - amountToPurge + ")");
+	private long getDatabaseUsedSize(SQLiteDatabase db) {
+		return (queryPragma(db, "page_count") - queryPragma(db, "freelist_count")) * queryPragma(db, "page_size");
+	}
 
-		safelyDeleteArticles(query, null);
-		Log.d(TAG, "purgeLastArticles took " + (System.currentTimeMillis() - time) + "ms");
+	private static long queryPragma(SQLiteDatabase db, String pragma) {
+		Cursor c = null;
+		try {
+			c = db.rawQuery("PRAGMA " + pragma, null);
+			return c.moveToFirst() ? c.getLong(0) : 0;
+		} finally {
+			close(c);
+		}
 	}
 
 	/**
 	 * delete articles, which belongs to non-existent feeds
 	 */
 	void purgeOrphanedArticles() {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
 		long time = System.currentTimeMillis();
-		safelyDeleteArticles("feedId NOT IN (SELECT _id FROM " + TABLE_FEEDS + ")", null);
+		safelyDeleteArticles(helper.getReadableDatabase(), "feedId NOT IN (SELECT _id FROM " + TABLE_FEEDS + ")", null);
+		purgeLabels();
 		Log.d(TAG, "purgeOrphanedArticles took " + (System.currentTimeMillis() - time) + "ms");
 	}
 
 	private void purgeLabels() {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
 		// @formatter:off
@@ -1548,59 +2927,137 @@ public class DBHelper {
 				+ " ON a2l.labelId = f._id WHERE f._id IS null";
 		// @formatter:on
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
+			db.beginTransaction();
 			db.delete(TABLE_ARTICLES2LABELS, "articleId IN(" + idsArticles + ")", null);
 			db.delete(TABLE_ARTICLES2LABELS, "labelId IN(" + idsFeeds + ")", null);
+			db.delete(TABLE_LABELS, "_id NOT IN (SELECT _id FROM " + TABLE_FEEDS + ")", null);
+			db.setTransactionSuccessful();
 		} finally {
-			write.unlock();
+			db.endTransaction();
 		}
 	}
 
-	void handlePurgeMarked(String idList, int minId, String vcat) {
-		if (!isDBAvailable())
+	void handlePurgeMarked(Collection<Integer> ids, int minId, String vcat) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
 		long time = System.currentTimeMillis();
 		ContentValues cv = new ContentValues(1);
 		cv.put(vcat, 0);
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		int count;
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
-			int count = db.update(TABLE_ARTICLES, cv, vcat + ">0 AND _id>" + minId + " AND _id NOT IN (" + idList + ")", null);
-			long timeDiff = (System.currentTimeMillis() - time);
-			Log.d(TAG, String.format("Marked %s articles %s=0 (%s ms)", count, vcat, timeDiff));
+			db.beginTransaction();
+			fillIdSet(db, ids);
+			count = db.update(TABLE_ARTICLES, cv, vcat + ">0 AND _id>? AND _id NOT" + IN_ID_SET, new String[]{String.valueOf(minId)});
+			clearIdSet(db);
+			db.setTransactionSuccessful();
 		} finally {
-			write.unlock();
+			db.endTransaction();
 		}
+		long timeDiff = (System.currentTimeMillis() - time);
+		Log.d(TAG, String.format("Marked %s articles %s=0 (%s ms)", count, vcat, timeDiff));
 	}
 
 	// *******| SELECT |*******************************************************************
 
+	/**
+	 * Load content and attachments of an article which has been read by {@link #getArticle(int)}. Should not be called
+	 * directly, use {@link Article#getContent()} and {@link Article#getAttachments()} instead.
+	 *
+	 * @param a the article, content and attachments are set in place
+	 */
+	public void loadArticleContent(Article a) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null) {
+			// Keep contentLoaded unset so the next access tries again, but never hand out null to the callers
+			if (a.content == null)
+				a.content = "";
+			if (a.attachments == null)
+				a.attachments = new LinkedHashSet<>();
+			return;
+		}
+
+		SQLiteDatabase db = helper.getReadableDatabase();
+		Cursor c = null;
+		try {
+			c = db.query(TABLE_ARTICLE_CONTENT, new String[]{"content", "attachments"}, "_id=?", new String[]{a.id + ""}, null, null, null, null);
+			if (c.moveToFirst()) {
+				a.content = readContent(c, 0);
+				a.attachments = parseAttachments(c.getString(1));
+			}
+		} finally {
+			close(c);
+		}
+
+		if (a.content == null)
+			a.content = "";
+		if (a.attachments == null)
+			a.attachments = new LinkedHashSet<>();
+		a.contentLoaded = true;
+	}
+
 	public Article getArticle(int id) {
 		Article ret = null;
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return null;
 
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
-			c = db.query(TABLE_ARTICLES, null, "_id=?", new String[]{id + ""}, null, null, null, null);
+			c = db.query(TABLE_ARTICLES, ARTICLES_COLUMNS, "_id=?", new String[]{id + ""}, null, null, null, null);
 			if (c.moveToFirst())
 				ret = handleArticleCursor(c);
 		} finally {
 			close(c);
-			read.unlock();
 		}
 
+		if (ret != null)
+			ret.labels = getArticleLabels(db, id);
+
+		return ret;
+	}
+
+	/**
+	 * @return the labels assigned to the given article, ordered by caption
+	 */
+	private static Set<Label> getArticleLabels(SQLiteDatabase db, int articleId) {
+		Set<Label> ret = new LinkedHashSet<>();
+		Cursor c = null;
+		try {
+			// @formatter:off
+			c = db.rawQuery("SELECT l._id, l.caption, l.foregroundColor, l.backgroundColor"
+					+ " FROM " + TABLE_ARTICLES2LABELS + " a2l, " + TABLE_LABELS + " l"
+					+ " WHERE a2l.articleId=? AND l._id=a2l.labelId"
+					+ " ORDER BY l.caption", new String[]{String.valueOf(articleId)});
+			// @formatter:on
+			while (c.moveToNext()) {
+				Label label = new Label();
+				label.id = c.getInt(0);
+				label.caption = c.getString(1);
+				label.checked = true;
+				String foreground = c.getString(2);
+				if (foreground != null && foreground.startsWith("#"))
+					label.foregroundColor = foreground;
+				String background = c.getString(3);
+				if (background != null && background.startsWith("#"))
+					label.backgroundColor = background;
+				ret.add(label);
+			}
+		} finally {
+			close(c);
+		}
 		return ret;
 	}
 
 	Set<Label> getLabelsForArticle(int articleId) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return new HashSet<>();
 
 		// @formatter:off
@@ -1613,9 +3070,8 @@ public class DBHelper {
 				+ "	 WHERE f._id <= -11 AND f._id = a2l.labelId AND a2l.articleId = " + articleId;
 		// @formatter:on
 
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
 			c = db.rawQuery(sql, null);
 			Set<Label> ret = new HashSet<>(c.getCount());
@@ -1630,45 +3086,92 @@ public class DBHelper {
 
 		} finally {
 			close(c);
-			read.unlock();
 		}
 	}
 
+	/**
+	 * get a feed, feeds are cached after they have been read once. The objects are shared and must not be modified,
+	 * their unread count is the one at the time they have been read (see {@link #getUnreadCount(int, boolean)}).
+	 *
+	 * @param id ID of the feed
+	 * @return the feed or an empty feed if it doesn't exist
+	 */
 	public Feed getFeed(int id) {
-		Feed ret = new Feed();
-		if (!isDBAvailable())
+		Feed ret = feedCache.get(id);
+		if (ret != null)
+			return ret;
+
+		ret = new Feed();
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return ret;
 
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		int generation = cacheGeneration.get();
+		cacheMisses.incrementAndGet();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
-			c = db.query(TABLE_FEEDS, null, "_id=?", new String[]{id + ""}, null, null, null, null);
-			if (c.moveToFirst())
+			c = db.query(TABLE_FEEDS, FEEDS_COLUMNS, "_id=?", new String[]{id + ""}, null, null, null, null);
+			if (c.moveToFirst()) {
 				ret = handleFeedCursor(c);
+				putIntoCache(feedCache, id, ret, generation);
+			}
 		} finally {
 			close(c);
-			read.unlock();
 		}
 
 		return ret;
 	}
 
+	/**
+	 * @param feedId ID of the feed
+	 * @return the icon of the feed as downloaded from the server or {@code null} if there is none
+	 */
+	public byte[] getFeedIcon(int feedId) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
+			return null;
+
+		SQLiteDatabase db = helper.getReadableDatabase();
+		Cursor c = null;
+		try {
+			c = db.query(TABLE_FEED_ICONS, new String[]{"icon"}, "_id=?", new String[]{String.valueOf(feedId)}, null, null, null);
+			if (c.moveToFirst())
+				return c.getBlob(0);
+		} finally {
+			close(c);
+		}
+		return null;
+	}
+
+	/**
+	 * get a category, categories are cached like feeds (see {@link #getFeed(int)}).
+	 *
+	 * @param id ID of the category
+	 * @return the category or an empty category if it doesn't exist
+	 */
 	public Category getCategory(int id) {
-		Category ret = new Category();
-		if (!isDBAvailable())
+		Category ret = categoryCache.get(id);
+		if (ret != null)
+			return ret;
+
+		ret = new Category();
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return ret;
 
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		int generation = cacheGeneration.get();
+		cacheMisses.incrementAndGet();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
 			c = db.query(TABLE_CATEGORIES, null, "_id=?", new String[]{id + ""}, null, null, null, null);
-			if (c.moveToFirst())
+			if (c.moveToFirst()) {
 				ret = handleCategoryCursor(c);
+				putIntoCache(categoryCache, id, ret, generation);
+			}
 		} finally {
 			close(c);
-			read.unlock();
 		}
 
 		return ret;
@@ -1682,12 +3185,12 @@ public class DBHelper {
 	 * @return a List with all categories in the database, never {@code null}
 	 */
 	public List<Category> getCategories(boolean includeVirtual, boolean includeRead) {
-		if (!isDBAvailable()) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null) {
 			return Collections.emptyList();
 		}
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
 			String selection;
 			if (includeVirtual) {
@@ -1708,7 +3211,6 @@ public class DBHelper {
 			return Collections.emptyList();
 		} finally {
 			close(c);
-			read.unlock();
 		}
 	}
 
@@ -1718,12 +3220,12 @@ public class DBHelper {
 	 * @return a List with all labels in the database, never {@code null}
 	 */
 	public List<Category> getLabelsAsCategories(boolean includeRead) {
-		if (!isDBAvailable()) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null) {
 			return Collections.emptyList();
 		}
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
 			if (includeRead) {
 				c = db.query(TABLE_FEEDS, CATEGORIES_COLUMNS, " _id < -10 ", null, null, null, null, null);
@@ -1740,7 +3242,6 @@ public class DBHelper {
 			return Collections.emptyList();
 		} finally {
 			close(c);
-			read.unlock();
 		}
 	}
 
@@ -1751,24 +3252,22 @@ public class DBHelper {
 	 *                  (excluding the WHERE itself). Passing null will return all rows.
 	 * @return map of unread article IDs to its update date (may be {@code null})
 	 */
-	@SuppressLint("UseSparseArrays")
-	public Map<Integer, Long> getArticleIdUpdatedMap(String selection) {
-		Map<Integer, Long> ret;
-		if (!isDBAvailable())
+	public IntLongMap getArticleIdUpdatedMap(String selection) {
+		IntLongMap ret;
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return null;
 
 		Cursor c = null;
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
-		read.lock();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		try {
 			c = db.query(TABLE_ARTICLES, new String[]{"_id", "updateDate"}, selection, null, null, null, null);
-			ret = new HashMap<>(c.getCount());
+			ret = new IntLongMap(c.getCount());
 			while (c.moveToNext()) {
 				ret.put(c.getInt(0), c.getLong(1));
 			}
 		} finally {
 			close(c);
-			read.unlock();
 		}
 		return ret;
 	}
@@ -1781,7 +3280,8 @@ public class DBHelper {
 	 * -4 - All feeds, including virtual feeds
 	 */
 	public Set<Feed> getFeeds(int categoryId) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return new LinkedHashSet<>();
 
 		String where = null; // categoryId = 0
@@ -1802,11 +3302,10 @@ public class DBHelper {
 				break;
 		}
 
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
-			c = db.query(TABLE_FEEDS, null, where, null, null, null, "UPPER(title) ASC");
+			c = db.query(TABLE_FEEDS, FEEDS_COLUMNS, where, null, null, null, "UPPER(title) ASC");
 			Set<Feed> ret = new LinkedHashSet<>(c.getCount());
 			while (c.moveToNext()) {
 				ret.add(handleFeedCursor(c));
@@ -1814,17 +3313,16 @@ public class DBHelper {
 			return ret;
 		} finally {
 			close(c);
-			read.unlock();
 		}
 	}
 
 	public Set<Category> getAllCategories() {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return new LinkedHashSet<>();
 
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
 			c = db.query(TABLE_CATEGORIES, null, "_id>=0", null, null, null, "title ASC");
 			Set<Category> ret = new LinkedHashSet<>(c.getCount());
@@ -1834,12 +3332,12 @@ public class DBHelper {
 			return ret;
 		} finally {
 			close(c);
-			read.unlock();
 		}
 	}
 
 	public int getUnreadCount(int id, boolean isCat) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return 0;
 
 		StringBuilder selection = new StringBuilder("isUnread>0");
@@ -1887,9 +3385,8 @@ public class DBHelper {
 
 		// Read count for given feed
 		int ret = 0;
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
 			c = db.query(TABLE_ARTICLES, new String[]{"count(*)"}, selection.toString(), selectionArgs, null, null, null, null);
 
@@ -1897,22 +3394,28 @@ public class DBHelper {
 				ret = c.getInt(0);
 		} finally {
 			close(c);
-			read.unlock();
 		}
 
 		return ret;
 	}
 
-	@SuppressLint("UseSparseArrays")
-	Set<Integer> getMarked(String mark, int status) {
-		if (!isDBAvailable())
+	/**
+	 * Read all pending changes of the given mark to the given state from the outbox. They stay in the outbox until
+	 * they have been sent and are removed by {@link #setMarked(Collection, String, int)}.
+	 *
+	 * @param mark  {@link #MARK_READ}, {@link #MARK_STAR} or {@link #MARK_PUBLISH}
+	 * @param state the pending state
+	 * @return article IDs with this pending change
+	 */
+	Set<Integer> getMarked(String mark, int state) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return new LinkedHashSet<>();
 
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
-			c = db.query(TABLE_MARK, new String[]{"id"}, mark + "=" + status, null, null, null, null, null);
+			c = db.query(TABLE_MARK, new String[]{"id"}, mark + "=?", new String[]{String.valueOf(state)}, null, null, null, null);
 			Set<Integer> ret = new LinkedHashSet<>(c.getCount());
 			while (c.moveToNext()) {
 				ret.add(c.getInt(0));
@@ -1920,17 +3423,52 @@ public class DBHelper {
 			return ret;
 		} finally {
 			close(c);
-			read.unlock();
 		}
 	}
 
+	/**
+	 * Remove changes from the outbox which have been sent to the server. Only marks which still have the sent state are
+	 * removed, an article which has been changed again in the meantime keeps its new mark.
+	 *
+	 * @param ids   article IDs which have been sent
+	 * @param mark  {@link #MARK_READ}, {@link #MARK_STAR} or {@link #MARK_PUBLISH}
+	 * @param state the state which has been sent
+	 */
+	void setMarked(Collection<Integer> ids, String mark, int state) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null || ids.isEmpty())
+			return;
+
+		SQLiteDatabase db = helper.getWritableDatabase();
+		try {
+			db.beginTransaction();
+			fillIdSet(db, ids);
+			// @formatter:off
+			db.execSQL("UPDATE " + TABLE_MARK + " SET " + mark + "=NULL"
+					+ " WHERE " + mark + "=? AND id" + IN_ID_SET, new Object[]{state});
+			db.delete(TABLE_MARK, "id" + IN_ID_SET
+					+ " AND " + MARK_READ + " IS NULL AND " + MARK_STAR + " IS NULL AND " + MARK_PUBLISH + " IS NULL", null);
+			// @formatter:on
+			clearIdSet(db);
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	/**
+	 * Read all pending notes from the outbox. They stay in the outbox until they have been sent and are removed by
+	 * {@link #setMarkedNotes(Map)}.
+	 *
+	 * @return the pending notes by article ID
+	 */
 	Map<Integer, String> getMarkedNotes() {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return new HashMap<>();
 
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
 			c = db.query(TABLE_NOTES, new String[]{"_id", COL_NOTE}, null, null, null, null, null, null);
 			Map<Integer, String> ret = new HashMap<>(c.getCount());
@@ -1940,61 +3478,29 @@ public class DBHelper {
 			return ret;
 		} finally {
 			close(c);
-			read.unlock();
-		}
-	}
-
-	void setMarked(Set<Integer> ids, String mark) {
-		if (!isDBAvailable())
-			return;
-
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
-		try {
-			db.beginTransaction();
-			ContentValues cv = new ContentValues(1);
-			for (String idList : StringSupport.convertListToString(ids, 1000)) {
-				cv.putNull(mark);
-				db.update(TABLE_MARK, cv, "id IN(" + idList + ")", null);
-			}
-			db.delete(TABLE_MARK, "isUnread IS null AND isStarred IS null AND isPublished IS null", null);
-			db.setTransactionSuccessful();
-		} finally {
-			try {
-				db.endTransaction();
-			} finally {
-				write.unlock();
-			}
 		}
 	}
 
 	/**
-	 * remove specified mark in the temporary mark table for specified
-	 * articles and then cleanup this table
+	 * Remove notes from the outbox which have been sent to the server. A note which has been edited again in the
+	 * meantime is kept.
 	 *
-	 * @param ids article IDs of which the notes should be reset
+	 * @param notes the notes which have been sent by article ID
 	 */
-	void setMarkedNotes(Map<Integer, String> ids) {
-		if (!isDBAvailable())
+	void setMarkedNotes(Map<Integer, String> notes) {
+		OpenHelper helper = getOpenHelper();
+		if (helper == null || notes.isEmpty())
 			return;
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
 			db.beginTransaction();
-			ContentValues cv = new ContentValues(1);
-			for (String idList : StringSupport.convertListToString(ids.keySet(), 1000)) {
-				cv.putNull(COL_NOTE);
-				db.update(TABLE_NOTES, cv, "_id IN(" + idList + ")", null);
+			for (Map.Entry<Integer, String> entry : notes.entrySet()) {
+				db.delete(TABLE_NOTES, "_id=? AND " + COL_NOTE + "=?", new String[]{String.valueOf(entry.getKey()), entry.getValue()});
 			}
-			db.delete(TABLE_NOTES, COL_NOTE + " IS null", null);
 			db.setTransactionSuccessful();
 		} finally {
-			try {
-				db.endTransaction();
-			} finally {
-				write.unlock();
-			}
+			db.endTransaction();
 		}
 	}
 
@@ -2009,13 +3515,12 @@ public class DBHelper {
 		a.url = c.getString(4);
 		a.commentUrl = c.getString(5);
 		a.updated = new Date(c.getLong(6));
-		a.content = c.getString(7);
-		a.attachments = parseAttachments(c.getString(8));
-		a.isStarred = (c.getInt(9) != 0);
-		a.isPublished = (c.getInt(10) != 0);
-		a.labels = parseArticleLabels(c.getString(12));
-		a.author = c.getString(13);
-		a.note = c.getString(14);
+		a.isStarred = (c.getInt(7) != 0);
+		a.isPublished = (c.getInt(8) != 0);
+		a.author = c.getString(9);
+		a.note = c.getString(10);
+		// content and attachments are loaded when they are accessed, see loadArticleContent()
+		a.contentLoaded = false;
 		return a;
 	}
 
@@ -2026,7 +3531,6 @@ public class DBHelper {
 		f.title = c.getString(2);
 		f.url = c.getString(3);
 		f.unread = c.getInt(4);
-		f.icon = c.getBlob(5);
 		return f;
 	}
 
@@ -2048,6 +3552,15 @@ public class DBHelper {
 		return rf;
 	}
 
+	/**
+	 * Read an article body, compressed bodies are stored as BLOB, bodies which haven't been migrated yet as TEXT.
+	 */
+	private static String readContent(Cursor c, int index) {
+		if (c.getType(index) == Cursor.FIELD_TYPE_BLOB)
+			return CompressionUtils.decompress(c.getBlob(index));
+		return c.getString(index);
+	}
+
 	private static Set<String> parseAttachments(String att) {
 		Set<String> ret = new LinkedHashSet<>();
 		if (att == null)
@@ -2057,62 +3570,38 @@ public class DBHelper {
 		return ret;
 	}
 
-	/*
-	 * Parse labels from string of the form "label;;label;;...;;label" where each label is of the following format:
-	 * "caption;forground;background"
-	 */
-	private static Set<Label> parseArticleLabels(String labelStr) {
-		Set<Label> ret = new LinkedHashSet<>();
-		if (labelStr == null)
-			return ret;
-
-		int i = 0;
-		for (String s : labelStr.split("---")) {
-			String[] l = s.split(";");
-			if (l.length > 0) {
-				i++;
-				Label label = new Label();
-				label.id = i;
-				label.checked = true;
-				label.caption = l[0];
-				if (l.length > 1 && l[1].startsWith("#"))
-					label.foregroundColor = l[1];
-				if (l.length > 2 && l[1].startsWith("#"))
-					label.backgroundColor = l[2];
-				ret.add(label);
-			}
-		}
-
-		return ret;
-	}
-
 	public ArrayList<Article> queryArticlesForImagecache() {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return null;
 
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
-			c = db.query(TABLE_ARTICLES, new String[]{"_id", "content", "attachments"}, "cachedImages IS NULL AND isUnread>0", null, null, null, null, "1000");
+			// @formatter:off
+			c = db.rawQuery("SELECT a._id, ac.content, ac.attachments"
+					+ " FROM " + TABLE_ARTICLES + " a, " + TABLE_ARTICLE_CONTENT + " ac"
+					+ " WHERE ac._id=a._id AND a.cachedImages IS NULL AND a.isUnread>0"
+					+ " LIMIT 1000", null);
+			// @formatter:on
 
 			ArrayList<Article> ret = new ArrayList<>(c.getCount());
 			while (c.moveToNext()) {
 				Article a = new Article();
 				a.id = c.getInt(0);
-				a.content = c.getString(1);
+				a.content = readContent(c, 1);
 				a.attachments = parseAttachments(c.getString(2));
 				ret.add(a);
 			}
 			return ret;
 		} finally {
 			close(c);
-			read.unlock();
 		}
 	}
 
 	private void insertArticleFiles(int articleId, List<String> fileUrls) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
 		for (String url : fileUrls) {
@@ -2128,11 +3617,11 @@ public class DBHelper {
 	 * @param map A map of arrays of remote file URLs mapped to ids of "parent" articles
 	 */
 	public void insertArticleFiles(Map<Integer, List<String>> map) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
 			db.beginTransaction();
 			for (Map.Entry<Integer, List<String>> entry : map.entrySet()) {
@@ -2140,11 +3629,7 @@ public class DBHelper {
 			}
 			db.setTransactionSuccessful();
 		} finally {
-			try {
-				db.endTransaction();
-			} finally {
-				write.unlock();
-			}
+			db.endTransaction();
 		}
 	}
 
@@ -2155,13 +3640,13 @@ public class DBHelper {
 	 * @return remote file object from DB
 	 */
 	private RemoteFile getRemoteFile(String url) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return null;
 
 		RemoteFile rf = null;
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
 			c = db.query(TABLE_REMOTEFILES, null, "url=?", new String[]{url}, null, null, null, null);
 			if (c.moveToFirst())
@@ -2171,7 +3656,6 @@ public class DBHelper {
 			e.printStackTrace();
 		} finally {
 			close(c);
-			read.unlock();
 		}
 		return rf;
 	}
@@ -2183,13 +3667,13 @@ public class DBHelper {
 	 * @return collection of remote file objects from DB or {@code null}
 	 */
 	public Collection<RemoteFile> getRemoteFiles(int articleId) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return null;
 
 		ArrayList<RemoteFile> rfs = null;
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
 			// @formatter:off
 			c = db.rawQuery(" SELECT r.*"
@@ -2213,112 +3697,6 @@ public class DBHelper {
 			e.printStackTrace();
 		} finally {
 			close(c);
-			read.unlock();
-		}
-		return rfs;
-	}
-
-	/**
-	 * get remote files for given articles
-	 *
-	 * @param whereClause the WHERE clause to apply when selecting.
-	 * @param whereArgs   You may include ?s in the where clause, which
-	 *                    will be replaced by the values from whereArgs. The values
-	 *                    will be bound as Strings.
-	 * @param uniqOnly    if set to {@code true}, then only remote files, which are referenced by given articles only
-	 *                    will be
-	 *                    returned, otherwise all remote files referenced by given articles will be found (even those,
-	 *                    which are
-	 *                    referenced also by some other articles)
-	 * @return collection of remote file objects from DB or {@code null}
-	 */
-	private Collection<RemoteFile> getRemoteFilesForArticles(String whereClause, String[] whereArgs, boolean uniqOnly) {
-		if (!isDBAvailable())
-			return null;
-
-		ArrayList<RemoteFile> rfs = null;
-		StringBuilder uniqRestriction = new StringBuilder();
-		String[] queryArgs = whereArgs;
-
-		if (uniqOnly) {
-			// @formatter:off
-			uniqRestriction.append(
-					" AND m.remotefileId NOT IN (").append(
-					"   SELECT remotefileId").append(
-					"	 FROM ").append(
-					TABLE_REMOTEFILE2ARTICLE).append(
-					"		   WHERE remotefileId IN (").append(
-					"	   SELECT remotefileId").append(
-					"		 FROM ").append(
-					TABLE_REMOTEFILE2ARTICLE).append(
-					"		 WHERE articleId IN (").append(
-					"		   SELECT _id").append(
-					"			 FROM ").append(
-					TABLE_ARTICLES).append(
-					"			 WHERE ").append(
-					whereClause).append(
-					"		   )").append(
-					"		 GROUP BY remotefileId)").append(
-					"	   AND articleId NOT IN (").append(
-					"		 SELECT _id").append(
-					"		   FROM ").append(
-					TABLE_ARTICLES).append(
-					"		   WHERE ").append(
-					whereClause).append(
-					"	   )").append(
-					"   GROUP by remotefileId)");
-			// @formatter:on
-
-			// because we are using whereClause twice in uniqRestriction, then we should also extend queryArgs,
-			// which will be used in query
-			if (whereArgs != null) {
-				int initialLength = whereArgs.length;
-				queryArgs = new String[initialLength * 3];
-				for (int i = 0; i < 3; i++) {
-					System.arraycopy(whereArgs, 0, queryArgs, i * initialLength, initialLength);
-				}
-			}
-		}
-
-		StringBuilder query = new StringBuilder();
-		// @formatter:off
-		query.append(
-				" SELECT r.*").append(
-				"   FROM ").append(
-				TABLE_REMOTEFILES + " r,").append(
-				TABLE_REMOTEFILE2ARTICLE + " m, ").append(
-				TABLE_ARTICLES + " a").append(
-				"   WHERE m.remotefileId=r.id").append(
-				"	 AND m.articleId=a._id").append(
-				"	 AND a._id IN (").append(
-				"	   SELECT _id FROM ").append(
-				TABLE_ARTICLES).append(
-				"	   WHERE ").append(
-				whereClause).append(
-				"	 )").append(
-				uniqRestriction).append(
-				"   GROUP BY r.id");
-		// @formatter:on
-
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
-		Cursor c = null;
-		read.lock();
-		try {
-			long time = System.currentTimeMillis();
-			c = db.rawQuery(query.toString(), queryArgs);
-
-			rfs = new ArrayList<>();
-
-			while (c.moveToNext()) {
-				rfs.add(handleRemoteFileCursor(c));
-			}
-			Log.d(TAG, "Query in getRemoteFilesForArticles took " + (System.currentTimeMillis() - time) + "ms... (remotefiles: " + rfs.size() + ")");
-
-		} catch (Exception e) {
-			e.printStackTrace();
-		} finally {
-			close(c);
-			read.unlock();
 		}
 		return rfs;
 	}
@@ -2329,11 +3707,11 @@ public class DBHelper {
 	 * @param remoteFiles A map of file sizes mapped to their remote file URL
 	 */
 	public void markRemoteFilesCached(Map<String, Long> remoteFiles) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
 			db.beginTransaction();
 
@@ -2355,11 +3733,7 @@ public class DBHelper {
 
 			db.setTransactionSuccessful();
 		} finally {
-			try {
-				db.endTransaction();
-			} finally {
-				write.unlock();
-			}
+			db.endTransaction();
 		}
 	}
 
@@ -2369,25 +3743,21 @@ public class DBHelper {
 	 * @param rfIds IDs of remote files to be marked as non-cached
 	 */
 	public void markRemoteFilesNonCached(Collection<Integer> rfIds) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return;
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
 			db.beginTransaction();
 			ContentValues cv = new ContentValues(1);
 			cv.put("cached", 0);
-			for (String ids : StringSupport.convertListToString(rfIds, 1000)) {
-				db.update(TABLE_REMOTEFILES, cv, "id in (" + ids + ")", null);
-			}
+			fillIdSet(db, rfIds);
+			db.update(TABLE_REMOTEFILES, cv, "id" + IN_ID_SET, null);
+			clearIdSet(db);
 			db.setTransactionSuccessful();
 		} finally {
-			try {
-				db.endTransaction();
-			} finally {
-				write.unlock();
-			}
+			db.endTransaction();
 		}
 	}
 
@@ -2397,41 +3767,40 @@ public class DBHelper {
 	 * @return summary length of remote files
 	 */
 	public long getCachedFilesSize() {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return 0;
 
 		long ret = 0;
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
 			c = db.query(TABLE_REMOTEFILES, new String[]{"SUM(length)"}, "cached=1", null, null, null, null);
 			if (c.moveToFirst())
 				ret = c.getLong(0);
 		} finally {
 			close(c);
-			read.unlock();
 		}
 		return ret;
 	}
 
 	/**
-	 * get remote files which should be deleted to free given amount of space
+	 * get remote files which should be deleted to free given amount of space, in order of their eviction score
 	 *
 	 * @param spaceToBeFreed amount of space (summary file size) to be freed
 	 * @return collection of remote files, which can be deleted
 	 * to free given amount of space
 	 */
 	public Collection<RemoteFile> getUncacheFiles(long spaceToBeFreed) {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return null;
 
 		ArrayList<RemoteFile> rfs = new ArrayList<>();
-		SQLiteDatabase db = getOpenHelper().getReadableDatabase();
+		SQLiteDatabase db = helper.getReadableDatabase();
 		Cursor c = null;
-		read.lock();
 		try {
-			c = db.query("remotefile_sequence", null, "cached = 1", null, null, null, "ord");
+			c = db.query(TABLE_REMOTEFILES, null, "cached=1", null, null, null, "evictScore, length DESC");
 
 			long spaceToFree = spaceToBeFreed;
 			while (spaceToFree > 0 && c.moveToNext()) {
@@ -2441,48 +3810,23 @@ public class DBHelper {
 			}
 		} finally {
 			close(c);
-			read.unlock();
 		}
 		return rfs;
 	}
 
-	/**
-	 * delete remote files with given IDs
-	 *
-	 * @param idList set of remote file IDs, which should be deleted
-	 * @return the number of deleted rows
-	 */
-	private int deleteRemoteFiles(Set<Integer> idList) {
-		if (!isDBAvailable())
-			return 0;
-
-		int deletedCount = 0;
-		if (idList != null && !idList.isEmpty()) {
-			SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-			write.lock();
-			try {
-				for (String ids : StringSupport.convertListToString(idList, 400)) {
-					deletedCount += db.delete(TABLE_REMOTEFILES, "id IN (" + ids + ")", null);
-				}
-			} finally {
-				write.unlock();
-			}
-		}
-		return deletedCount;
-	}
-
 	/**
 	 * delete all remote files
 	 *
 	 * @return the number of deleted rows
 	 */
 	public int deleteAllRemoteFiles() {
-		if (!isDBAvailable())
+		OpenHelper helper = getOpenHelper();
+		if (helper == null)
 			return 0;
 
-		SQLiteDatabase db = getOpenHelper().getWritableDatabase();
-		write.lock();
+		SQLiteDatabase db = helper.getWritableDatabase();
 		try {
+			db.beginTransaction();
 			db.delete(TABLE_REMOTEFILE2ARTICLE, null, null);
 			int count = db.delete(TABLE_REMOTEFILES, null, null);
 
@@ -2490,9 +3834,10 @@ public class DBHelper {
 			cv.putNull("cachedImages");
 			db.update(TABLE_ARTICLES, cv, "cachedImages IS NOT NULL", null);
 
+			db.setTransactionSuccessful();
 			return count;
 		} finally {
-			write.unlock();
+			db.endTransaction();
 		}
 	}
 
@@ -23,6 +23,8 @@ import android.app.NotificationManager;
 import android.content.Context;
 import android.net.ConnectivityManager;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import org.ttrssreader.R;
@@ -35,6 +37,9 @@ import org.ttrssreader.net.IArticleOmitter;
 import org.ttrssreader.net.IdUnreadArticleOmitter;
 import org.ttrssreader.net.IdUpdatedArticleOmitter;
 import org.ttrssreader.net.JSONConnector;
+import org.ttrssreader.net.JSONConnector.ApiResult;
+import org.ttrssreader.utils.AsyncTask;
+import org.ttrssreader.utils.IntSet;
 import org.ttrssreader.utils.Utils;
 
 import java.net.MalformedURLException;
@@ -61,6 +66,8 @@ public class Data {
 	private static final String VIEW_UNREAD = "unread";
 
 	private static final int FETCH_ARTICLES_LIMIT = 1000;
+	// Changes of articles are sent to the server when the user didn't change anything else for this time
+	private static final long SYNCHRONIZE_STATUS_DELAY = 2 * Utils.SECOND;
 
 	private long time;
 	private long articlesCached;
@@ -75,6 +82,20 @@ public class Data {
 
 	private ConnectivityManager cm;
 
+	private final Object synchronizeStatusLock = new Object();
+	private final Handler synchronizeStatusHandler = new Handler(Looper.getMainLooper());
+	private final Runnable synchronizeStatusTask = new Runnable() {
+		@Override
+		public void run() {
+			AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+				@Override
+				public void run() {
+					synchronizeStatus();
+				}
+			});
+		}
+	};
+
 	// Singleton (see http://stackoverflow.com/a/11165926)
 	private Data() {
 		initTimers();
@@ -147,8 +168,9 @@ public class Data {
 	 * @param overrideOffline do not check connected state
 	 * @param overrideDelay   if set to {@code true} enforces the update, otherwise the time from last update will be
 	 *                        considered
+	 * @param result          status of the API calls, gets the error if one of them failed
 	 */
-	public void cacheArticles(boolean overrideOffline, boolean overrideDelay) {
+	public void cacheArticles(boolean overrideOffline, boolean overrideDelay, ApiResult result) {
 		int limit = FETCH_ARTICLES_LIMIT;
 		if (Controller.getInstance().isLowMemory())
 			limit = limit / 2;
@@ -165,14 +187,14 @@ public class Data {
 		long timeStart = System.currentTimeMillis();
 		IArticleOmitter filter = new IdUpdatedArticleOmitter("isUnread>0", 0);
 
-		Controller.getInstance().getConnector().getHeadlines(articles, VCAT_ALL, limit, VIEW_UNREAD, true, 0, null, filter);
+		Controller.getInstance().getConnector().getHeadlines(articles, VCAT_ALL, limit, VIEW_UNREAD, true, 0, null, filter, result);
 
 		final Article newestCachedArticle = DBHelper.getInstance().getArticle(sinceId);
 		IArticleOmitter updatedFilter = null;
 		if (newestCachedArticle != null)
 			updatedFilter = new IdUnreadArticleOmitter(newestCachedArticle.updated);
 
-		Controller.getInstance().getConnector().getHeadlines(articles, VCAT_ALL, limit, VIEW_ALL, true, sinceId, null, updatedFilter);
+		Controller.getInstance().getConnector().getHeadlines(articles, VCAT_ALL, limit, VIEW_ALL, true, sinceId, null, updatedFilter, result);
 
 		handleInsertArticles(articles, true);
 
@@ -186,14 +208,15 @@ public class Data {
 		}
 
 		if (!articles.isEmpty() || !filter.getOmittedArticles().isEmpty()) {
-			Set<Integer> articleUnreadIds = new HashSet<>(filter.getOmittedArticles());
+			IntSet articleUnreadIds = new IntSet(filter.getOmittedArticles().size() + articles.size());
+			articleUnreadIds.addAll(filter.getOmittedArticles());
 			for (Article a : articles) {
 				if (a.isUnread)
 					articleUnreadIds.add(a.id);
 			}
 
-			Log.d(TAG, "Amount of unread articles: " + articleUnreadIds.size());
-			DBHelper.getInstance().markRead(VCAT_ALL, false);
+			Log.d(TAG, String.format("Amount of unread articles: %s (%s KB)", articleUnreadIds.size(), articleUnreadIds.byteSize() / 1024));
+			DBHelper.getInstance().markAllRead();
 			DBHelper.getInstance().markArticles(articleUnreadIds, "isUnread", 1);
 		}
 		Log.d(TAG, "cacheArticles() Took: " + (System.currentTimeMillis() - timeStart) + "ms");
@@ -231,8 +254,9 @@ public class Data {
 	 * @param isCat             if set to {@code true}, then {@code feedId} is actually the category ID
 	 * @param overrideOffline   should the "work offline" state be ignored?
 	 * @param overrideDelay     should the last update time be ignored?
+	 * @param result            status of the API calls, gets the error if one of them failed
 	 */
-	public void updateArticles(int feedId, boolean displayOnlyUnread, boolean isCat, boolean overrideOffline, boolean overrideDelay) {
+	public void updateArticles(int feedId, boolean displayOnlyUnread, boolean isCat, boolean overrideOffline, boolean overrideDelay, ApiResult result) {
 		Long time = articlesChanged.get(feedId);
 		if (isCat) // Category-Ids are in feedsChanged
 			time = feedsChanged.get(feedId);
@@ -274,11 +298,11 @@ public class Data {
 
 		if (!displayOnlyUnread) {
 			// If not displaying only unread articles: Refresh unread articles to get them too.
-			Controller.getInstance().getConnector().getHeadlines(articles, feedId, limit, VIEW_UNREAD, isCat, 0, null, null);
+			Controller.getInstance().getConnector().getHeadlines(articles, feedId, limit, VIEW_UNREAD, isCat, 0, null, null, result);
 		}
 
 		String viewMode = (displayOnlyUnread ? VIEW_UNREAD : VIEW_ALL);
-		Controller.getInstance().getConnector().getHeadlines(articles, feedId, limit, viewMode, isCat, sinceId, null, filter);
+		Controller.getInstance().getConnector().getHeadlines(articles, feedId, limit, viewMode, isCat, sinceId, null, filter, result);
 
 		if (isVcat)
 			handlePurgeMarked(articles, feedId);
@@ -326,14 +350,13 @@ public class Data {
 
 		// Search min and max ids
 		int minId = Integer.MAX_VALUE;
-		Set<String> idSet = new HashSet<>();
+		Set<Integer> idSet = new HashSet<>();
 		for (Article article : articles) {
 			if (article.id < minId)
 				minId = article.id;
-			idSet.add(article.id + "");
+			idSet.add(article.id);
 		}
 
-		String idList = Utils.separateItems(idSet, ",");
 		String vcat;
 		if (feedId == VCAT_STAR)
 			vcat = "isStarred";
@@ -342,7 +365,7 @@ public class Data {
 		else
 			return;
 
-		DBHelper.getInstance().handlePurgeMarked(idList, minId, vcat);
+		DBHelper.getInstance().handlePurgeMarked(idSet, minId, vcat);
 	}
 
 	/**
@@ -380,9 +403,10 @@ public class Data {
 	 *
 	 * @param categoryId      id of category, which feeds should be returned
 	 * @param overrideOffline do not check connected state
+	 * @param result          status of the API call, gets the error if it failed
 	 * @return actual feeds for given category
 	 */
-	public Set<Feed> updateFeeds(int categoryId, boolean overrideOffline) {
+	public Set<Feed> updateFeeds(int categoryId, boolean overrideOffline, ApiResult result) {
 
 		Long time = feedsChanged.get(categoryId);
 		if (time == null)
@@ -392,7 +416,7 @@ public class Data {
 			return null;
 		} else if (Utils.isConnected(cm) || (overrideOffline && Utils.checkConnected(cm))) {
 			Set<Feed> ret = new LinkedHashSet<>();
-			Set<Feed> feeds = Controller.getInstance().getConnector().getFeeds();
+			Set<Feed> feeds = Controller.getInstance().getConnector().getFeeds(result);
 
 			// Only delete feeds if we got new feeds...
 			if (!feeds.isEmpty()) {
@@ -450,13 +474,14 @@ public class Data {
 	 * update DB (delete/insert) with actual categories information from server
 	 *
 	 * @param overrideOffline do not check connected state
+	 * @param result          status of the API call, gets the error if it failed
 	 * @return actual categories
 	 */
-	public Set<Category> updateCategories(boolean overrideOffline) {
+	public Set<Category> updateCategories(boolean overrideOffline, ApiResult result) {
 		if (categoriesChanged > System.currentTimeMillis() - Utils.UPDATE_TIME) {
 			return null;
 		} else if (Utils.isConnected(cm) || overrideOffline) {
-			Set<Category> categories = Controller.getInstance().getConnector().getCategories();
+			Set<Category> categories = Controller.getInstance().getConnector().getCategories(result);
 
 			if (!categories.isEmpty()) {
 				DBHelper.getInstance().deleteCategories(false);
@@ -473,73 +498,77 @@ public class Data {
 
 	// *** STATUS *******************************************************************
 
+	// Changes of articles are stored in the outbox (the tables marked and notes) and sent to the server in background by
+	// synchronizeStatus(), so the caller never waits for the network.
+
 	public void setArticleRead(Set<Integer> ids, int status) {
-		boolean erg = false;
-		if (Utils.isConnected(cm))
-			erg = Controller.getInstance().getConnector().setArticleRead(ids, status);
-		if (!erg)
-			DBHelper.getInstance().markUnsynchronizedStates(ids, DBHelper.MARK_READ, status);
+		DBHelper.getInstance().markUnsynchronizedStates(ids, DBHelper.MARK_READ, status);
+		scheduleSynchronizeStatus();
 	}
 
 	public void setArticleStarred(int articleId, int status) {
-		boolean erg = false;
 		Set<Integer> ids = new HashSet<>();
 		ids.add(articleId);
-
-		if (Utils.isConnected(cm))
-			erg = Controller.getInstance().getConnector().setArticleStarred(ids, status);
-		if (!erg)
-			DBHelper.getInstance().markUnsynchronizedStates(ids, DBHelper.MARK_STAR, status);
+		DBHelper.getInstance().markUnsynchronizedStates(ids, DBHelper.MARK_STAR, status);
+		scheduleSynchronizeStatus();
 	}
 
 	public void setArticlePublished(int articleId, int status) {
-		boolean erg = false;
 		Set<Integer> ids = new HashSet<>();
 		ids.add(articleId);
-
-		if (Utils.isConnected(cm))
-			erg = Controller.getInstance().getConnector().setArticlePublished(ids, status);
-		if (!erg)
-			DBHelper.getInstance().markUnsynchronizedStates(ids, DBHelper.MARK_PUBLISH, status);
+		DBHelper.getInstance().markUnsynchronizedStates(ids, DBHelper.MARK_PUBLISH, status);
+		scheduleSynchronizeStatus();
 	}
 
 	public void setArticleNote(int articleId, String note) {
-		boolean erg = false;
 		Map<Integer, String> ids = new HashMap<>();
 		ids.put(articleId, note);
+		DBHelper.getInstance().markUnsynchronizedNotes(ids);
+		scheduleSynchronizeStatus();
+	}
 
-		if (Utils.isConnected(cm))
-			erg = Controller.getInstance().getConnector().setArticleNote(ids);
-		if (!erg)
-			DBHelper.getInstance().markUnsynchronizedNotes(ids);
+	/**
+	 * run synchronizeStatus() in background after {@link #SYNCHRONIZE_STATUS_DELAY}, every call within this time
+	 * postpones it again so a series of changes is sent at once.
+	 */
+	private void scheduleSynchronizeStatus() {
+		synchronizeStatusHandler.removeCallbacks(synchronizeStatusTask);
+		synchronizeStatusHandler.postDelayed(synchronizeStatusTask, SYNCHRONIZE_STATUS_DELAY);
 	}
 
 	/**
-	 * mark all articles in given category/feed as read
+	 * mark all articles in given category/feed as read. The server is told with one catchup right away, the outbox is
+	 * sent first so the server selects the same articles as the local database. If the catchup can't be sent the
+	 * changed articles are put into the outbox instead: the server has no upper bound for a catchup, sending it later
+	 * would also mark articles as read which arrived in the meantime and have never been fetched.
 	 *
 	 * @param id         category/feed ID
 	 * @param isCategory if set to {@code true}, then given id is category
 	 *                   ID, otherwise - feed ID
 	 */
 	public void setRead(int id, boolean isCategory) {
-		Collection<Integer> markedArticleIds = DBHelper.getInstance().markRead(id, isCategory);
-		if (markedArticleIds != null) {
-			boolean isSync = false;
-			if (Utils.isConnected(cm))
-				isSync = Controller.getInstance().getConnector().setRead(id, isCategory);
-			if (!isSync)
-				DBHelper.getInstance().markUnsynchronizedStates(markedArticleIds, DBHelper.MARK_READ, 0);
-		}
+		synchronized (synchronizeStatusLock) {
+			synchronizeStatus();
 
+			IntSet ids = DBHelper.getInstance().markRead(id, isCategory);
+			if (ids.isEmpty())
+				return;
+			if (Utils.isConnected(cm) && Controller.getInstance().getConnector().setRead(id, isCategory))
+				return;
+
+			Log.d(TAG, String.format("Catchup of %s %s not sent, storing %s articles", isCategory ? "category" : "feed", id, ids.size()));
+			DBHelper.getInstance().markUnsynchronizedStates(ids, DBHelper.MARK_READ, 0);
+		}
+		scheduleSynchronizeStatus();
 	}
 
-	public boolean shareToPublished(String title, String url, String content) {
-		return Utils.isConnected(cm) && Controller.getInstance().getConnector().shareToPublished(title, url, content);
+	public boolean shareToPublished(String title, String url, String content, ApiResult result) {
+		return Utils.isConnected(cm) && Controller.getInstance().getConnector().shareToPublished(title, url, content, result);
 	}
 
-	public JSONConnector.SubscriptionResponse feedSubscribe(String feed_url, int category_id) {
+	public JSONConnector.SubscriptionResponse feedSubscribe(String feed_url, int category_id, ApiResult result) {
 		if (Utils.isConnected(cm))
-			return Controller.getInstance().getConnector().feedSubscribe(feed_url, category_id);
+			return Controller.getInstance().getConnector().feedSubscribe(feed_url, category_id, result);
 		return null;
 	}
 
@@ -577,50 +606,49 @@ public class Data {
 	}
 
 	/**
-	 * syncronize read, starred, published articles and notes with server
+	 * syncronize read, starred, published articles and notes with server. The outbox holds one pending state per article
+	 * and field, so all articles with the same change are sent with one call. The changes stay in the outbox while they
+	 * are sent and are only removed afterwards if they haven't been changed in the meantime. An article which is changed
+	 * back while it is sent keeps its new state in the outbox, it is sent by the pass for the other state or by the
+	 * next run which is scheduled by the change.
 	 */
 	public void synchronizeStatus() {
 		if (!Utils.isConnected(cm))
 			return;
 		long time = System.currentTimeMillis();
-
-		// Try to send all marked articles to the server, every synced status is removed from the DB afterwards
-		String[] marks = new String[]{DBHelper.MARK_READ, DBHelper.MARK_STAR, DBHelper.MARK_PUBLISH};
-		for (String mark : marks) {
-			Set<Integer> idsMark = DBHelper.getInstance().getMarked(mark, 1);
-			Set<Integer> idsUnmark = DBHelper.getInstance().getMarked(mark, 0);
-
-			if (DBHelper.MARK_READ.equals(mark)) {
-				if (Controller.getInstance().getConnector().setArticleRead(idsMark, 1))
-					DBHelper.getInstance().setMarked(idsMark, mark);
-
-				if (Controller.getInstance().getConnector().setArticleRead(idsUnmark, 0))
-					DBHelper.getInstance().setMarked(idsUnmark, mark);
-			}
-			if (DBHelper.MARK_STAR.equals(mark)) {
-				if (Controller.getInstance().getConnector().setArticleStarred(idsMark, 1))
-					DBHelper.getInstance().setMarked(idsMark, mark);
-
-				if (Controller.getInstance().getConnector().setArticleStarred(idsUnmark, 0))
-					DBHelper.getInstance().setMarked(idsUnmark, mark);
+		int count = 0;
+
+		synchronized (synchronizeStatusLock) {
+			String[] marks = new String[]{DBHelper.MARK_READ, DBHelper.MARK_STAR, DBHelper.MARK_PUBLISH};
+			for (String mark : marks) {
+				for (int state : new int[]{1, 0}) {
+					Set<Integer> ids = DBHelper.getInstance().getMarked(mark, state);
+					if (ids.isEmpty())
+						continue;
+
+					boolean sent = false;
+					if (DBHelper.MARK_READ.equals(mark))
+						sent = Controller.getInstance().getConnector().setArticleRead(ids, state);
+					else if (DBHelper.MARK_STAR.equals(mark))
+						sent = Controller.getInstance().getConnector().setArticleStarred(ids, state);
+					else if (DBHelper.MARK_PUBLISH.equals(mark))
+						sent = Controller.getInstance().getConnector().setArticlePublished(ids, state);
+
+					if (sent) {
+						DBHelper.getInstance().setMarked(ids, mark, state);
+						count += ids.size();
+					}
+				}
 			}
-			if (DBHelper.MARK_PUBLISH.equals(mark)) {
-				if (Controller.getInstance().getConnector().setArticlePublished(idsMark, 1))
-					DBHelper.getInstance().setMarked(idsMark, mark);
 
-				if (Controller.getInstance().getConnector().setArticlePublished(idsUnmark, 0))
-					DBHelper.getInstance().setMarked(idsUnmark, mark);
+			Map<Integer, String> notes = DBHelper.getInstance().getMarkedNotes();
+			if (!notes.isEmpty() && Controller.getInstance().getConnector().setArticleNote(notes)) {
+				DBHelper.getInstance().setMarkedNotes(notes);
+				count += notes.size();
 			}
 		}
 
-		// Try to send all article notes to the server, on success they are deleted from the DB
-		Map<Integer, String> notesMarked = DBHelper.getInstance().getMarkedNotes();
-		if (notesMarked.size() > 0) {
-			if (Controller.getInstance().getConnector().setArticleNote(notesMarked))
-				DBHelper.getInstance().setMarkedNotes(notesMarked);
-		}
-
-		Log.d(TAG, String.format("Syncing Status took %sms", (System.currentTimeMillis() - time)));
+		Log.d(TAG, String.format("Syncing Status of %s articles took %sms", count, (System.currentTimeMillis() - time)));
 	}
 
 	public void purgeOrphanedArticles() {
@@ -628,9 +656,13 @@ public class Data {
 			return;
 
 		DBHelper.getInstance().purgeOrphanedArticles();
+		DBHelper.getInstance().verifyCounters();
 		Controller.getInstance().setLastCleanup(System.currentTimeMillis());
 	}
 
+	/**
+	 * Update the time dependent counter of "Fresh articles", all other counters are maintained by the database.
+	 */
 	public void calculateCounters() {
 		DBHelper.getInstance().calculateCounters();
 	}
@@ -251,12 +251,12 @@ public class CategoryActivity extends MenuActivity implements IItemSelectedListe
 			publishProgress(++progress);
 
 			// Cache articles for all categories
-			Data.getInstance().cacheArticles(false, forceUpdate);
+			Data.getInstance().cacheArticles(false, forceUpdate, result);
 			publishProgress(++progress);
 
 			// Refresh articles for all labels
 			for (Feed f : labels) {
-				Data.getInstance().updateArticles(f.id, false, false, false, forceUpdate);
+				Data.getInstance().updateArticles(f.id, false, false, false, forceUpdate, result);
 				publishProgress(++progress);
 			}
 
@@ -265,10 +265,10 @@ public class CategoryActivity extends MenuActivity implements IItemSelectedListe
 			Data.getInstance().updateVirtualCategories(getApplicationContext());
 			publishProgress(++progress);
 
-			Data.getInstance().updateCategories(false);
+			Data.getInstance().updateCategories(false, result);
 			publishProgress(++progress);
 
-			Set<Feed> feeds = Data.getInstance().updateFeeds(Data.VCAT_ALL, false);
+			Set<Feed> feeds = Data.getInstance().updateFeeds(Data.VCAT_ALL, false, result);
 			publishProgress(++progress);
 
 			Data.getInstance().calculateCounters();
@@ -287,9 +287,9 @@ public class FeedHeadlineActivity extends MenuActivity {
 			publishProgress(progress);
 
 			if (selectArticlesForCategory) {
-				Data.getInstance().updateArticles(categoryId, displayUnread, true, false, forceUpdate);
+				Data.getInstance().updateArticles(categoryId, displayUnread, true, false, forceUpdate, result);
 			} else {
-				Data.getInstance().updateArticles(feedId, displayUnread, false, false, forceUpdate);
+				Data.getInstance().updateArticles(feedId, displayUnread, false, false, forceUpdate, result);
 			}
 			publishProgress(++progress);
 
@@ -55,6 +55,7 @@ import org.ttrssreader.imageCache.ForegroundWorker;
 import org.ttrssreader.model.updaters.IUpdatable;
 import org.ttrssreader.model.updaters.StateSynchronisationUpdater;
 import org.ttrssreader.model.updaters.Updater;
+import org.ttrssreader.net.JSONConnector.ApiResult;
 import org.ttrssreader.preferences.Constants;
 import org.ttrssreader.preferences.PreferencesActivity;
 import org.ttrssreader.utils.AsyncTask;
@@ -573,8 +574,6 @@ public abstract class MenuActivity extends MenuFlavorActivity implements IUpdate
 	protected void doRefresh() {
 		invalidateOptionsMenu();
 		ProgressBarManager.getInstance().setIndeterminateVisibility(this);
-		if (Controller.getInstance().getConnector().hasLastError())
-			openConnectionErrorDialog(Controller.getInstance().getConnector().pullLastError());
 	}
 
 	protected abstract void doUpdate(boolean forceUpdate);
@@ -585,6 +584,8 @@ public abstract class MenuActivity extends MenuFlavorActivity implements IUpdate
 	abstract class ActivityUpdater extends AsyncTask<Void, Integer, Void> {
 		protected int taskCount = 0;
 		protected final boolean forceUpdate;
+		// Status of all API calls of this update, the first error is shown when it has finished
+		protected final ApiResult result = new ApiResult();
 
 		ActivityUpdater(boolean forceUpdate) {
 			this.forceUpdate = forceUpdate;
@@ -601,6 +602,12 @@ public abstract class MenuActivity extends MenuFlavorActivity implements IUpdate
 			// Add 500 to make sure we are still within 10000 but never show an empty progressbar at 0
 			setMyProgress((10000 / (taskCount + 1)) * values[0] + 500);
 		}
+
+		@Override
+		protected void onPostExecute(Void v) {
+			if (result.failed())
+				openConnectionErrorDialog(result.getError());
+		}
 	}
 
 	// The "active pointer" is the one currently moving our object.
@@ -28,6 +28,7 @@ import org.ttrssreader.R;
 import org.ttrssreader.controllers.Controller;
 import org.ttrssreader.controllers.Data;
 import org.ttrssreader.gui.fragments.MainListFragment;
+import org.ttrssreader.net.JSONConnector.ApiResult;
 import org.ttrssreader.utils.AsyncTask;
 import org.ttrssreader.utils.PostMortemReportExceptionHandler;
 
@@ -124,12 +125,13 @@ public class ShareActivity extends MenuActivity {
 		protected Void doInBackground(Void... params) {
 
 			try {
-				boolean ret = Data.getInstance().shareToPublished(m_TitleValue, m_UrlValue, m_ContentValue);
+				ApiResult result = new ApiResult();
+				boolean ret = Data.getInstance().shareToPublished(m_TitleValue, m_UrlValue, m_ContentValue, result);
 
 				if (ret)
 					finishCompat();
-				else if (Controller.getInstance().getConnector().hasLastError())
-					showErrorDialog(Controller.getInstance().getConnector().pullLastError());
+				else if (result.failed())
+					showErrorDialog(result.getError());
 				else if (Controller.getInstance().workOffline())
 					showErrorDialog("Working offline, synchronisation of published articles is not implemented yet.");
 				else
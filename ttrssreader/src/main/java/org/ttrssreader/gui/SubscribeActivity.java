@@ -38,6 +38,7 @@ import org.ttrssreader.controllers.Data;
 import org.ttrssreader.controllers.ProgressBarManager;
 import org.ttrssreader.gui.fragments.MainListFragment;
 import org.ttrssreader.model.pojos.Category;
+import org.ttrssreader.net.JSONConnector.ApiResult;
 import org.ttrssreader.net.JSONConnector.SubscriptionResponse;
 import org.ttrssreader.utils.AsyncTask;
 import org.ttrssreader.utils.PostMortemReportExceptionHandler;
@@ -174,15 +175,16 @@ public class SubscribeActivity extends MenuActivity {
 					return null;
 				}
 
-				SubscriptionResponse ret = Data.getInstance().feedSubscribe(m_UrlValue, m_Category.id);
+				ApiResult result = new ApiResult();
+				SubscriptionResponse ret = Data.getInstance().feedSubscribe(m_UrlValue, m_Category.id, result);
 				String message = "\n\n(" + ret.message + ")";
 
 				if (ret.code == 0)
 					showErrorDialog(getResources().getString(R.string.SubscribeActivity_invalidUrl));
 				if (ret.code == 1)
 					finish();
-				else if (Controller.getInstance().getConnector().hasLastError())
-					showErrorDialog(Controller.getInstance().getConnector().pullLastError());
+				else if (result.failed())
+					showErrorDialog(result.getError());
 				else if (ret.code == 2)
 					showErrorDialog(getResources().getString(R.string.SubscribeActivity_invalidUrl) + " " + message);
 				else if (ret.code == 3)
@@ -65,7 +65,6 @@ import org.ttrssreader.R;
 import org.ttrssreader.controllers.Controller;
 import org.ttrssreader.controllers.DBHelper;
 import org.ttrssreader.controllers.ProgressBarManager;
-import org.ttrssreader.gui.ErrorActivity;
 import org.ttrssreader.gui.FeedHeadlineActivity;
 import org.ttrssreader.gui.MenuActivity;
 import org.ttrssreader.gui.TextInputAlert;
@@ -314,6 +313,9 @@ public class ArticleFragment extends Fragment implements TextInputAlertCallback
 				if (article == null)
 					return null;
 
+				// The body is stored separately, load it here so rendering doesn't access the DB on the UI thread
+				article.getContent();
+
 				feed = DBHelper.getInstance().getFeed(article.feedId);
 				cachedImages = getCachedImagesJS(article.id);
 
@@ -381,18 +383,10 @@ public class ArticleFragment extends Fragment implements TextInputAlertCallback
 			if (!Controller.getInstance().loadMedia())
 				webView.getSettings().setMediaPlaybackRequiresUserGesture(false);
 
-			// No need to reload everything
+			// No need to reload everything, errors of the update are shown by the activity
 			if (webviewInitialized)
 				return;
 
-			// Check for errors
-			if (Controller.getInstance().getConnector().hasLastError()) {
-				Intent i = new Intent(getActivity(), ErrorActivity.class);
-				i.putExtra(ErrorActivity.ERROR_MESSAGE, Controller.getInstance().getConnector().pullLastError());
-				startActivityForResult(i, ErrorActivity.ACTIVITY_SHOW_ERROR);
-				return;
-			}
-
 			StringBuilder labels = new StringBuilder();
 			for (Label label : article.labels) {
 				if (label.checked) {
@@ -407,7 +401,7 @@ public class ArticleFragment extends Fragment implements TextInputAlertCallback
 			}
 
 			// Remove all html tags and content that doesn't meet this set of allowed stuff
-			final String contentClean = Jsoup.clean(article.content, Safelist.relaxed());
+			final String contentClean = Jsoup.clean(article.getContent(), Safelist.relaxed());
 
 			// Load html from Controller and insert content// Article-Prefetch-Stuff from Raw-Ressources and System
 			ST htmlTmpl = new ST(getString(R.string.HTML_TEMPLATE), '$', '$');
@@ -445,7 +439,7 @@ public class ArticleFragment extends Fragment implements TextInputAlertCallback
 			htmlTmpl.add("CACHED_IMAGES", cachedImages);
 			htmlTmpl.add("LABELS", labels.toString());
 			htmlTmpl.add("UPDATED", DateUtils.getDateTimeCustom(getActivity(), article.updated));
-			htmlTmpl.add("ATTACHMENTS", getAttachmentsMarkup(article.attachments));
+			htmlTmpl.add("ATTACHMENTS", getAttachmentsMarkup(article.getAttachments()));
 			htmlTmpl.add("CONTENT", contentClean);
 
 			// Hyphenation Javascript
@@ -478,7 +472,7 @@ public class ArticleFragment extends Fragment implements TextInputAlertCallback
 			webView.addJavascriptInterface(articleJSInterface, "articleController");
 			webView.loadDataWithBaseURL("file:///android_asset/", content, "text/html", "utf-8", null);
 
-			if (!linkAutoOpened && article.content.length() < 3) {
+			if (!linkAutoOpened && article.getContent().length() < 3) {
 				if (Controller.getInstance().openUrlEmptyArticle()) {
 					Log.i(TAG, "Article-Content is empty, opening URL in browser");
 					linkAutoOpened = true;
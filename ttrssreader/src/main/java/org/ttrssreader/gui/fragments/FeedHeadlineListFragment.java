@@ -387,8 +387,6 @@ public class FeedHeadlineListFragment extends MainListFragment implements TextIn
 			Feed feed = DBHelper.getInstance().getFeed(feedId);
 			if (feed != null) {
 				title = feed.title;
-				if (feed.icon != null)
-					icon = feed.icon;
 			}
 		}
 		unreadCount = DBHelper.getInstance().getUnreadCount(selectArticlesForCategory ? categoryId : feedId, selectArticlesForCategory);
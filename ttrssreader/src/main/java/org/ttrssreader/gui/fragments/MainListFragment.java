@@ -67,7 +67,6 @@ public abstract class MainListFragment extends ListFragment implements LoaderMan
 
 	protected String title;
 	protected int unreadCount;
-	protected byte[] icon;
 
 	@Override
 	public void onCreate(Bundle savedInstanceState) {
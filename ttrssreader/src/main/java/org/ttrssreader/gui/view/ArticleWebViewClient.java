@@ -49,9 +49,13 @@ import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
+import java.nio.charset.Charset;
 import java.util.Locale;
 
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 import pub.devrel.easypermissions.AfterPermissionGranted;
 import pub.devrel.easypermissions.EasyPermissions;
 
@@ -233,16 +237,23 @@ public class ArticleWebViewClient extends WebViewClient {
 
 			int size = -1;
 			File file;
+			Response response = null;
 			try {
-				URLConnection con = Controller.getInstance().openConnection(url);
+				Request.Builder reqBuilder = new Request.Builder();
+				reqBuilder.url(url);
 
 				file = new File(folder, URLUtil.guessFileName(url.toString(), null, ".mp3"));
 				if (file.exists()) {
 					size = (int) file.length();
-					con.setRequestProperty("Range", "bytes=" + size + "-"); // try to resume downloads
+					reqBuilder.header("Range", "bytes=" + size + "-"); // try to resume downloads
 				}
 
-				bis = new BufferedInputStream(con.getInputStream());
+				response = Controller.getInstance().getHttpClient().newCall(reqBuilder.build()).execute();
+				ResponseBody body = response.body();
+				if (!response.isSuccessful() || body == null)
+					throw new IOException("Server returned status: " + response.code() + " (Message: " + response.message() + ")");
+
+				bis = new BufferedInputStream(body.byteStream());
 				fos = (size == 0) ? new FileOutputStream(file) : new FileOutputStream(file, true);
 				bos = new BufferedOutputStream(fos, BUFFER);
 
@@ -281,6 +292,8 @@ public class ArticleWebViewClient extends WebViewClient {
 						// Empty!
 					}
 				}
+				if (response != null)
+					response.close();
 			}
 		}
 	}
@@ -306,8 +319,19 @@ public class ArticleWebViewClient extends WebViewClient {
 			URL url = new URL(urlStr);
 			if (!Controller.getInstance().urlNeedsAuthentication(url))
 				return null;
-			URLConnection c = Controller.getInstance().openConnection(url);
-			return new WebResourceResponse(c.getContentType(), c.getContentEncoding(), c.getInputStream());
+			Request request = new Request.Builder().url(url).build();
+			Response response = Controller.getInstance().getHttpClient().newCall(request).execute();
+			ResponseBody body = response.body();
+			if (!response.isSuccessful() || body == null) {
+				response.close();
+				return null;
+			}
+
+			// WebView closes the stream and with it the response when done
+			MediaType type = body.contentType();
+			String mimeType = type != null ? type.type() + "/" + type.subtype() : null;
+			Charset charset = type != null ? type.charset() : null;
+			return new WebResourceResponse(mimeType, charset != null ? charset.name() : null, body.byteStream());
 		} catch (IOException e) {
 			Log.e(TAG, "Failed to fetch " + urlStr);
 		}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+package org.ttrssreader.imageCache;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.LruCache;
+
+import org.ttrssreader.controllers.DBHelper;
+import org.ttrssreader.utils.Utils;
+
+/**
+ * Keeps the decoded feed icons in memory so list items don't have to read and decode the icon again every time they
+ * are bound. Icons are decoded to the size they are displayed in, the least recently used ones are dropped when the
+ * cache is full. Feeds without icon are remembered too.
+ */
+public class FeedIconCache {
+
+	//	private static final String TAG = FeedIconCache.class.getSimpleName();
+
+	// Icons decoded to list item size take a few KB each
+	private static final int MAX_SIZE = 2 * (int) Utils.MB;
+
+	// Marker for feeds without icon, LruCache doesn't take null values
+	private static final Bitmap NO_ICON = Bitmap.createBitmap(1, 1, Bitmap.Config.ALPHA_8);
+
+	private final LruCache<Integer, Bitmap> cache = new LruCache<Integer, Bitmap>(MAX_SIZE) {
+		@Override
+		protected int sizeOf(Integer key, Bitmap value) {
+			return value.getByteCount();
+		}
+	};
+
+	// Singleton (see http://stackoverflow.com/a/11165926)
+	private FeedIconCache() {
+	}
+
+	private static class InstanceHolder {
+		private static final FeedIconCache instance = new FeedIconCache();
+	}
+
+	public static FeedIconCache getInstance() {
+		return InstanceHolder.instance;
+	}
+
+	/**
+	 * @param feedId ID of the feed
+	 * @param size   size of the icon in pixels, icons are decoded once so all callers should use the same size
+	 * @return the icon of the feed or {@code null} if there is none
+	 */
+	public Bitmap get(int feedId, int size) {
+		Bitmap bitmap = cache.get(feedId);
+		if (bitmap == null) {
+			bitmap = decode(DBHelper.getInstance().getFeedIcon(feedId), size);
+			cache.put(feedId, bitmap != null ? bitmap : NO_ICON);
+		}
+		return bitmap != NO_ICON ? bitmap : null;
+	}
+
+	/**
+	 * remove the icon of the given feed, it is read again from the database on next access.
+	 *
+	 * @param feedId ID of the feed
+	 */
+	public void remove(int feedId) {
+		cache.remove(feedId);
+	}
+
+	public void clear() {
+		cache.evictAll();
+	}
+
+	/**
+	 * decode the given image, subsampled while it is at least twice as big as needed and then scaled down to the
+	 * given size.
+	 */
+	private static Bitmap decode(byte[] data, int size) {
+		if (data == null || data.length == 0)
+			return null;
+
+		BitmapFactory.Options options = new BitmapFactory.Options();
+		options.inJustDecodeBounds = true;
+		BitmapFactory.decodeByteArray(data, 0, data.length, options);
+		if (options.outWidth <= 0 || options.outHeight <= 0)
+			return null;
+
+		options.inSampleSize = 1;
+		while (options.outWidth / (options.inSampleSize * 2) >= size && options.outHeight / (options.inSampleSize * 2) >= size) {
+			options.inSampleSize *= 2;
+		}
+		options.inJustDecodeBounds = false;
+
+		Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+		if (bitmap == null || size <= 0 || (bitmap.getWidth() <= size && bitmap.getHeight() <= size))
+			return bitmap;
+
+		float scale = Math.min((float) size / bitmap.getWidth(), (float) size / bitmap.getHeight());
+		int width = Math.max(1, Math.round(bitmap.getWidth() * scale));
+		int height = Math.max(1, Math.round(bitmap.getHeight() * scale));
+		Bitmap scaled = Bitmap.createScaledBitmap(bitmap, width, height, true);
+		if (scaled != bitmap)
+			bitmap.recycle();
+		return scaled;
+	}
+
+}
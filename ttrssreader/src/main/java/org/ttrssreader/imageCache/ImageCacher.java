@@ -31,6 +31,7 @@ import org.ttrssreader.gui.interfaces.ICacheEndListener;
 import org.ttrssreader.model.pojos.Article;
 import org.ttrssreader.model.pojos.Feed;
 import org.ttrssreader.model.pojos.RemoteFile;
+import org.ttrssreader.net.JSONConnector.ApiResult;
 import org.ttrssreader.utils.AsyncTask;
 import org.ttrssreader.utils.FileUtils;
 import org.ttrssreader.utils.StringSupport;
@@ -41,8 +42,6 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
-import java.net.URL;
-import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -53,8 +52,14 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
 class ImageCacher extends AsyncTask<Void, Integer, Void> {
 
 	private static final String TAG = ImageCacher.class.getSimpleName();
@@ -66,6 +71,8 @@ class ImageCacher extends AsyncTask<Void, Integer, Void> {
 
 	private final ICacheEndListener parent;
 	final ConnectivityManager cm;
+	// Short timeouts for images, uses the connection pool of the shared client
+	private final OkHttpClient client;
 
 	private volatile boolean shouldBeStopped = false;
 
@@ -88,6 +95,7 @@ class ImageCacher extends AsyncTask<Void, Integer, Void> {
 		this.onlyArticles = onlyArticles;
 		this.networkType = networkType;
 		this.cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+		this.client = Controller.getInstance().getHttpClient().newBuilder().connectTimeout(2, TimeUnit.SECONDS).readTimeout(1, TimeUnit.SECONDS).build();
 
 		// Create Handler in a new Thread so all tasks are started in this new thread instead of the main UI-Thread
 		Thread myHandler = new MyHandler();
@@ -171,23 +179,24 @@ class ImageCacher extends AsyncTask<Void, Integer, Void> {
 
 			// Only use progress-updates and callbacks for downloading articles, images are done in background
 			Set<Feed> labels = DBHelper.getInstance().getFeeds(-2);
+			ApiResult result = new ApiResult();
 			taskCount = DEFAULT_TASK_COUNT + labels.size();
 
 			int progress = 0;
 			publishProgress(++progress);
 			if (checkCancelRequested())
 				return;
-			Data.getInstance().updateCategories(true);
+			Data.getInstance().updateCategories(true, result);
 			publishProgress(++progress);
 			if (checkCancelRequested())
 				return;
-			Data.getInstance().updateFeeds(Data.VCAT_ALL, true);
+			Data.getInstance().updateFeeds(Data.VCAT_ALL, true, result);
 
 			// Cache all articles
 			publishProgress(++progress);
 			if (checkCancelRequested())
 				return;
-			Data.getInstance().cacheArticles(false, true);
+			Data.getInstance().cacheArticles(false, true, result);
 
 			for (Feed f : labels) {
 				if (f.unread == 0)
@@ -195,7 +204,7 @@ class ImageCacher extends AsyncTask<Void, Integer, Void> {
 				publishProgress(++progress);
 				if (checkCancelRequested())
 					return;
-				Data.getInstance().updateArticles(f.id, true, false, false, true);
+				Data.getInstance().updateArticles(f.id, true, false, false, true, result);
 				Data.getInstance().updateFeedIcon(f.id);
 			}
 
@@ -203,6 +212,8 @@ class ImageCacher extends AsyncTask<Void, Integer, Void> {
 			Data.getInstance().notifyListeners();
 
 			Log.i(TAG, String.format("Updating articles took %s ms", (System.currentTimeMillis() - timeArticles)));
+			if (result.failed())
+				Log.w(TAG, "Updating articles failed: " + result.getError());
 			publishProgress(++progress);
 			if (checkCancelRequested())
 				return;
@@ -420,36 +431,33 @@ class ImageCacher extends AsyncTask<Void, Integer, Void> {
 
 		long byteWritten = 0;
 		boolean error = false;
-		InputStream is = null;
+		Response response = null;
 
 		try (FileOutputStream fos = new FileOutputStream(file)) {
 			if (checkCancelRequested())
 				throw new InterruptedIOException("Download was cancelled.");
 
-			URL url = new URL(downloadUrl);
-			URLConnection connection = Controller.getInstance().openConnection(url);
+			Request request = new Request.Builder().url(downloadUrl).build();
+			response = client.newCall(request).execute();
 
-			connection.setConnectTimeout((int) (Utils.SECOND * 2));
-			connection.setReadTimeout((int) Utils.SECOND);
+			ResponseBody body = response.body();
+			if (!response.isSuccessful() || body == null)
+				throw new IOException("Server returned status: " + response.code() + " (Message: " + response.message() + ")");
 
 			// Check filesize if available from header
-			try {
-				long length = Long.parseLong(connection.getHeaderField("Content-Length"));
-
-				if (length <= 0) {
-					byteWritten = length;
-					Log.w(TAG, "Content-Length equals 0 or is negative: " + length);
-				} else if (length < minSize) {
-					error = true;
-					byteWritten = -length;
-					Log.i(TAG, String.format("Not starting download of %s, the size (%s bytes) is less then the minimum " + "filesize of %s bytes.", downloadUrl, length, minSize));
-				} else if (length > maxSize) {
-					error = true;
-					byteWritten = -length;
-					Log.i(TAG, String.format("Not starting download of %s, the size (%s bytes) exceeds the " + "maximum " + "filesize of %s bytes.", downloadUrl, length, maxSize));
-				}
-			} catch (Exception e) {
+			long length = body.contentLength();
+			if (length < 0) {
 				Log.w(TAG, "Couldn't read Content-Length from url: " + downloadUrl);
+			} else if (length == 0) {
+				Log.w(TAG, "Content-Length equals 0: " + length);
+			} else if (length < minSize) {
+				error = true;
+				byteWritten = -length;
+				Log.i(TAG, String.format("Not starting download of %s, the size (%s bytes) is less then the minimum " + "filesize of %s bytes.", downloadUrl, length, minSize));
+			} else if (length > maxSize) {
+				error = true;
+				byteWritten = -length;
+				Log.i(TAG, String.format("Not starting download of %s, the size (%s bytes) exceeds the " + "maximum " + "filesize of %s bytes.", downloadUrl, length, maxSize));
 			}
 
 			if (byteWritten == 0) {
@@ -457,7 +465,7 @@ class ImageCacher extends AsyncTask<Void, Integer, Void> {
 				if (!file.exists() && !file.createNewFile())
 					Log.i(TAG, "File could not be created: " + file.getAbsolutePath());
 
-				is = connection.getInputStream();
+				InputStream is = body.byteStream();
 
 				int size = (int) Utils.KB * 8;
 				byte[] buf = new byte[size];
@@ -481,12 +489,9 @@ class ImageCacher extends AsyncTask<Void, Integer, Void> {
 			error = true;
 			byteWritten = -file.length();
 		} finally {
-			if (is != null) {
-				try {
-					is.close();
-				} catch (IOException ignored) {
-				}
-			}
+			// Closes the body and hands the connection back to the pool
+			if (response != null)
+				response.close();
 		}
 
 		if (error)
@@ -53,6 +53,15 @@ class CategoryCursorHelper extends MainCursorHelper {
 
 	}
 
+	/**
+	 * Every unread article is counted in the category of its feed, so the counters of the categories tell if there are
+	 * unread articles at all.
+	 */
+	@Override
+	boolean hasUnread(SQLiteDatabase db) {
+		return exists(db, "SELECT 1 FROM " + DBHelper.TABLE_CATEGORIES + " WHERE unread>0", null);
+	}
+
 	@Override
 	Cursor createDummyCursor() {
 		MatrixCursor cursor = new MatrixCursor(DBHelper.CATEGORIES_COLUMNS, 0);
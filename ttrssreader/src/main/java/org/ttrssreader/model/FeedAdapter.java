@@ -96,9 +96,6 @@ public class FeedAdapter extends MainAdapter {
 		ret.id = cur.getInt(0);
 		ret.title = cur.getString(1);
 		ret.unread = cur.getInt(2);
-		if (!cur.isNull(3)) {
-			ret.icon = cur.getBlob(3);
-		}
 		return ret;
 	}
 
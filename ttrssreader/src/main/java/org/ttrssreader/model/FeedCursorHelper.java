@@ -28,7 +28,7 @@ import org.ttrssreader.utils.Utils;
 class FeedCursorHelper extends MainCursorHelper {
 
 	//	private static final String TAG = FeedCursorHelper.class.getSimpleName();
-	public static final String[] FEED_COLUMNS = new String[]{"_id", "title", "unread", "icon"};
+	public static final String[] FEED_COLUMNS = new String[]{"_id", "title", "unread"};
 
 	FeedCursorHelper(int categoryId) {
 		super();
@@ -49,17 +49,17 @@ class FeedCursorHelper extends MainCursorHelper {
 			displayUnread = false;
 
 		if (lastOpenedFeedsList.length() > 0 && !buildSafeQuery) {
-			query.append("SELECT _id,title,unread,icon FROM (");
+			query.append("SELECT _id,title,unread FROM (");
 		}
 
-		query.append(" SELECT _id,title,unread,icon FROM ");
+		query.append(" SELECT _id,title,unread FROM ");
 		query.append(DBHelper.TABLE_FEEDS);
 		query.append(" WHERE categoryId=");
 		query.append(categoryId);
 		query.append(displayUnread ? " AND unread>0" : "");
 
 		if (lastOpenedFeedsList.length() > 0 && !buildSafeQuery) {
-			query.append(" UNION SELECT _id,title,unread,icon FROM ");
+			query.append(" UNION SELECT _id,title,unread FROM ");
 			query.append(DBHelper.TABLE_FEEDS);
 			query.append(" WHERE _id IN (");
 			query.append(lastOpenedFeedsList);
@@ -73,10 +73,15 @@ class FeedCursorHelper extends MainCursorHelper {
 		return db.rawQuery(query.toString(), null);
 	}
 
+	@Override
+	boolean hasUnread(SQLiteDatabase db) {
+		return exists(db, "SELECT 1 FROM " + DBHelper.TABLE_FEEDS + " WHERE categoryId=" + categoryId + " AND unread>0", null);
+	}
+
 	@Override
 	Cursor createDummyCursor() {
 		MatrixCursor cursor = new MatrixCursor(FEED_COLUMNS, 0);
-		cursor.addRow(new Object[]{-1, "error! check logcat.", 0, new byte[]{}});
+		cursor.addRow(new Object[]{-1, "error! check logcat.", 0});
 		return cursor;
 	}
 
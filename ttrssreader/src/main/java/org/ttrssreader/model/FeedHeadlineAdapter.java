@@ -19,7 +19,7 @@ package org.ttrssreader.model;
 
 import android.content.Context;
 import android.database.Cursor;
-import android.graphics.BitmapFactory;
+import android.graphics.Bitmap;
 import android.graphics.Typeface;
 import android.view.View;
 import android.view.ViewGroup;
@@ -27,9 +27,8 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import org.ttrssreader.R;
-import org.ttrssreader.controllers.DBHelper;
+import org.ttrssreader.imageCache.FeedIconCache;
 import org.ttrssreader.model.pojos.Article;
-import org.ttrssreader.model.pojos.Feed;
 import org.ttrssreader.utils.DateUtils;
 
 import java.util.Date;
@@ -40,11 +39,13 @@ public class FeedHeadlineAdapter extends MainAdapter {
 
 	private final int feedId;
 	private final boolean selectArticlesForCategory;
+	private final int feedIconSize;
 
 	public FeedHeadlineAdapter(Context context, int feedId, boolean selectArticlesForCategory) {
 		super(context);
 		this.feedId = feedId;
 		this.selectArticlesForCategory = selectArticlesForCategory;
+		this.feedIconSize = context.getResources().getDimensionPixelSize(R.dimen.feed_icon_dimens);
 	}
 
 	@Override
@@ -85,10 +86,11 @@ public class FeedHeadlineAdapter extends MainAdapter {
 		}
 	}
 
-	private static void setFeedImage(ImageView icon, Feed f) {
-		if (f.icon != null) {
+	private void setFeedImage(ImageView icon, int feedId) {
+		Bitmap bitmap = FeedIconCache.getInstance().get(feedId, feedIconSize);
+		if (bitmap != null) {
 			icon.setVisibility(View.VISIBLE);
-			icon.setImageBitmap(BitmapFactory.decodeByteArray(f.icon, 0, f.icon.length));
+			icon.setImageBitmap(bitmap);
 		} else {
 			icon.setVisibility(View.GONE);
 		}
@@ -115,10 +117,9 @@ public class FeedHeadlineAdapter extends MainAdapter {
 		}
 
 		final Article a = getArticle(cursor);
-		final Feed f = DBHelper.getInstance().getFeed(a.feedId);
 
 		setImage(holder.icon, a);
-		setFeedImage(holder.feedicon, f);
+		setFeedImage(holder.feedicon, a.feedId);
 
 		holder.title.setText(a.title);
 		float opacity = a.isUnread ? 1 : 0.7f;
@@ -21,6 +21,8 @@ import android.database.Cursor;
 import android.database.MatrixCursor;
 import android.database.sqlite.SQLiteDatabase;
 
+import androidx.annotation.VisibleForTesting;
+
 import org.ttrssreader.controllers.Controller;
 import org.ttrssreader.controllers.DBHelper;
 import org.ttrssreader.controllers.Data;
@@ -39,6 +41,9 @@ class FeedHeadlineCursorHelper extends MainCursorHelper {
 		this.selectArticlesForCategory = selectArticlesForCategory;
 	}
 
+	/**
+	 * The headlines are read page by page while the list is scrolled, see {@link KeysetCursor}.
+	 */
 	@Override
 	public Cursor createCursor(SQLiteDatabase db, boolean overrideDisplayUnread, boolean buildSafeQuery) {
 
@@ -48,15 +53,40 @@ class FeedHeadlineCursorHelper extends MainCursorHelper {
 		else
 			query = buildLabelQuery(overrideDisplayUnread, buildSafeQuery);
 
-		return db.rawQuery(query, null);
+		boolean invertSortArticles = Controller.getInstance().invertSortArticlelist();
+		return new KeysetCursor(db, query, "a.updateDate", "a._id", invertSortArticles);
+	}
+
+	/**
+	 * The fail-safe variant of the query doesn't contain the articles opened from the list, so it only returns unread
+	 * articles and can be answered from the partial index on unread articles.
+	 */
+	@Override
+	boolean hasUnread(SQLiteDatabase db) {
+		String query;
+		if (feedId > -10)
+			query = buildFeedQuery(false, true);
+		else
+			query = buildLabelQuery(false, true);
+
+		return exists(db, query, null);
 	}
 
-	private String buildFeedQuery(boolean overrideDisplayUnread, boolean buildSafeQuery) {
+	/**
+	 * Articles which have been opened from the list stay in it even if only unread articles are displayed. They are
+	 * part of the WHERE clause instead of a UNION so the query can be read page by page.
+	 */
+	private static String buildUnreadSelection(boolean buildSafeQuery) {
 		String lastOpenedArticlesList = Utils.separateItems(Controller.getInstance().lastOpenedArticles, ",");
+		if (lastOpenedArticlesList.length() > 0 && !buildSafeQuery)
+			return " AND (a.isUnread>0 OR a._id IN (" + lastOpenedArticlesList + ")) ";
+		return " AND a.isUnread>0 ";
+	}
 
+	@VisibleForTesting
+	String buildFeedQuery(boolean overrideDisplayUnread, boolean buildSafeQuery) {
 		boolean displayUnread = Controller.getInstance().onlyUnread();
 		boolean displayCachedImages = Controller.getInstance().onlyDisplayCachedImages();
-		boolean invertSortArticles = Controller.getInstance().invertSortArticlelist();
 
 		if (overrideDisplayUnread)
 			displayUnread = false;
@@ -82,17 +112,17 @@ class FeedHeadlineCursorHelper extends MainCursorHelper {
 			case Data.VCAT_FRESH:
 				long max = System.currentTimeMillis() - Controller.getInstance().getFreshArticleMaxAge();
 				query.append(" AND a.updateDate>").append(max);
-				query.append(" AND a.isUnread>0");
+				query.append(buildUnreadSelection(buildSafeQuery));
 				query.append(" AND (a.score is null or a.score>=0)");
 				break;
 
 			case Data.VCAT_ALL:
-				query.append(displayUnread ? " AND a.isUnread>0 " : "");
+				query.append(displayUnread ? buildUnreadSelection(buildSafeQuery) : "");
 				break;
 
 			default:
 				// User selected to display all articles of a category directly
-				query.append(displayUnread ? " AND a.isUnread>0 " : " ");
+				query.append(displayUnread ? buildUnreadSelection(buildSafeQuery) : " ");
 				if (selectArticlesForCategory) {
 					query.append(" AND f.categoryId=").append(categoryId);
 				} else {
@@ -106,27 +136,12 @@ class FeedHeadlineCursorHelper extends MainCursorHelper {
 				}
 		}
 
-		if (lastOpenedArticlesList.length() > 0 && !buildSafeQuery) {
-			query.append(" UNION SELECT ");
-			query.append(" c._id AS _id, c.feedId, c.title, c.isUnread AS unread, c.updateDate, ");
-			query.append(" c.isStarred, c.isPublished, c.note, d.title AS feedTitle ");
-			query.append(" FROM ");
-			query.append(DBHelper.TABLE_ARTICLES).append(" c, ");
-			query.append(DBHelper.TABLE_FEEDS).append(" d ");
-			query.append("WHERE c.feedId=d._id AND c._id IN (").append(lastOpenedArticlesList).append(" ) ");
-		}
-
-		query.append(" ORDER BY a.updateDate ");
-		query.append(invertSortArticles ? "ASC" : "DESC");
-		query.append(" LIMIT 1000 ");
 		return query.toString();
 	}
 
-	private String buildLabelQuery(boolean overrideDisplayUnread, boolean buildSafeQuery) {
-		String lastOpenedArticlesList = Utils.separateItems(Controller.getInstance().lastOpenedArticles, ",");
-
+	@VisibleForTesting
+	String buildLabelQuery(boolean overrideDisplayUnread, boolean buildSafeQuery) {
 		boolean displayUnread = Controller.getInstance().onlyUnread();
-		boolean invertSortArticles = Controller.getInstance().invertSortArticlelist();
 
 		if (overrideDisplayUnread)
 			displayUnread = false;
@@ -142,24 +157,8 @@ class FeedHeadlineCursorHelper extends MainCursorHelper {
 		query.append(DBHelper.TABLE_FEEDS).append(" l ");
 		query.append("WHERE f._id=a.feedId AND a._id=a2l.articleId AND a2l.labelId=l._id");
 		query.append(" AND a2l.labelId=").append(feedId);
-		query.append(displayUnread ? " AND isUnread>0" : "");
-
-		if (lastOpenedArticlesList.length() > 0 && !buildSafeQuery) {
-			query.append(" UNION SELECT ");
-			query.append(" b._id AS _id, b.feedId, b.title, b.isUnread AS unread, b.updateDate, ");
-			query.append(" b.isStarred, b.isPublished, b.note, f.title AS feedTitle ");
-			query.append(" FROM ");
-			query.append(DBHelper.TABLE_FEEDS).append(" f, ");
-			query.append(DBHelper.TABLE_ARTICLES).append(" b, ");
-			query.append(DBHelper.TABLE_ARTICLES2LABELS).append(" b2m, ");
-			query.append(DBHelper.TABLE_FEEDS).append(" m ");
-			query.append("WHERE f._id=a.feedId AND b2m.labelId=m._id AND b2m.articleId=b._id");
-			query.append(" AND b._id IN (").append(lastOpenedArticlesList).append(" )");
-		}
+		query.append(displayUnread ? buildUnreadSelection(buildSafeQuery) : "");
 
-		query.append(" ORDER BY updateDate ");
-		query.append(invertSortArticles ? "ASC" : "DESC");
-		query.append(" LIMIT 1000 ");
 		return query.toString();
 	}
 
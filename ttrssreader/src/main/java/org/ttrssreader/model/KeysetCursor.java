@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+package org.ttrssreader.model;
+
+import android.database.AbstractCursor;
+import android.database.Cursor;
+import android.database.DataSetObservable;
+import android.database.DataSetObserver;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.VisibleForTesting;
+
+import org.ttrssreader.controllers.DBHelper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cursor which reads the rows of a query in pages of {@link #PAGE_SIZE} rows when they are accessed. The rows are
+ * ordered by (updateDate, _id) and every page starts after the last row of the previous page (keyset pagination),
+ * so a page is read from the index no matter how far the list has been scrolled. Only the number of rows is counted
+ * up front and only if the first page is full.
+ * <p>
+ * The start key of every page is kept, but only the last {@link #MAX_PAGES} pages which have been accessed stay open.
+ * Pages which have been closed are read again from their start key. If rows have been deleted in the meantime a page
+ * can return less rows than counted, the count is reduced then and the observers are notified.
+ */
+class KeysetCursor extends AbstractCursor {
+
+	//	private static final String TAG = KeysetCursor.class.getSimpleName();
+
+	@VisibleForTesting
+	static final int PAGE_SIZE = 100;
+	@VisibleForTesting
+	static final int MAX_PAGES = 5;
+
+	private final SQLiteDatabase db;
+	private final String query;
+	private final String dateColumn;
+	private final String idColumn;
+	private final boolean ascending;
+
+	// updateDate and _id of the row before each page, null for the first page
+	private final List<long[]> startKeys = new ArrayList<>();
+	private final Map<Integer, Cursor> pages = new LinkedHashMap<Integer, Cursor>(MAX_PAGES + 1, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, Cursor> eldest) {
+			if (size() <= MAX_PAGES)
+				return false;
+			DBHelper.close(eldest.getValue());
+			return true;
+		}
+	};
+	private final DataSetObservable dataSetObservable = new DataSetObservable();
+	private final String[] columnNames;
+	private int count;
+	private Cursor page;
+
+	/**
+	 * @param db         the database
+	 * @param query      the query without ORDER BY and LIMIT, it has to end with the WHERE clause and has to return the
+	 *                   columns "_id" and "updateDate"
+	 * @param dateColumn name of the column updateDate in the WHERE clause, e.g. "a.updateDate"
+	 * @param idColumn   name of the column _id in the WHERE clause, e.g. "a._id"
+	 * @param ascending  if set to {@code true} the oldest rows are returned first
+	 */
+	KeysetCursor(SQLiteDatabase db, String query, String dateColumn, String idColumn, boolean ascending) {
+		this.db = db;
+		this.query = query;
+		this.dateColumn = dateColumn;
+		this.idColumn = idColumn;
+		this.ascending = ascending;
+
+		startKeys.add(null);
+		Cursor first = readPage(0);
+		columnNames = first.getColumnNames();
+		count = first.getCount() < PAGE_SIZE ? first.getCount() : countRows();
+	}
+
+	private String getOrderBy() {
+		String order = ascending ? " ASC" : " DESC";
+		return " ORDER BY " + dateColumn + order + ", " + idColumn + order + " LIMIT " + PAGE_SIZE;
+	}
+
+	private int countRows() {
+		Cursor c = null;
+		try {
+			c = db.rawQuery("SELECT count(*) FROM (" + query + ")", null);
+			return c.moveToFirst() ? c.getInt(0) : 0;
+		} finally {
+			DBHelper.close(c);
+		}
+	}
+
+	/**
+	 * The condition on updateDate alone limits the range read from the index, the second one skips the rows with the
+	 * same updateDate which belong to the previous page.
+	 *
+	 * @param afterStartKey {@code false} for the first page, otherwise the query takes updateDate and _id of the start
+	 *                      key as arguments
+	 * @return the query of a page
+	 */
+	@VisibleForTesting
+	String buildPageQuery(boolean afterStartKey) {
+		if (!afterStartKey)
+			return query + getOrderBy();
+
+		String op = ascending ? ">" : "<";
+		// @formatter:off
+		return query
+				+ " AND " + dateColumn + op + "=?1"
+				+ " AND (" + dateColumn + op + "?1 OR " + idColumn + op + "?2)"
+				+ getOrderBy();
+		// @formatter:on
+	}
+
+	/**
+	 * Read a page whose start key is known. The start key of the next page is stored if the page is full.
+	 *
+	 * @param index number of the page
+	 * @return the page, it is closed when it is dropped from {@link #pages}
+	 */
+	private Cursor readPage(int index) {
+		long[] key = startKeys.get(index);
+		Cursor c;
+		if (key == null)
+			c = db.rawQuery(buildPageQuery(false), null);
+		else
+			c = db.rawQuery(buildPageQuery(true), new String[]{String.valueOf(key[0]), String.valueOf(key[1])});
+		pages.put(index, c);
+
+		int rows = c.getCount();
+		if (rows == PAGE_SIZE && startKeys.size() == index + 1 && c.moveToLast())
+			startKeys.add(new long[]{c.getLong(c.getColumnIndexOrThrow("updateDate")), c.getLong(c.getColumnIndexOrThrow("_id"))});
+
+		if (rows < PAGE_SIZE && index * PAGE_SIZE + rows < count) {
+			// Rows have been deleted since they were counted, the list ends here now
+			count = index * PAGE_SIZE + rows;
+			dataSetObservable.notifyChanged();
+		}
+		return c;
+	}
+
+	/**
+	 * @return the page or {@code null} if the rows end before it, pages in between are read to get its start key
+	 */
+	private Cursor getPage(int index) {
+		Cursor c = pages.get(index);
+		if (c != null)
+			return c;
+
+		while (startKeys.size() <= index) {
+			int last = startKeys.size() - 1;
+			if (!pages.containsKey(last))
+				readPage(last);
+			// The last page with a known start key is not full, so there are no more pages
+			if (startKeys.size() == last + 1)
+				return null;
+		}
+		return readPage(index);
+	}
+
+	@Override
+	public boolean onMove(int oldPosition, int newPosition) {
+		Cursor c = getPage(newPosition / PAGE_SIZE);
+		if (newPosition >= count) {
+			// The count has been reduced by a short page, the last row is returned until the list has been updated
+			if (count == 0)
+				return false;
+			newPosition = count - 1;
+			c = getPage(newPosition / PAGE_SIZE);
+		}
+		if (c == null)
+			return false;
+
+		page = c;
+		return page.moveToPosition(newPosition % PAGE_SIZE);
+	}
+
+	@Override
+	public int getCount() {
+		return count;
+	}
+
+	@Override
+	public String[] getColumnNames() {
+		return columnNames;
+	}
+	@Override
+	public int getType(int column) {
+		return page.getType(column);
+	}
+
+	@Override
+	public String getString(int column) {
+		return page.getString(column);
+	}
+
+	@Override
+	public short getShort(int column) {
+		return page.getShort(column);
+	}
+
+	@Override
+	public int getInt(int column) {
+		return page.getInt(column);
+	}
+
+	@Override
+	public long getLong(int column) {
+		return page.getLong(column);
+	}
+
+	@Override
+	public float getFloat(int column) {
+		return page.getFloat(column);
+	}
+
+	@Override
+	public double getDouble(int column) {
+		return page.getDouble(column);
+	}
+
+	@Override
+	public byte[] getBlob(int column) {
+		return page.getBlob(column);
+	}
+
+	@Override
+	public boolean isNull(int column) {
+		return page.isNull(column);
+	}
+
+	@Override
+	public void registerDataSetObserver(DataSetObserver observer) {
+		super.registerDataSetObserver(observer);
+		dataSetObservable.registerObserver(observer);
+	}
+
+	@Override
+	public void unregisterDataSetObserver(DataSetObserver observer) {
+		super.unregisterDataSetObserver(observer);
+		dataSetObservable.unregisterObserver(observer);
+	}
+
+	@Override
+	public void close() {
+		super.close();
+		for (Cursor c : pages.values()) {
+			DBHelper.close(c);
+		}
+		pages.clear();
+		page = null;
+	}
+
+}
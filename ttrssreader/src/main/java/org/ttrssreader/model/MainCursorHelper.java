@@ -19,12 +19,28 @@ package org.ttrssreader.model;
 
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
 
 import org.ttrssreader.controllers.Controller;
 
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
 abstract class MainCursorHelper {
 
-	//	private static final String TAG = MainCursorHelper.class.getSimpleName();
+	private static final String TAG = MainCursorHelper.class.getSimpleName();
+
+	/**
+	 * The ways makeQuery() can build the list: only unread items as configured, all items because there is nothing
+	 * unread or because starred/published articles are displayed, or the fail-safe-query after an error.
+	 */
+	private enum QueryPath {
+		UNREAD, ALL, SAFE
+	}
+
+	// How often each path has been taken and how long it took in total, logged with every query
+	private static final AtomicIntegerArray pathCount = new AtomicIntegerArray(QueryPath.values().length);
+	private static final AtomicLongArray pathTime = new AtomicLongArray(QueryPath.values().length);
 
 	protected int categoryId = Integer.MIN_VALUE;
 	protected int feedId = Integer.MIN_VALUE;
@@ -32,70 +48,81 @@ abstract class MainCursorHelper {
 	protected boolean selectArticlesForCategory;
 
 	/**
-	 * Creates a new query
+	 * Creates a new query. If only unread items are to be displayed but there are none, all items are displayed
+	 * instead. This is decided by {@link #hasUnread(SQLiteDatabase)} before the query is run, so the list is only
+	 * queried once.
 	 */
 	Cursor makeQuery(SQLiteDatabase db) {
+		long time = System.currentTimeMillis();
+		long probeTime = 0;
+		QueryPath path = QueryPath.UNREAD;
+
 		Cursor cursor = null;
 		try {
+			boolean overrideDisplayUnread = false;
 			if (categoryId == 0 && (feedId == -1 || feedId == -2)) {
 
 				// Starred/Published
-				cursor = createCursor(db, true, false);
-
-			} else {
+				overrideDisplayUnread = true;
 
-				// normal query
-				cursor = createCursor(db, false, false);
+			} else if (Controller.getInstance().onlyUnread()) {
 
 				// (categoryId == -2 || feedId >= 0): Normal feeds
 				// (categoryId == 0 || feedId == Integer.MIN_VALUE): Uncategorized Feeds
 				if ((categoryId == -2 || feedId >= 0) || (categoryId == 0 || feedId == Integer.MIN_VALUE)) {
-					if (Controller.getInstance().onlyUnread() && !checkUnread(cursor)) {
-
-						// Close old cursor safely
-						if (cursor != null && !cursor.isClosed())
-							cursor.close();
-
-						// Override unread if query was empty
-						cursor = createCursor(db, true, false);
-
-					}
+					// Override unread if query would be empty
+					overrideDisplayUnread = !hasUnread(db);
+					probeTime = System.currentTimeMillis() - time;
 				}
 			}
 
+			if (overrideDisplayUnread)
+				path = QueryPath.ALL;
+
+			cursor = createCursor(db, overrideDisplayUnread, false);
+			// Executes the query, errors are caught here and not when the list is displayed
+			cursor.getCount();
+
 		} catch (Exception e) {
+			Log.w(TAG, "Query failed, using fail-safe-query instead", e);
 			// Close old cursor safely
 			if (cursor != null && !cursor.isClosed())
 				cursor.close();
 			// Fail-safe-query
+			path = QueryPath.SAFE;
 			cursor = createCursor(db, false, true);
 		}
+
+		time = System.currentTimeMillis() - time;
+		int count = pathCount.incrementAndGet(path.ordinal());
+		long total = pathTime.addAndGet(path.ordinal(), time);
+		Log.d(TAG, String.format("%s: %s query took %sms (probe %sms), path taken %s times, %sms on average",
+				getClass().getSimpleName(), path, time, probeTime, count, total / count));
+
 		return cursor;
 	}
 
 	/**
-	 * Tries to find out if the given cursor points to a dataset with unread articles in it, returns true if it does.
+	 * Checks if the list contains unread items. This has to be cheap, e.g. an EXISTS query which stops at the first
+	 * unread item found in an index or a lookup of the unread counters.
 	 *
-	 * @param cursor the cursor.
-	 * @return true if there are unread articles in the dataset, else false.
+	 * @param db the database
+	 * @return true if there are unread items
 	 */
-	private static boolean checkUnread(Cursor cursor) {
-		if (cursor == null || cursor.isClosed())
-			return false; // Check null or closed
+	abstract boolean hasUnread(SQLiteDatabase db);
 
-		if (!cursor.moveToFirst())
-			return false; // Check empty
-
-		int index = cursor.getColumnIndex("unread");
-		if (index >= 0) {
-			do {
-				if (cursor.getInt(index) > 0)
-					return cursor.moveToFirst(); // One unread article found, move to first entry
-			} while (cursor.moveToNext());
-
-			cursor.moveToFirst();
+	/**
+	 * @return true if the query returns at least one row
+	 */
+	static boolean exists(SQLiteDatabase db, String query, String[] selectionArgs) {
+		Cursor c = null;
+		try {
+			c = db.rawQuery("SELECT EXISTS (" + query + ")", selectionArgs);
+			return c.moveToFirst() && c.getInt(0) != 0;
+		} finally {
+			if (c != null && !c.isClosed())
+				c.close();
 		}
-		return false;
 	}
 
 	abstract Cursor createCursor(SQLiteDatabase db, boolean overrideDisplayUnread, boolean buildSafeQuery);
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+package org.ttrssreader.model;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.ttrssreader.controllers.Controller;
+import org.ttrssreader.controllers.DBHelper;
+
+/**
+ * Full-text search over the cached articles, the rows have the same columns as the headline list. Results are ranked
+ * by the number of matching terms in title, author, note and content, newer articles first on equal rank.
+ */
+class SearchCursorHelper extends MainCursorHelper {
+
+	//	private static final String TAG = SearchCursorHelper.class.getSimpleName();
+
+	private final String search;
+
+	SearchCursorHelper(String search) {
+		this.search = search;
+	}
+
+	@Override
+	public Cursor createCursor(SQLiteDatabase db, boolean overrideDisplayUnread, boolean buildSafeQuery) {
+		String match = buildMatchExpression(search, buildSafeQuery);
+		if (match == null)
+			return new MatrixCursor(FeedHeadlineCursorHelper.FEEDHEADLINE_COLUMNS, 0);
+
+		boolean displayUnread = Controller.getInstance().onlyUnread();
+		if (overrideDisplayUnread)
+			displayUnread = false;
+
+		// offsets() returns four numbers per matching term, so the number of spaces grows with the number of hits
+		StringBuilder query = new StringBuilder();
+		query.append("SELECT ");
+		query.append(" a._id AS _id, a.feedId, a.title, a.isUnread AS unread, a.updateDate, ");
+		query.append(" a.isStarred, a.isPublished, a.note, f.title AS feedTitle ");
+		query.append(" FROM ");
+		query.append("(SELECT docid, offsets(").append(DBHelper.TABLE_ARTICLES_FTS).append(") AS hits FROM ");
+		query.append(DBHelper.TABLE_ARTICLES_FTS).append(" WHERE ");
+		query.append(DBHelper.TABLE_ARTICLES_FTS).append(" MATCH ?) s, ");
+		query.append(DBHelper.TABLE_ARTICLES).append(" a, ");
+		query.append(DBHelper.TABLE_FEEDS).append(" f ");
+		query.append("WHERE a._id=s.docid AND a.feedId=f._id");
+		query.append(displayUnread ? " AND a.isUnread>0" : "");
+		query.append(" ORDER BY length(s.hits)-length(replace(s.hits, ' ', '')) DESC, a.updateDate DESC");
+		query.append(" LIMIT 1000 ");
+
+		return db.rawQuery(query.toString(), new String[]{match});
+	}
+
+	/**
+	 * Only looks for one unread article which matches the search, without computing the rank of all results.
+	 */
+	@Override
+	boolean hasUnread(SQLiteDatabase db) {
+		String match = buildMatchExpression(search, false);
+		if (match == null)
+			return true;
+
+		StringBuilder query = new StringBuilder();
+		query.append("SELECT 1 FROM ");
+		query.append(DBHelper.TABLE_ARTICLES_FTS).append(", ");
+		query.append(DBHelper.TABLE_ARTICLES).append(" a ");
+		query.append("WHERE ").append(DBHelper.TABLE_ARTICLES_FTS).append(" MATCH ?");
+		query.append(" AND a._id=").append(DBHelper.TABLE_ARTICLES_FTS).append(".docid");
+		query.append(" AND a.isUnread>0");
+
+		return exists(db, query.toString(), new String[]{match});
+	}
+
+	/**
+	 * Turn the text entered by the user into a MATCH expression. Every word is quoted so characters like "-" or ":"
+	 * are not interpreted as query syntax, all words have to be found.
+	 *
+	 * @param search         the text entered by the user
+	 * @param buildSafeQuery only keep letters and digits and search for whole words
+	 * @return the expression or null if there is nothing to search for
+	 */
+	private static String buildMatchExpression(String search, boolean buildSafeQuery) {
+		if (search == null)
+			return null;
+
+		String text = buildSafeQuery ? search.replaceAll("[^\\p{L}\\p{N}]", " ") : search.replace('"', ' ');
+		StringBuilder match = new StringBuilder();
+		for (String word : text.trim().split("\\s+")) {
+			if (word.isEmpty())
+				continue;
+			if (match.length() > 0)
+				match.append(" ");
+			match.append('"').append(word).append(buildSafeQuery ? "" : "*").append('"');
+		}
+		return match.length() > 0 ? match.toString() : null;
+	}
+
+	@Override
+	Cursor createDummyCursor() {
+		return new FeedHeadlineCursorHelper(-1, -1, false).createDummyCursor();
+	}
+
+}
@@ -18,7 +18,11 @@
 package org.ttrssreader.model.pojos;
 
 
+import org.ttrssreader.controllers.DBHelper;
+
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 public class Article implements Comparable<Article> {
@@ -41,6 +45,27 @@ public class Article implements Comparable<Article> {
 	public String note;
 	public int score;
 
+	// Articles read from the database don't contain content and attachments, they are loaded on first access
+	public volatile boolean contentLoaded = true;
+
+	/**
+	 * @return the content of the article, loads it from the database if necessary
+	 */
+	public String getContent() {
+		if (!contentLoaded)
+			DBHelper.getInstance().loadArticleContent(this);
+		return content;
+	}
+
+	/**
+	 * @return the attachments of the article, loads them from the database if necessary
+	 */
+	public Set<String> getAttachments() {
+		if (!contentLoaded)
+			DBHelper.getInstance().loadArticleContent(this);
+		return attachments;
+	}
+
 	@Override
 	public int compareTo(Article ai) {
 		return ai.updated.compareTo(this.updated);
@@ -63,7 +88,25 @@ public class Article implements Comparable<Article> {
 	}
 
 	public enum ArticleField {
-		id, guid, title, unread, updated, feed_id, content, link, comments, attachments, marked, published, labels, is_updated, tags, feed_title, comments_count, comments_link, always_display_attachments, author, lang, note, score
+		id, guid, title, unread, updated, feed_id, content, link, comments, attachments, marked, published, labels, is_updated, tags, feed_title, comments_count, comments_link, always_display_attachments, author, lang, note, score;
+
+		private static final Map<String, ArticleField> fields = new HashMap<>();
+
+		static {
+			for (ArticleField field : values()) {
+				fields.put(field.name(), field);
+			}
+		}
+
+		/**
+		 * Unlike {@link #valueOf(String)} this doesn't throw for names that are not known, the server sends some fields
+		 * that are not used here.
+		 *
+		 * @return the field with the given name or {@code null} if there is none
+		 */
+		public static ArticleField fromName(String name) {
+			return fields.get(name);
+		}
 	}
 
 }
@@ -25,7 +25,6 @@ public class Feed implements Comparable<Feed> {
 	public String title;
 	public String url;
 	public int unread;
-	public byte[] icon;
 
 	@Override
 	public int compareTo(Feed fi) {
@@ -18,10 +18,9 @@
 package org.ttrssreader.net;
 
 import org.ttrssreader.model.pojos.Article;
+import org.ttrssreader.utils.IntSet;
 
 import java.util.Date;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * the instance of this class will be used for filtering out already cached articles, which was not updated while
@@ -39,7 +38,7 @@ public class IdUnreadArticleOmitter implements IArticleOmitter {
 	/**
 	 * articles, that were skipped
 	 */
-	private final Set<Integer> omittedArticles = new HashSet<>();
+	private final IntSet omittedArticles = new IntSet();
 
 	/**
 	 * construct the object according to selection parameters
@@ -77,7 +76,7 @@ public class IdUnreadArticleOmitter implements IArticleOmitter {
 	}
 
 	@Override
-	public Set<Integer> getOmittedArticles() {
+	public IntSet getOmittedArticles() {
 		return omittedArticles;
 	}
 
@@ -21,10 +21,8 @@ import android.util.Log;
 
 import org.ttrssreader.controllers.DBHelper;
 import org.ttrssreader.model.pojos.Article;
-
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import org.ttrssreader.utils.IntLongMap;
+import org.ttrssreader.utils.IntSet;
 
 /**
  * the instance of this class will be used for filtering out already cached articles, which was not updated while
@@ -39,11 +37,11 @@ public class IdUpdatedArticleOmitter implements IArticleOmitter {
 	/**
 	 * map of article IDs to it's updated date
 	 */
-	public Map<Integer, Long> idUpdatedMap;
+	public IntLongMap idUpdatedMap;
 	/**
 	 * articles, that were skipped
 	 */
-	private final Set<Integer> omittedArticles = new HashSet<>();
+	private final IntSet omittedArticles = new IntSet();
 
 	public IdUpdatedArticleOmitter(final long sinceId) {
 		String selectSince = "_id >= " + sinceId;
@@ -64,7 +62,7 @@ public class IdUpdatedArticleOmitter implements IArticleOmitter {
 	private void init(String selectSince) {
 		idUpdatedMap = DBHelper.getInstance().getArticleIdUpdatedMap(selectSince);
 		if (idUpdatedMap != null) {
-			Log.d(TAG, "Filter-Size: " + idUpdatedMap.size() + " Selection: " + selectSince);
+			Log.d(TAG, String.format("Filter-Size: %s (%s KB) Selection: %s", idUpdatedMap.size(), idUpdatedMap.byteSize() / 1024, selectSince));
 		} else {
 			Log.w(TAG, "Filter is empty, Selection: " + selectSince);
 		}
@@ -84,8 +82,9 @@ public class IdUpdatedArticleOmitter implements IArticleOmitter {
 			case id:
 			case updated:
 				if (a.id > 0 && a.updated != null) {
-					Long updated = idUpdatedMap.get(a.id);
-					if (updated != null && a.updated.getTime() <= updated) {
+					// Unknown articles get Long.MIN_VALUE which is before every update time
+					long updated = idUpdatedMap.get(a.id, Long.MIN_VALUE);
+					if (a.updated.getTime() <= updated) {
 						omittedArticles.add(a.id);
 						ret = true;
 					}
@@ -97,7 +96,7 @@ public class IdUpdatedArticleOmitter implements IArticleOmitter {
 	}
 
 	@Override
-	public Set<Integer> getOmittedArticles() {
+	public IntSet getOmittedArticles() {
 		return omittedArticles;
 	}
 }
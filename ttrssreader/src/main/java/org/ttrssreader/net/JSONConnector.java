@@ -36,26 +36,29 @@ import org.ttrssreader.model.pojos.Article;
 import org.ttrssreader.model.pojos.Category;
 import org.ttrssreader.model.pojos.Feed;
 import org.ttrssreader.model.pojos.Label;
-import org.ttrssreader.preferences.Constants;
-import org.ttrssreader.utils.SSLUtils;
 import org.ttrssreader.utils.StringSupport;
 import org.ttrssreader.utils.Utils;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.net.InetSocketAddress;
-import java.net.Proxy;
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLPeerUnverifiedException;
 
-import okhttp3.Credentials;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -67,9 +70,6 @@ public class JSONConnector {
 
 	private static final String TAG = JSONConnector.class.getSimpleName();
 
-	private static String lastError = "";
-	private static boolean hasLastError = false;
-
 	private static final String PARAM_OP = "op";
 	private static final String PARAM_USER = "user";
 	private static final String PARAM_PW = "password";
@@ -146,114 +146,121 @@ public class JSONConnector {
 	// session id as an IN parameter
 	private static final String SID = "sid";
 
-	private String sessionId = null;
+	// The session is shared by all calls, it is only replaced by login() which is done by one thread at a time
+	private volatile String sessionId = null;
+	private volatile int apiLevel = -1;
 
 	private final Object loginLock = new Object();
-	private int apiLevel = -1;
-	private String currentSettings = "";
+	// Incremented by every login attempt, threads waiting for the lock use the result of the attempt they waited for
+	private volatile int loginAttempt = 0;
+	private volatile String loginError = null;
 
 	public static final int PARAM_LIMIT_MAX_VALUE = 200;
 
-	private OkHttpClient client;
+	// getHeadlines() requests the following pages while parsing the current one, at most this many at once
+	private static final int MAX_HEADLINE_PAGES_IN_FLIGHT = 4;
+	// Average time in ms to receive and to parse one page of getHeadlines(), used to decide how many pages to request
+	private volatile long headlinePageFetchTime = -1;
+	private volatile long headlinePageParseTime = -1;
+
+	// Client with longer timeouts for lazy loading servers, derived from the shared client of the Controller
+	private OkHttpClient lazyClient;
+	private OkHttpClient lazyClientBase;
+
+	// Only set by tests, the requests go to a mock server then instead of the configured one
+	private final OkHttpClient fixedClient;
+	private final String fixedUrl;
 
 	public JSONConnector() {
-		initHttpClient();
+		this(null, null);
 	}
 
 	/**
-	 * TODO: Probably it would be better to listen for change events on preferences directly but this was the quick and easy way.
-	 * <p>
-	 * The following preferences are checked for changes:
-	 * - useProxy
-	 * - proxyHost
-	 * - proxyPort
-	 * - lazyServer
-	 * <p>
-	 * If any of these change we need to re-initialize the OkHttpClient, otherwise we can re-use the existing instance, shaving off some ms on every API request.
+	 * @param client client for all requests instead of the shared one of the Controller
+	 * @param url    URL of the API instead of the configured one
 	 */
-	private void initHttpClient() {
-		// Just build a string out of all settings involved here, then check against the old string to see if anything changed in between:
-		String newSettings = Controller.getInstance().useProxy() + Controller.getInstance().proxyHost() + Controller.getInstance().proxyPort() + Controller.getInstance().lazyServer();
-
-		if (!currentSettings.equals(newSettings)) {
-			// Set longer timeouts for lazy loading servers
-			TimeUnit timeoutUnit = Controller.getInstance().lazyServer() ? TimeUnit.MINUTES : TimeUnit.SECONDS;
-
-			// Build Client-Object:
-			OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder();
-			if (SSLUtils.factory != null) {
-				clientBuilder.sslSocketFactory(SSLUtils.factory);
-			}
-			clientBuilder.proxy(getProxy());
-			clientBuilder.readTimeout(10, timeoutUnit);
-			this.client = clientBuilder.build();
+	@VisibleForTesting
+	JSONConnector(OkHttpClient client, String url) {
+		fixedClient = client;
+		fixedUrl = url;
+	}
+
+	/**
+	 * Returns the shared client of {@link Controller#getHttpClient()} so API calls reuse the connections of image and
+	 * icon downloads. For lazy servers a client with longer read timeout is derived from it, it is rebuilt whenever
+	 * the shared client changes.
+	 */
+	private synchronized OkHttpClient getClient() {
+		if (fixedClient != null)
+			return fixedClient;
+
+		OkHttpClient client = Controller.getInstance().getHttpClient();
+		if (!Controller.getInstance().lazyServer())
+			return client;
 
-			// Store new settings
-			this.currentSettings = newSettings;
+		if (lazyClientBase != client) {
+			lazyClient = client.newBuilder().readTimeout(10, TimeUnit.MINUTES).build();
+			lazyClientBase = client;
 		}
+		return lazyClient;
 	}
 
-	private Reader doRequest(Map<String, String> params) {
-		try {
-			if (sessionId != null)
-				params.put(SID, sessionId);
-
-			JSONObject json = new JSONObject(params);
-			logRequest(json);
-
-			// Build Request-Object:
-			Request.Builder reqBuilder = new Request.Builder();
-			reqBuilder.url(Controller.getInstance().hostname());
-			reqBuilder.post(RequestBody.create(MEDIATYPE_JSON, json.toString()));
-
-			// HTTP-Basic Authentication
-			if (Controller.getInstance().useHttpAuth()) {
-				String user = Controller.getInstance().httpUsername();
-				String pw = Controller.getInstance().httpPassword();
-				reqBuilder.addHeader("Authorization", Credentials.basic(user, pw));
-			}
+	private Request buildRequest(Map<String, String> params) throws JSONException {
+		String sid = sessionId;
+		if (sid != null)
+			params.put(SID, sid);
+
+		JSONObject json = new JSONObject(params);
+		logRequest(json);
 
-			Request request = reqBuilder.build();
+		// Build Request-Object:
+		Request.Builder reqBuilder = new Request.Builder();
+		reqBuilder.url(fixedUrl != null ? fixedUrl : Controller.getInstance().hostname());
+		reqBuilder.post(RequestBody.create(MEDIATYPE_JSON, json.toString()));
+
+		// HTTP-Basic Authentication is added by the shared client
+		return reqBuilder.build();
+	}
+
+	/**
+	 * @return the response as stream or {@code null} if the request failed. The response is only released to the
+	 * connection pool when the returned reader is closed.
+	 */
+	private Reader doRequest(Map<String, String> params, ApiResult result) {
+		try {
+			Request request = buildRequest(params);
 
 			// Call Server:
-			Response response = this.client.newCall(request).execute();
+			Response response = getClient().newCall(request).execute();
+			ResponseBody body = response.body();
+			if (body == null) {
+				response.close();
+				return null;
+			}
+
+			// Read Response as stream, the reader closes the response:
+			ResponseReader reader = new ResponseReader(response, body);
 
 			// Check for HTTP Status codes:
 			int code = response.code();
 			if (!response.isSuccessful() || code >= 400 && code < 600) {
-				hasLastError = true;
-				lastError = "Server returned status: " + code + " (Message: " + response.message() + ")";
+				result.fail("Server returned status: " + code + " (Message: " + response.message() + ")");
+				reader.close();
 				return null;
 			}
 
-			// Read Response as stream:
-			ResponseBody body = response.body();
-			return body != null ? body.charStream() : null;
+			return reader;
 
 		} catch (JsonSyntaxException e) {
-			hasLastError = true;
-			lastError = "JsonSyntaxException (Invalid JSON Data) in doRequest(): " + formatException(e);
+			result.fail("JsonSyntaxException (Invalid JSON Data) in doRequest(): " + formatException(e));
 		} catch (SSLPeerUnverifiedException e) {
-			hasLastError = true;
-			lastError = "SSLPeerUnverifiedException in doRequest(): " + formatException(e);
+			result.fail("SSLPeerUnverifiedException in doRequest(): " + formatException(e));
 		} catch (Exception e) {
-			hasLastError = true;
-			lastError = "Exception in doRequest(): " + formatException(e);
+			result.fail("Exception in doRequest(): " + formatException(e));
 		}
 		return null;
 	}
 
-	private Proxy getProxy() {
-		if (Controller.getInstance().useProxy()) {
-			String host = Controller.getInstance().proxyHost();
-			if (!Constants.EMPTY.equals(host)) {
-				int port = Controller.getInstance().proxyPort();
-				return new Proxy(Proxy.Type.SOCKS, new InetSocketAddress(host, port));
-			}
-		}
-		return Proxy.NO_PROXY;
-	}
-
 	public void init() {
 		// Empty
 	}
@@ -267,11 +274,21 @@ public class JSONConnector {
 		json.put(SID, paramSID);
 	}
 
-	private String readResult(Map<String, String> params) throws IOException {
-		return readResult(params, false, true);
+	/**
+	 * Logs the state of the connection pool and the number of responses that have not been closed yet. Without other
+	 * API calls running at the same time the latter should be zero, otherwise a response has been leaked and its
+	 * connection can't be reused.
+	 */
+	private void logConnections() {
+		ConnectionPool pool = getClient().connectionPool();
+		Log.d(TAG, String.format("Connections: %s (%s idle), open responses: %s", pool.connectionCount(), pool.idleConnectionCount(), ResponseReader.getOpenReaders()));
+	}
+
+	private String readResult(Map<String, String> params, ApiResult result) throws IOException {
+		return readResult(params, false, true, result);
 	}
 
-	private String readResult(Map<String, String> params, boolean login, boolean retry) throws IOException {
+	private String readResult(Map<String, String> params, boolean login, boolean retry, ApiResult result) throws IOException {
 
 		/*
 		Response response = doRequest(params);
@@ -295,7 +312,7 @@ public class JSONConnector {
 		*/
 
 		String ret = "";
-		Reader reader = doRequest(params);
+		Reader reader = doRequest(params, result);
 		if (reader == null)
 			return null;
 
@@ -341,30 +358,29 @@ public class JSONConnector {
 					String message = object.get(ERROR).getAsString();
 					Context ctx = MyApplication.context();
 
+					Log.e(TAG, message);
 					switch (message) {
 						case API_DISABLED:
-							lastError = ctx.getString(R.string.Error_ApiDisabled, Controller.getInstance().username());
+							result.fail(ctx.getString(R.string.Error_ApiDisabled, Controller.getInstance().username()));
 							break;
 						case NOT_LOGGED_IN:
 						case LOGIN_ERROR:
-							if (!login && retry && internalLogin())
-								return readResult(params, false, false); // Just do the same request again
+							json.close(); // Release the connection before logging in again
+							if (!login && retry && login(params.get(SID), result))
+								return readResult(params, false, false, result); // Just do the same request again
 							else
-								lastError = ctx.getString(R.string.Error_LoginFailed);
+								result.fail(ctx.getString(R.string.Error_LoginFailed));
 							break;
 						case INCORRECT_USAGE:
-							lastError = ctx.getString(R.string.Error_ApiIncorrectUsage);
+							result.fail(ctx.getString(R.string.Error_ApiIncorrectUsage));
 							break;
 						case UNKNOWN_METHOD:
-							lastError = ctx.getString(R.string.Error_ApiUnknownMethod);
+							result.fail(ctx.getString(R.string.Error_ApiUnknownMethod));
 							break;
 						default:
-							lastError = ctx.getString(R.string.Error_ApiUnknownError);
+							result.fail(ctx.getString(R.string.Error_ApiUnknownError));
 							break;
 					}
-
-					hasLastError = true;
-					Log.e(TAG, message);
 					return null;
 				}
 
@@ -413,83 +429,99 @@ public class JSONConnector {
 		}
 	}
 
-	private JsonReader prepareReader(Map<String, String> params) throws IOException {
-		return prepareReader(params, true);
+	private JsonReader prepareReader(Map<String, String> params, ApiResult result) throws IOException {
+		return prepareReader(params, true, result);
 	}
 
-	private JsonReader prepareReader(Map<String, String> params, boolean firstCall) throws IOException {
-		Reader in = doRequest(params);
+	private JsonReader prepareReader(Map<String, String> params, boolean firstCall, ApiResult result) throws IOException {
+		return prepareReader(doRequest(params, result), params, firstCall, result);
+	}
+
+	/**
+	 * @param in        the response to the request, may be {@code null} if the request failed
+	 * @param params    the parameters of the request, it is sent again after a new login
+	 * @param firstCall if set to {@code false} the request is not sent again
+	 * @param result    status of the API call
+	 */
+	private JsonReader prepareReader(Reader in, Map<String, String> params, boolean firstCall, ApiResult result) throws IOException {
 		if (in == null)
 			return null;
 
 		// Check if content contains array or object, array indicates login-response or error, object is content
 		JsonReader reader = new JsonReader(in);
-		reader.beginObject();
+		// The reader is closed here unless it is handed to the caller, also when parsing fails
+		boolean handedOut = false;
+		try {
+			reader.beginObject();
 
-		while (reader.hasNext()) {
-			String name = reader.nextName();
-			if (name.equals("content")) {
-				JsonToken t = reader.peek();
+			while (reader.hasNext()) {
+				String name = reader.nextName();
+				if (name.equals("content")) {
+					JsonToken t = reader.peek();
 
-				if (t.equals(JsonToken.BEGIN_ARRAY)) {
-					return reader;
-				} else if (t.equals(JsonToken.BEGIN_OBJECT)) {
+					if (t.equals(JsonToken.BEGIN_ARRAY)) {
+						handedOut = true;
+						return reader;
+					} else if (t.equals(JsonToken.BEGIN_OBJECT)) {
 
-					JsonObject object = new JsonObject();
-					reader.beginObject();
+						JsonObject object = new JsonObject();
+						reader.beginObject();
 
-					String nextName = reader.nextName();
-					// We have a BEGIN_OBJECT here but its just the response to call "subscribeToFeed" or "isLoggedIn"
-					if ("status".equals(nextName))
-						return reader;
+						String nextName = reader.nextName();
+						// We have a BEGIN_OBJECT here but its just the response to call "subscribeToFeed" or "isLoggedIn"
+						if ("status".equals(nextName)) {
+							handedOut = true;
+							return reader;
+						}
 
-					// Handle error
-					while (reader.hasNext()) {
-						if (nextName != null) {
-							object.addProperty(nextName, reader.nextString());
-							nextName = null;
-						} else {
-							object.addProperty(reader.nextName(), reader.nextString());
+						// Handle error
+						while (reader.hasNext()) {
+							if (nextName != null) {
+								object.addProperty(nextName, reader.nextString());
+								nextName = null;
+							} else {
+								object.addProperty(reader.nextName(), reader.nextString());
+							}
 						}
-					}
-					reader.endObject();
+						reader.endObject();
 
-					if (object.get(ERROR) != null) {
-						String message = object.get(ERROR).toString();
+						if (object.get(ERROR) != null) {
+							String message = object.get(ERROR).toString();
 
-						if (message.contains(NOT_LOGGED_IN)) {
-							lastError = NOT_LOGGED_IN;
-							if (firstCall && internalLogin() && !hasLastError)
-								return prepareReader(params, false); // Just do the same request again
-							else
+							if (message.contains(NOT_LOGGED_IN)) {
+								reader.close(); // Release the connection before logging in again
+								if (firstCall && login(params.get(SID), result))
+									return prepareReader(params, false, result); // Just do the same request again
+								else
+									return null;
+							}
+
+							if (message.contains(API_DISABLED)) {
+								result.fail(MyApplication.context().getString(R.string.Error_ApiDisabled, Controller.getInstance().username()));
 								return null;
-						}
+							}
 
-						if (message.contains(API_DISABLED)) {
-							hasLastError = true;
-							lastError = MyApplication.context().getString(R.string.Error_ApiDisabled, Controller.getInstance().username());
-							return null;
+							// Any other error
+							result.fail(message);
 						}
-
-						// Any other error
-						hasLastError = true;
-						lastError = message;
 					}
-				}
 
-			} else {
-				reader.skipValue();
+				} else {
+					reader.skipValue();
+				}
 			}
+			return null;
+		} finally {
+			if (!handedOut)
+				reader.close();
 		}
-		return null;
 	}
 
-	private boolean sessionNotAlive() {
+	private boolean sessionNotAlive(ApiResult result) {
 		// Make sure we are logged in
-		if (sessionId == null || lastError.equals(NOT_LOGGED_IN))
-			if (!internalLogin())
-				return true;
-		return hasLastError;
+		if (sessionId == null && !login(null, result))
+			return true;
+		return result.failed();
 	}
 
 	/**
@@ -497,27 +529,17 @@ public class JSONConnector {
 	 *
 	 * @return true if the call was successful.
 	 */
-	private boolean doRequestNoAnswer(Map<String, String> params) {
-		if (sessionNotAlive())
+	private boolean doRequestNoAnswer(Map<String, String> params, ApiResult result) {
+		if (sessionNotAlive(result))
 			return false;
 
 		try {
-			String result = readResult(params);
-
-			// Reset error, this is only for an api-bug which returns an empty result for updateFeed
-			if (result == null)
-				pullLastError();
-
-			return "OK".equals(result);
+			return "OK".equals(readResult(params, result));
 		} catch (MalformedJsonException mje) {
-			// Reset error, this is only for an api-bug which returns an empty result for updateFeed
-			pullLastError();
+			// Ignore, this is only for an api-bug which returns an empty result for updateFeed
 		} catch (IOException e) {
 			e.printStackTrace();
-			if (!hasLastError) {
-				hasLastError = true;
-				lastError = formatException(e);
-			}
+			result.fail(formatException(e));
 		}
 
 		return false;
@@ -538,20 +560,34 @@ public class JSONConnector {
 	}
 
 	/**
-	 * Tries to login to the ttrss-server with the password.
+	 * Tries to login to the ttrss-server with the password. Only one thread logs in at a time, threads which have been
+	 * waiting for a login to finish use its result instead of logging in again.
 	 *
+	 * @param staleSessionId the session which the server didn't accept anymore or {@code null} if there was none
+	 * @param result         status of the API call, the error of a failed login is stored there
 	 * @return true on success, false otherwise
 	 */
-	private boolean internalLogin() {
+	private boolean login(String staleSessionId, ApiResult result) {
 		long time = System.currentTimeMillis();
 
-		// Just login once, check if already logged in after acquiring the lock on mSessionId
-		if (sessionId != null && !lastError.equals(NOT_LOGGED_IN))
+		// Just login once, check if the session has already been replaced before acquiring the lock
+		String current = sessionId;
+		if (current != null && !current.equals(staleSessionId))
 			return true;
 
+		int attempt = loginAttempt;
 		synchronized (loginLock) {
-			if (sessionId != null && !lastError.equals(NOT_LOGGED_IN))
+			current = sessionId;
+			if (current != null && !current.equals(staleSessionId))
 				return true; // Login done while we were waiting for the lock
+			if (attempt != loginAttempt && loginError != null) {
+				result.fail(loginError); // Login failed while we were waiting for the lock
+				return false;
+			}
+
+			loginAttempt++;
+			loginError = null;
+			sessionId = null;
 
 			Map<String, String> params = new HashMap<>();
 			params.put(PARAM_OP, VALUE_LOGIN);
@@ -561,24 +597,22 @@ public class JSONConnector {
 				params.put(PARAM_PW, Controller.getInstance().password());
 			}
 
+			ApiResult loginResult = new ApiResult();
 			try {
-				sessionId = readResult(params, true, false);
-				if (sessionId != null) {
-					Log.d(TAG, "internalLogin: " + (System.currentTimeMillis() - time) + "ms");
+				String newSessionId = readResult(params, true, false, loginResult);
+				if (newSessionId != null && !loginResult.failed()) {
+					sessionId = newSessionId;
+					Log.d(TAG, "login: " + (System.currentTimeMillis() - time) + "ms");
 					return true;
 				}
 			} catch (IOException e) {
-				if (!hasLastError) {
-					hasLastError = true;
-					lastError = formatException(e);
-				}
+				loginResult.fail(formatException(e));
 			}
 
-			if (!hasLastError) {
-				// Login didnt succeed, write message
-				hasLastError = true;
-				lastError = MyApplication.context().getString(R.string.Error_NotLoggedIn);
-			}
+			// Login didnt succeed, write message
+			loginResult.fail(MyApplication.context().getString(R.string.Error_NotLoggedIn));
+			loginError = loginResult.getError();
+			result.fail(loginError);
 			return false;
 		}
 	}
@@ -635,7 +669,8 @@ public class JSONConnector {
 	 *                 null})
 	 * @return amount of processed articles
 	 */
-	private int parseArticleArray(final Set<Article> articles, JsonReader reader, IArticleOmitter filter) {
+	@VisibleForTesting
+	int parseArticleArray(final Set<Article> articles, JsonReader reader, IArticleOmitter filter) {
 		int count = 0;
 
 		try {
@@ -675,10 +710,14 @@ public class JSONConnector {
 			}
 
 			String name = reader.nextName();
+			Article.ArticleField field = Article.ArticleField.fromName(name);
+			if (field == null) {
+				// Field is not used here
+				reader.skipValue();
+				continue;
+			}
 
 			try {
-				Article.ArticleField field = Article.ArticleField.valueOf(name);
-
 				switch (field) {
 					case id:
 						a.id = reader.nextInt();
@@ -702,7 +741,7 @@ public class JSONConnector {
 							a.feedId = reader.nextInt();
 						break;
 					case content:
-						a.content = reader.nextString().replaceAll("(<(?:img|video)[^>]+?src=[\"'])//([^\"']*)", "$1https://$2");
+						a.content = StringSupport.fixProtocolRelativeUrls(reader.nextString());
 						break;
 					case link:
 						a.url = reader.nextString();
@@ -805,18 +844,19 @@ public class JSONConnector {
 	/**
 	 * Retrieves all categories.
 	 *
+	 * @param result status of the API call, gets the error if it failed
 	 * @return a list of categories.
 	 */
-	public Set<Category> getCategories() {
+	public Set<Category> getCategories(ApiResult result) {
 		long time = System.currentTimeMillis();
 		Set<Category> ret = new LinkedHashSet<>();
-		if (sessionNotAlive())
+		if (sessionNotAlive(result))
 			return ret;
 
 		Map<String, String> params = new HashMap<>();
 		params.put(PARAM_OP, VALUE_GET_CATEGORIES);
 
-		try (JsonReader reader = prepareReader(params)) {
+		try (JsonReader reader = prepareReader(params, result)) {
 			if (reader == null)
 				return ret;
 
@@ -872,12 +912,13 @@ public class JSONConnector {
 	 *
 	 * @param tolerateWrongUnreadInformation if set to {@code false}, then
 	 *                                       lazy server will be updated before
+	 * @param result                         status of the API call, gets the error if it failed
 	 * @return set of actual feeds on server
 	 */
-	private Set<Feed> getFeeds(boolean tolerateWrongUnreadInformation) {
+	private Set<Feed> getFeeds(boolean tolerateWrongUnreadInformation, ApiResult result) {
 		long time = System.currentTimeMillis();
 		Set<Feed> ret = new LinkedHashSet<>();
-		if (sessionNotAlive())
+		if (sessionNotAlive(result))
 			return ret;
 
 		if (!tolerateWrongUnreadInformation) {
@@ -889,7 +930,7 @@ public class JSONConnector {
 		params.put(PARAM_CAT_ID, Data.VCAT_ALL + ""); // Hardcoded -4 fetches all feeds. See
 		// http://tt-rss.org/redmine/wiki/tt-rss/JsonApiReference#getFeeds
 
-		try (JsonReader reader = prepareReader(params)) {
+		try (JsonReader reader = prepareReader(params, result)) {
 			if (reader == null)
 				return ret;
 
@@ -959,10 +1000,11 @@ public class JSONConnector {
 	/**
 	 * Retrieves all feeds from server.
 	 *
+	 * @param result status of the API call, gets the error if it failed
 	 * @return a set of all feeds on server.
 	 */
-	public Set<Feed> getFeeds() {
-		return getFeeds(false);
+	public Set<Feed> getFeeds(ApiResult result) {
+		return getFeeds(false, result);
 	}
 
 	private void makeLazyServerWork(Integer feedId) {
@@ -970,7 +1012,7 @@ public class JSONConnector {
 			Map<String, String> taskParams = new HashMap<>();
 			taskParams.put(PARAM_OP, VALUE_UPDATE_FEED);
 			taskParams.put(PARAM_FEED_ID, String.valueOf(feedId));
-			doRequestNoAnswer(taskParams);
+			doRequestNoAnswer(taskParams, new ApiResult());
 		}
 	}
 
@@ -981,7 +1023,7 @@ public class JSONConnector {
 		final long time = System.currentTimeMillis();
 		if (Controller.getInstance().lazyServer() && (noTaskUntil < time)) {
 			noTaskUntil = time + minTaskIntervall;
-			for (Feed feed : getFeeds(true)) {
+			for (Feed feed : getFeeds(true, new ApiResult())) {
 				makeLazyServerWork(feed.id);
 			}
 		}
@@ -1002,57 +1044,204 @@ public class JSONConnector {
 	 * @param filter     filter for articles, defining which articles should be omitted while parsing (may be
 	 *                   {@code
 	 *                   null})
+	 * @param result     status of the API call, gets the error if it failed
 	 */
-	public void getHeadlines(final Set<Article> articles, Integer id, int limit, String viewMode, boolean isCategory, Integer sinceId, String search, IArticleOmitter filter) {
+	public void getHeadlines(final Set<Article> articles, Integer id, int limit, String viewMode, boolean isCategory, Integer sinceId, String search, IArticleOmitter filter, ApiResult result) {
 		long time = System.currentTimeMillis();
 		int offset = 0;
 		int count;
+		int pageCount = 0;
+		int articleCount = 0;
+		long parseDuration = 0;
 		int maxSize = articles.size() + limit;
 
-		if (sessionNotAlive())
+		if (sessionNotAlive(result))
 			return;
 
 		int limitParam = Math.min((apiLevel < 6) ? PARAM_LIMIT_API_5 : PARAM_LIMIT_MAX_VALUE, limit);
+		int pagesInFlight = getHeadlinePagesInFlight();
 
 		makeLazyServerWork(id);
 
-		while (articles.size() < maxSize) {
+		// Pages are requested in advance with the offset they would have if all previous pages are full, they are
+		// parsed in order and all remaining requests are cancelled when the end of the data has been reached
+		Deque<HeadlinePage> pages = new ArrayDeque<>();
+		try {
+			while (articles.size() < maxSize) {
+
+				int pagesNeeded = (maxSize - articles.size() + limitParam - 1) / limitParam;
+				while (pages.size() < Math.min(pagesInFlight, pagesNeeded)) {
+					Map<String, String> params = new HashMap<>();
+					params.put(PARAM_OP, VALUE_GET_HEADLINES);
+					params.put(PARAM_FEED_ID, id + "");
+					params.put(PARAM_LIMIT, limitParam + "");
+					params.put(PARAM_SKIP, offset + "");
+					params.put(PARAM_VIEWMODE, viewMode);
+					params.put(PARAM_IS_CAT, (isCategory ? "1" : "0"));
+					params.put(PARAM_SHOW_CONTENT, "1");
+					params.put(PARAM_INC_ATTACHMENTS, "1");
+					if (sinceId > 0)
+						params.put(PARAM_SINCE_ID, sinceId + "");
+					if (search != null)
+						params.put(PARAM_SEARCH, search);
+
+					pages.add(new HeadlinePage(params));
+					offset += limitParam;
+				}
 
-			Map<String, String> params = new HashMap<>();
-			params.put(PARAM_OP, VALUE_GET_HEADLINES);
-			params.put(PARAM_FEED_ID, id + "");
-			params.put(PARAM_LIMIT, limitParam + "");
-			params.put(PARAM_SKIP, offset + "");
-			params.put(PARAM_VIEWMODE, viewMode);
-			params.put(PARAM_IS_CAT, (isCategory ? "1" : "0"));
-			params.put(PARAM_SHOW_CONTENT, "1");
-			params.put(PARAM_INC_ATTACHMENTS, "1");
-			if (sinceId > 0)
-				params.put(PARAM_SINCE_ID, sinceId + "");
-			if (search != null)
-				params.put(PARAM_SEARCH, search);
-
-			try (JsonReader reader = prepareReader(params)) {
-
-				if (hasLastError)
-					return;
-				if (reader == null)
-					continue;
+				HeadlinePage page = pages.poll();
+				if (page == null)
+					break;
+
+				Reader in = page.await(result);
+				long parseTime = System.currentTimeMillis();
+				try (JsonReader reader = prepareReader(in, page.params, true, result)) {
+
+					if (result.failed())
+						return;
+					if (reader == null)
+						break;
 
-				count = parseArticleArray(articles, reader, filter);
+					count = parseArticleArray(articles, reader, filter);
+					pageCount++;
+					articleCount += count;
+
+				} catch (IOException e) {
+					e.printStackTrace();
+					break;
+				}
+
+				parseTime = System.currentTimeMillis() - parseTime;
+				parseDuration += parseTime;
+				headlinePageFetchTime = average(headlinePageFetchTime, page.fetchTime);
+				headlinePageParseTime = average(headlinePageParseTime, parseTime);
 
 				if (count < limitParam)
 					break;
-				else
-					offset += count;
+			}
+		} finally {
+			for (HeadlinePage page : pages) {
+				page.cancel();
+			}
+		}
 
-			} catch (IOException e) {
-				e.printStackTrace();
+		Log.d(TAG, String.format("getHeadlines: %s pages (%s in flight, %s cancelled) in %sms, parsing %s articles took %sms", pageCount, pagesInFlight, pages.size(), (System.currentTimeMillis() - time), articleCount, parseDuration));
+		logConnections();
+	}
+
+	/**
+	 * Number of pages getHeadlines() keeps requested, so the next pages are transferred while the current one is
+	 * parsed. It is chosen so the pages in flight cover the time the server needs for a page. Servers with API level
+	 * below 6 and lazy servers get only one request at a time.
+	 */
+	private int getHeadlinePagesInFlight() {
+		if (apiLevel < 6 || Controller.getInstance().lazyServer())
+			return 1;
+
+		long fetchTime = headlinePageFetchTime;
+		long parseTime = headlinePageParseTime;
+		if (fetchTime < 0 || parseTime < 0)
+			return 2; // Nothing known about the server yet
+
+		int pages = 1 + (int) ((fetchTime + Math.max(parseTime, 1) - 1) / Math.max(parseTime, 1));
+		return Math.min(pages, MAX_HEADLINE_PAGES_IN_FLIGHT);
+	}
+
+	private static long average(long average, long value) {
+		return average < 0 ? value : (3 * average + value) / 4;
+	}
+
+	/**
+	 * One page of getHeadlines() which is requested in the background, so the server prepares it while the previous
+	 * page is parsed. The open response is handed to the parsing thread as {@link ResponseReader} and streamed from
+	 * there. A page which is cancelled closes its response, no matter if it arrives before or after the cancel.
+	 */
+	private class HeadlinePage implements Callback {
+		private final Map<String, String> params;
+		private final long start = System.currentTimeMillis();
+		private final CountDownLatch done = new CountDownLatch(1);
+		private Call call;
+		private ResponseReader reader; // guarded by this
+		private boolean cancelled; // guarded by this
+		private String error;
+		private long fetchTime;
+
+		private HeadlinePage(Map<String, String> params) {
+			this.params = params;
+			try {
+				call = getClient().newCall(buildRequest(params));
+				call.enqueue(this);
+			} catch (Exception e) {
+				error = "Exception in getHeadlines(): " + formatException(e);
+				done.countDown();
+			}
+		}
+
+		@Override
+		public void onFailure(@NonNull Call call, @NonNull IOException e) {
+			if (!call.isCanceled())
+				error = "Exception in getHeadlines(): " + formatException(e);
+			done.countDown();
+		}
+
+		@Override
+		public void onResponse(@NonNull Call call, @NonNull Response response) {
+			try {
+				ResponseBody responseBody = response.body();
+				int code = response.code();
+				if (!response.isSuccessful() || code >= 400 && code < 600) {
+					error = "Server returned status: " + code + " (Message: " + response.message() + ")";
+					response.close();
+				} else if (responseBody == null) {
+					response.close();
+				} else {
+					ResponseReader responseReader = new ResponseReader(response, responseBody);
+					synchronized (this) {
+						if (cancelled)
+							responseReader.close();
+						else
+							reader = responseReader;
+					}
+				}
+			} finally {
+				fetchTime = System.currentTimeMillis() - start;
+				done.countDown();
 			}
-			// Empty!
 		}
 
-		Log.d(TAG, "getHeadlines: " + (System.currentTimeMillis() - time) + "ms");
+		/**
+		 * @param result status of the API call, gets the error if the request failed
+		 * @return the response or {@code null} if the request failed, the caller has to close it
+		 */
+		private Reader await(ApiResult result) {
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				cancel();
+				Thread.currentThread().interrupt();
+				return null;
+			}
+			if (error != null)
+				result.fail(error);
+
+			synchronized (this) {
+				Reader ret = reader;
+				reader = null;
+				return ret;
+			}
+		}
+
+		private void cancel() {
+			synchronized (this) {
+				cancelled = true;
+				if (reader != null) {
+					reader.close();
+					reader = null;
+				}
+			}
+			if (call != null)
+				call.cancel();
+		}
 	}
 
 	/**
@@ -1062,6 +1251,7 @@ public class JSONConnector {
 	 * @param articleState the new state of the article (0 -> mark as read; 1 -> mark as unread).
 	 */
 	public boolean setArticleRead(Set<Integer> articlesIds, int articleState) {
+		ApiResult result = new ApiResult();
 		boolean ret = true;
 		if (articlesIds.isEmpty())
 			return true;
@@ -1072,7 +1262,7 @@ public class JSONConnector {
 			params.put(PARAM_ARTICLE_IDS, idList);
 			params.put(PARAM_MODE, articleState + "");
 			params.put(PARAM_FIELD, "2");
-			ret = ret && doRequestNoAnswer(params);
+			ret = ret && doRequestNoAnswer(params, result);
 		}
 		return ret;
 	}
@@ -1085,6 +1275,7 @@ public class JSONConnector {
 	 * @return true if the operation succeeded.
 	 */
 	public boolean setArticleStarred(Set<Integer> ids, int articleState) {
+		ApiResult result = new ApiResult();
 		boolean ret = true;
 		if (ids.size() == 0)
 			return true;
@@ -1095,7 +1286,7 @@ public class JSONConnector {
 			params.put(PARAM_ARTICLE_IDS, idList);
 			params.put(PARAM_MODE, articleState + "");
 			params.put(PARAM_FIELD, "0");
-			ret = ret && doRequestNoAnswer(params);
+			ret = ret && doRequestNoAnswer(params, result);
 		}
 		return ret;
 	}
@@ -1108,12 +1299,13 @@ public class JSONConnector {
 	 * @return true if the operation succeeded.
 	 */
 	public boolean setRead(int id, boolean isCategory) {
+		ApiResult result = new ApiResult();
 		Map<String, String> params = new HashMap<>();
 		params.put(PARAM_OP, VALUE_CATCHUP);
 		params.put(PARAM_FEED_ID, id + "");
 		params.put(PARAM_IS_CAT, (isCategory ? "1" : "0"));
 		params.put(PARAM_MODE, "all"); // indicates range of articles to mark as read - "all", "1day", "1week", "2week".
-		return doRequestNoAnswer(params);
+		return doRequestNoAnswer(params, result);
 	}
 
 	/**
@@ -1124,6 +1316,7 @@ public class JSONConnector {
 	 * @return true if the operation succeeded.
 	 */
 	public boolean setArticlePublished(Set<Integer> ids, int articleState) {
+		ApiResult result = new ApiResult();
 		if (ids.size() == 0)
 			return true;
 		boolean ret = true;
@@ -1133,7 +1326,7 @@ public class JSONConnector {
 			params.put(PARAM_ARTICLE_IDS, idList);
 			params.put(PARAM_MODE, articleState + "");
 			params.put(PARAM_FIELD, "1");
-			ret = ret && doRequestNoAnswer(params);
+			ret = ret && doRequestNoAnswer(params, result);
 		}
 		return ret;
 	}
@@ -1145,6 +1338,7 @@ public class JSONConnector {
 	 * @return true if the operation succeeded.
 	 */
 	public boolean setArticleNote(Map<Integer, String> ids) {
+		ApiResult result = new ApiResult();
 		if (ids.size() == 0)
 			return true;
 		boolean ret = true;
@@ -1158,16 +1352,17 @@ public class JSONConnector {
 			params.put(PARAM_ARTICLE_IDS, id + "");
 			params.put(PARAM_FIELD, "3"); // Field 3 is the "Add note" field
 			params.put(PARAM_DATA, note);
-			ret = ret && doRequestNoAnswer(params);
+			ret = ret && doRequestNoAnswer(params, result);
 		}
 		return ret;
 	}
 
 	public boolean feedUnsubscribe(int feed_id) {
+		ApiResult result = new ApiResult();
 		Map<String, String> params = new HashMap<>();
 		params.put(PARAM_OP, VALUE_FEED_UNSUBSCRIBE);
 		params.put(PARAM_FEED_ID, feed_id + "");
-		return doRequestNoAnswer(params);
+		return doRequestNoAnswer(params, result);
 	}
 
 	/**
@@ -1177,7 +1372,8 @@ public class JSONConnector {
 	 * @return the value of the preference or null if it ist not set or unknown
 	 */
 	public String getPref(String pref) {
-		if (sessionNotAlive())
+		ApiResult result = new ApiResult();
+		if (sessionNotAlive(result))
 			return null;
 
 		Map<String, String> params = new HashMap<>();
@@ -1185,7 +1381,7 @@ public class JSONConnector {
 		params.put(PARAM_PREF, pref);
 
 		try {
-			return readResult(params);
+			return readResult(params, result);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -1194,6 +1390,7 @@ public class JSONConnector {
 	}
 
 	public boolean setArticleLabel(Set<Integer> articleIds, int labelId, boolean assign) {
+		ApiResult result = new ApiResult();
 		boolean ret = true;
 		if (articleIds.size() == 0)
 			return true;
@@ -1204,19 +1401,23 @@ public class JSONConnector {
 			params.put(PARAM_ARTICLE_IDS, idList);
 			params.put(VALUE_LABEL_ID, labelId + "");
 			params.put(VALUE_ASSIGN, (assign ? "1" : "0"));
-			ret = ret && doRequestNoAnswer(params);
+			ret = ret && doRequestNoAnswer(params, result);
 		}
 
 		return ret;
 	}
 
-	public boolean shareToPublished(String title, String url, String content) {
+	/**
+	 * @param result status of the API call, gets the error if it failed
+	 * @return true if the operation succeeded.
+	 */
+	public boolean shareToPublished(String title, String url, String content, ApiResult result) {
 		Map<String, String> params = new HashMap<>();
 		params.put(PARAM_OP, VALUE_SHARE_TO_PUBLISHED);
 		params.put(TITLE, title);
 		params.put(URL_SHARE, url);
 		params.put(CONTENT, content);
-		return doRequestNoAnswer(params);
+		return doRequestNoAnswer(params, result);
 	}
 
 	public static class SubscriptionResponse {
@@ -1224,9 +1425,13 @@ public class JSONConnector {
 		public String message = null;
 	}
 
-	public SubscriptionResponse feedSubscribe(String feed_url, int category_id) {
+	/**
+	 * @param result status of the API call, gets the error if it failed
+	 * @return the code and message of the server, the code is {@code -1} if the call failed
+	 */
+	public SubscriptionResponse feedSubscribe(String feed_url, int category_id, ApiResult result) {
 		SubscriptionResponse ret = new SubscriptionResponse();
-		if (sessionNotAlive())
+		if (sessionNotAlive(result))
 			return ret;
 
 		Map<String, String> params = new HashMap<>();
@@ -1237,7 +1442,7 @@ public class JSONConnector {
 		String code = "";
 		String message = null;
 
-		try (JsonReader reader = prepareReader(params)) {
+		try (JsonReader reader = prepareReader(params, result)) {
 			if (reader == null)
 				return ret;
 
@@ -1269,24 +1474,31 @@ public class JSONConnector {
 	}
 
 	/**
-	 * Returns true if there was an error.
-	 *
-	 * @return true if there was an error.
+	 * Status of an API call. Callers which need to know why a call failed pass their own instance, the other public
+	 * methods create one per call. It is passed to all requests of the call, so calls running in parallel don't see
+	 * each others errors. An instance may be used for several calls in a row, then the first error is kept.
 	 */
-	public boolean hasLastError() {
-		return hasLastError;
-	}
+	public static final class ApiResult {
+		private String error;
 
-	/**
-	 * Returns the last error-message and resets the error-state of the connector.
-	 *
-	 * @return a string with the last error-message.
-	 */
-	public String pullLastError() {
-		String ret = lastError;
-		lastError = "";
-		hasLastError = false;
-		return ret;
+		void fail(String message) {
+			if (error == null)
+				error = message;
+		}
+
+		/**
+		 * @return true if one of the requests failed
+		 */
+		public boolean failed() {
+			return error != null;
+		}
+
+		/**
+		 * @return the message of the first error or {@code null} if nothing failed
+		 */
+		public String getError() {
+			return error;
+		}
 	}
 
 	/**
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+package org.ttrssreader.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Reads the body of a response to an API request. The body is decoded into buffers that are taken from a small pool
+ * and handed back when the reader is closed, so JsonReader is fed without allocating new buffers for every request.
+ * <p>
+ * The reader owns the response and closes it when it is closed, even if the caller stopped parsing early because of an
+ * error. OkHttp discards what is left of the body then, so the connection goes back to the pool of the HTTP client
+ * if the rest arrives quickly and is dropped otherwise.
+ */
+final class ResponseReader extends Reader {
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+	private static final int POOL_SIZE = 8;
+	private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+	private static final Queue<Buffers> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+	// Readers that have not been closed yet, a growing number indicates a leak
+	private static final AtomicInteger openReaders = new AtomicInteger();
+
+	private final Response response;
+	private final InputStream in;
+	private final CharsetDecoder decoder;
+	private Buffers buffers;
+
+	private boolean endOfInput = false;
+	private boolean flushed = false;
+	private boolean started = false;
+
+	ResponseReader(Response response, ResponseBody body) {
+		this.response = response;
+		this.in = body.byteStream();
+		this.buffers = obtainBuffers();
+
+		MediaType type = body.contentType();
+		Charset charset = type != null ? type.charset() : null;
+		if (charset == null || StandardCharsets.UTF_8.equals(charset)) {
+			this.decoder = buffers.decoder;
+		} else {
+			this.decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+
+		openReaders.incrementAndGet();
+	}
+
+	/**
+	 * @return the number of readers that have been created but not closed yet
+	 */
+	static int getOpenReaders() {
+		return openReaders.get();
+	}
+
+	@Override
+	public int read(@NonNull char[] cbuf, int off, int len) throws IOException {
+		if (buffers == null)
+			throw new IOException("Reader closed");
+		if (len == 0)
+			return 0;
+
+		CharBuffer chars = buffers.chars;
+		if (!chars.hasRemaining() && !fill())
+			return -1;
+
+		int count = Math.min(len, chars.remaining());
+		chars.get(cbuf, off, count);
+		return count;
+	}
+
+	/**
+	 * Decodes the next part of the body into the char buffer.
+	 *
+	 * @return {@code false} if the end of the body has been reached
+	 */
+	private boolean fill() throws IOException {
+		ByteBuffer bytes = buffers.bytes;
+		CharBuffer chars = buffers.chars;
+		chars.clear();
+
+		while (chars.position() == 0 && !flushed) {
+			CoderResult result = decoder.decode(bytes, chars, endOfInput);
+			if (result.isError())
+				result.throwException();
+
+			if (endOfInput) {
+				if (result.isUnderflow()) {
+					decoder.flush(chars);
+					flushed = true;
+				}
+			} else if (result.isUnderflow() && chars.position() == 0) {
+				readBytes();
+			}
+		}
+		chars.flip();
+
+		// Skip the byte order mark some servers put in front of the response
+		if (!started && chars.hasRemaining()) {
+			started = true;
+			if (chars.get(0) == BYTE_ORDER_MARK)
+				chars.position(1);
+		}
+		return chars.hasRemaining();
+	}
+
+	private void readBytes() throws IOException {
+		ByteBuffer bytes = buffers.bytes;
+		bytes.compact();
+		int count = in.read(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+		if (count < 0)
+			endOfInput = true;
+		else
+			bytes.position(bytes.position() + count);
+		bytes.flip();
+	}
+
+	@Override
+	public void close() {
+		if (buffers == null)
+			return;
+
+		try {
+			response.close();
+		} finally {
+			pool.offer(buffers);
+			buffers = null;
+			openReaders.decrementAndGet();
+		}
+	}
+
+	private static Buffers obtainBuffers() {
+		Buffers buffers = pool.poll();
+		if (buffers == null)
+			buffers = new Buffers();
+
+		buffers.bytes.clear();
+		buffers.bytes.flip(); // Empty and ready to be read from
+		buffers.chars.clear();
+		buffers.chars.flip();
+		buffers.decoder.reset();
+		return buffers;
+	}
+
+	private static final class Buffers {
+		private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+		private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+		private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+}
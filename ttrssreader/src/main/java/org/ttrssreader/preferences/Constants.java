@@ -143,6 +143,9 @@ public class Constants {
 	public static final String CACHE_FOLDER_MAX_SIZE = "CacheFolderMaxSizePreference";
 	public static final String CACHE_IMAGE_MAX_SIZE = "CacheImageMaxSizePreference";
 	public static final String CACHE_IMAGE_MIN_SIZE = "CacheImageMinSizePreference";
+	public static final String ARTICLE_LIMIT = "ArticleLimitPreference";
+	public static final String ARTICLE_MAX_AGE = "ArticleMaxAgePreference";
+	public static final String DATABASE_MAX_SIZE = "DatabaseMaxSizePreference";
 	public static final String DELETE_DB_SCHEDULED = "DeleteDBScheduledPreference";
 	public static final String CACHE_IMAGES_ON_STARTUP = "CacheImagesOnStartupPreference";
 	public static final String CACHE_IMAGES_ONLY_WIFI = "CacheImagesOnlyWifiPreference";
@@ -154,6 +157,9 @@ public class Constants {
 	public static final int CACHE_FOLDER_MAX_SIZE_DEFAULT = 80;
 	public static final int CACHE_IMAGE_MAX_SIZE_DEFAULT = 6 * (int) Utils.MB; // 6 MB
 	public static final int CACHE_IMAGE_MIN_SIZE_DEFAULT = 32 * (int) Utils.KB; // 64 KB
+	public static final int ARTICLE_LIMIT_DEFAULT = Utils.ARTICLE_LIMIT;
+	public static final int ARTICLE_MAX_AGE_DEFAULT = 0; // Days, 0 = unlimited
+	public static final int DATABASE_MAX_SIZE_DEFAULT = 0; // MB, 0 = unlimited
 	public static final boolean DELETE_DB_SCHEDULED_DEFAULT = false;
 	public static final boolean CACHE_IMAGES_ON_STARTUP_DEFAULT = false;
 	public static final boolean CACHE_IMAGES_ONLY_WIFI_DEFAULT = false;
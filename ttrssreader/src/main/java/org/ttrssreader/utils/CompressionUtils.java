@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+package org.ttrssreader.utils;
+
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compression of article bodies for the database. The data is zlib-compressed with a preset dictionary made of markup
+ * which shows up in nearly every feed, so even short articles get smaller. The zlib header contains a checksum of the
+ * dictionary, data written with a different dictionary can't be read anymore: the dictionary must never be changed.
+ */
+public class CompressionUtils {
+
+	private static final String TAG = CompressionUtils.class.getSimpleName();
+
+	// @formatter:off
+	// Most frequent strings come last, deflate encodes short distances with fewer bits
+	private static final byte[] DICTIONARY = (
+			"<table><tbody><tr><td></td></tr></tbody></table><iframe width=\"\" height=\"\" frameborder=\"0\" allowfullscreen></iframe>"
+			+ "<video controls src=\"\"></video><audio controls src=\"\"></audio><source type=\"video/mp4\" src=\"\">"
+			+ "<figure class=\"\"><figcaption></figcaption></figure><blockquote><cite></cite></blockquote><pre><code></code></pre>"
+			+ "<h1></h1><h2></h2><h3></h3><h4></h4><ol><li></li></ol><ul><li></li></ul><hr /><sup></sup><small></small>"
+			+ "<span style=\"\"></span><div style=\"\"></div><p style=\"text-align: center;\">&nbsp;&amp;&quot;&lt;&gt;&#8217;&#8220;&#8221;&#8230;"
+			+ " rel=\"noopener noreferrer\" target=\"_blank\" title=\"\" alt=\"\" width=\"\" height=\"\" loading=\"lazy\" decoding=\"async\""
+			+ " srcset=\"\" sizes=\"(max-width: 1024px) 100vw, 1024px\" class=\"wp-image- size-full aligncenter alignnone\""
+			+ "<img src=\"https://\" /><a href=\"https://www.\">Read more</a><span class=\"\"></span><div class=\"\"></div>"
+			+ "<em></em><i></i><b></b><strong></strong><br /><br><p></p>\n<p><a href=\"https://\"></a></p>\n"
+	).getBytes(StandardCharsets.UTF_8);
+	// @formatter:on
+
+	/**
+	 * Compress the given text.
+	 *
+	 * @param text the text, may be {@code null}
+	 * @return the compressed text, an empty text results in an empty array
+	 */
+	public static byte[] compress(String text) {
+		if (text == null || text.isEmpty())
+			return new byte[0];
+
+		byte[] input = text.getBytes(StandardCharsets.UTF_8);
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try {
+			deflater.setDictionary(DICTIONARY);
+			deflater.setInput(input);
+			deflater.finish();
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 64);
+			byte[] buffer = new byte[8192];
+			while (!deflater.finished()) {
+				int count = deflater.deflate(buffer);
+				out.write(buffer, 0, count);
+			}
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Decompress data created by {@link #compress(String)}.
+	 *
+	 * @param data the compressed text, may be {@code null}
+	 * @return the text, an empty string if the data could not be read
+	 */
+	public static String decompress(byte[] data) {
+		if (data == null || data.length == 0)
+			return "";
+
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(data);
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+			byte[] buffer = new byte[8192];
+			while (!inflater.finished()) {
+				int count = inflater.inflate(buffer);
+				if (count == 0) {
+					if (inflater.needsDictionary())
+						inflater.setDictionary(DICTIONARY);
+					else if (inflater.needsInput())
+						break; // Truncated data
+				}
+				out.write(buffer, 0, count);
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		} catch (DataFormatException | IllegalArgumentException e) {
+			Log.w(TAG, "Could not decompress data: " + e.getMessage());
+			return "";
+		} finally {
+			inflater.end();
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+package org.ttrssreader.utils;
+
+/**
+ * Map from int to long which doesn't box keys or values, e.g. for mapping article ids to their update time. Works like
+ * {@link IntSet} with a second array holding the values.
+ */
+public class IntLongMap {
+
+	private int[] keys;
+	private long[] values;
+	private int mask;
+	private int resizeAt;
+	private int size;
+	private boolean hasZero;
+	private long zeroValue;
+
+	public IntLongMap() {
+		this(0);
+	}
+
+	/**
+	 * @param expectedSize number of entries which can be added without growing the map
+	 */
+	public IntLongMap(int expectedSize) {
+		allocate(IntSet.capacityFor(expectedSize));
+	}
+
+	public void put(int key, long value) {
+		if (key == 0) {
+			hasZero = true;
+			zeroValue = value;
+			return;
+		}
+
+		int i = IntSet.hash(key) & mask;
+		while (keys[i] != 0) {
+			if (keys[i] == key) {
+				values[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		if (++size >= resizeAt)
+			rehash(keys.length << 1);
+	}
+
+	/**
+	 * @param key          the key
+	 * @param defaultValue returned if the key is not in the map
+	 * @return the value of the key or defaultValue
+	 */
+	public long get(int key, long defaultValue) {
+		if (key == 0)
+			return hasZero ? zeroValue : defaultValue;
+
+		int i = IntSet.hash(key) & mask;
+		while (keys[i] != 0) {
+			if (keys[i] == key)
+				return values[i];
+			i = (i + 1) & mask;
+		}
+		return defaultValue;
+	}
+
+	public boolean containsKey(int key) {
+		if (key == 0)
+			return hasZero;
+
+		int i = IntSet.hash(key) & mask;
+		while (keys[i] != 0) {
+			if (keys[i] == key)
+				return true;
+			i = (i + 1) & mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return hasZero ? size + 1 : size;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * @return the approximate size of the map in memory
+	 */
+	public long byteSize() {
+		return 12L * keys.length;
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new long[capacity];
+		mask = capacity - 1;
+		resizeAt = capacity / 4 * 3;
+	}
+
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		long[] oldValues = values;
+		allocate(capacity);
+		for (int j = 0; j < oldKeys.length; j++) {
+			int key = oldKeys[j];
+			if (key != 0) {
+				int i = IntSet.hash(key) & mask;
+				while (keys[i] != 0) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = key;
+				values[i] = oldValues[j];
+			}
+		}
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+package org.ttrssreader.utils;
+
+import java.util.Collection;
+
+/**
+ * Set of int values which doesn't box them, meant for the large id sets of the synchronization. The values are kept in
+ * one array with open addressing and linear probing, 0 marks a free slot so the value 0 itself is tracked separately.
+ */
+public class IntSet {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private int[] keys;
+	private int mask;
+	private int resizeAt;
+	private int size;
+	private boolean hasZero;
+
+	public IntSet() {
+		this(0);
+	}
+
+	/**
+	 * @param expectedSize number of values which can be added without growing the set
+	 */
+	public IntSet(int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	public static IntSet of(Collection<Integer> values) {
+		IntSet ret = new IntSet(values == null ? 0 : values.size());
+		if (values != null) {
+			for (Integer value : values) {
+				ret.add(value);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * @return true if the value was not in the set yet
+	 */
+	public boolean add(int key) {
+		if (key == 0) {
+			if (hasZero)
+				return false;
+			hasZero = true;
+			return true;
+		}
+
+		int i = hash(key) & mask;
+		while (keys[i] != 0) {
+			if (keys[i] == key)
+				return false;
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		if (++size >= resizeAt)
+			rehash(keys.length << 1);
+		return true;
+	}
+
+	public void addAll(IntSet other) {
+		if (other.hasZero)
+			hasZero = true;
+		for (int key : other.keys) {
+			if (key != 0)
+				add(key);
+		}
+	}
+
+	public boolean contains(int key) {
+		if (key == 0)
+			return hasZero;
+
+		int i = hash(key) & mask;
+		while (keys[i] != 0) {
+			if (keys[i] == key)
+				return true;
+			i = (i + 1) & mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return hasZero ? size + 1 : size;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * @return the values in no particular order
+	 */
+	public int[] toArray() {
+		int[] ret = new int[size()];
+		int j = 0;
+		if (hasZero)
+			ret[j++] = 0;
+		for (int key : keys) {
+			if (key != 0)
+				ret[j++] = key;
+		}
+		return ret;
+	}
+
+	/**
+	 * @return the approximate size of the set in memory
+	 */
+	public long byteSize() {
+		return 4L * keys.length;
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		mask = capacity - 1;
+		resizeAt = capacity / 4 * 3;
+	}
+
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		allocate(capacity);
+		for (int key : oldKeys) {
+			if (key != 0) {
+				int i = hash(key) & mask;
+				while (keys[i] != 0) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = key;
+			}
+		}
+	}
+
+	/**
+	 * @return the smallest power of two which holds the given number of entries at a load factor of 0.75
+	 */
+	static int capacityFor(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity / 4 * 3 <= expectedSize && capacity < (1 << 30)) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	/**
+	 * Spread the bits of the key, ids are mostly consecutive and would otherwise fill neighbouring slots.
+	 */
+	static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+}
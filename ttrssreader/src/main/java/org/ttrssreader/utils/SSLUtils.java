@@ -31,10 +31,12 @@ import java.security.KeyStore;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
 
+import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
@@ -44,11 +46,21 @@ public class SSLUtils {
 
 	private static final String TAG = SSLUtils.class.getSimpleName();
 	public volatile static SSLSocketFactory factory;
+	public volatile static HostnameVerifier hostnameVerifier;
+
+	// Resumable TLS sessions kept per factory, so reconnects to the server and image hosts can skip the full handshake
+	private static final int SESSION_CACHE_SIZE = 64;
+	private static final int SESSION_TIMEOUT_SECONDS = 12 * 60 * 60;
 
 	public static void initSslSocketFactory(KeyManager[] km, TrustManager[] tm) throws KeyManagementException, NoSuchAlgorithmException {
 
 		SSLContext ctx = SSLContext.getInstance("TLS");
 		ctx.init(km, tm, null);
+		SSLSessionContext sessions = ctx.getClientSessionContext();
+		if (sessions != null) {
+			sessions.setSessionCacheSize(SESSION_CACHE_SIZE);
+			sessions.setSessionTimeout(SESSION_TIMEOUT_SECONDS);
+		}
 		factory = ctx.getSocketFactory();
 	}
 
@@ -112,11 +124,10 @@ public class SSLUtils {
 
 	public static void trustAllHost() {
 		Log.i(TAG, "Enabling SSLUtils to trust all HOSTS.");
+		// This thing is supposed to return true since it specifically ignores all errors!
+		hostnameVerifier = (hostname, session) -> true;
 		try {
-			HttpsURLConnection.setDefaultHostnameVerifier((hostname, session) -> {
-				// This thing is supposed to return true since it specifically ignores all errors!
-				return true;
-			});
+			HttpsURLConnection.setDefaultHostnameVerifier(hostnameVerifier);
 		} catch (Exception e) {
 			// Empty, HostnameVerifier cannot be null.
 		}
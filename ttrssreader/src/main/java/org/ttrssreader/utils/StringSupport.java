@@ -71,4 +71,71 @@ public class StringSupport {
 		return string == null || string.isEmpty();
 	}
 
+	/**
+	 * Prefixes protocol-relative URLs (starting with "//") in the src attribute of img and video tags with "https:",
+	 * only the first such attribute of a tag is changed. Gives the same result as
+	 * {@code html.replaceAll("(<(?:img|video)[^>]+?src=[\"'])//([^\"']*)", "$1https://$2")} in a single pass
+	 * over the string without compiling the pattern for every call.
+	 *
+	 * @param html the html to be fixed, may be {@code null}
+	 * @return the fixed html or the given string itself if there is nothing to fix
+	 */
+	public static String fixProtocolRelativeUrls(String html) {
+		if (html == null)
+			return null;
+
+		StringBuilder sb = null;
+		int copied = 0; // Everything before this index has been appended to sb
+		int length = html.length();
+
+		int start = html.indexOf('<');
+		while (start >= 0) {
+			int nameEnd;
+			if (html.startsWith("img", start + 1))
+				nameEnd = start + 4;
+			else if (html.startsWith("video", start + 1))
+				nameEnd = start + 6;
+			else {
+				start = html.indexOf('<', start + 1);
+				continue;
+			}
+
+			int tagEnd = html.indexOf('>', nameEnd);
+			if (tagEnd < 0)
+				tagEnd = length;
+
+			// At least one character between tag name and attribute, same as in the pattern
+			int slash = -1;
+			int src = html.indexOf("src=", nameEnd + 1);
+			while (src >= 0 && src < tagEnd) {
+				int quote = src + 4;
+				if (quote < length && (html.charAt(quote) == '"' || html.charAt(quote) == '\'') && html.startsWith("//", quote + 1)) {
+					slash = quote + 1;
+					break;
+				}
+				src = html.indexOf("src=", src + 1);
+			}
+
+			if (slash < 0) {
+				start = html.indexOf('<', start + 1);
+				continue;
+			}
+
+			if (sb == null)
+				sb = new StringBuilder(length + 64);
+			sb.append(html, copied, slash).append("https:");
+			copied = slash;
+
+			// Continue after the URL like the pattern does
+			int urlEnd = slash + 2;
+			while (urlEnd < length && html.charAt(urlEnd) != '"' && html.charAt(urlEnd) != '\'')
+				urlEnd++;
+			start = html.indexOf('<', urlEnd);
+		}
+
+		if (sb == null)
+			return html;
+		return sb.append(html, copied, length).toString();
+	}
+
 }
@@ -51,9 +51,6 @@ import org.ttrssreader.preferences.Constants;
 import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.Proxy;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -62,8 +59,6 @@ import java.util.Set;
 import java.util.regex.Pattern;
 
 import androidx.annotation.RequiresApi;
-import okhttp3.Credentials;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
@@ -398,20 +393,21 @@ public class Utils {
 				return null;
 
 			try {
-				URL url = new URL("http://nilsbraden.de/android/tt-rss/minSupportedVersion.txt");
-				HttpURLConnection con = (HttpURLConnection) url.openConnection(Proxy.NO_PROXY);
-				con.connect();
-				int code = con.getResponseCode();
+				Request request = new Request.Builder().url("http://nilsbraden.de/android/tt-rss/minSupportedVersion.txt").build();
+				try (Response response = Controller.getInstance().getHttpClient().newCall(request).execute()) {
+					int code = response.code();
+					ResponseBody body = response.body();
 
-				if (code < 400 || code >= 600) {
+					if ((code < 400 || code >= 600) && body != null) {
 
-					BufferedReader br = new BufferedReader(new InputStreamReader(con.getInputStream()));
-					String content = br.readLine(); // Just read one line!
+						BufferedReader br = new BufferedReader(body.charStream());
+						String content = br.readLine(); // Just read one line!
 
-					// Only ever read the integer if it matches the regex and is not too long
-					if (content.matches("[0-9]*[\\r\\n]*")) {
-						content = content.replaceAll("[^0-9]*", "");
-						Controller.getInstance().setAppLatestVersion(Integer.parseInt(content));
+						// Only ever read the integer if it matches the regex and is not too long
+						if (content.matches("[0-9]*[\\r\\n]*")) {
+							content = content.replaceAll("[^0-9]*", "");
+							Controller.getInstance().setAppLatestVersion(Integer.parseInt(content));
+						}
 					}
 				}
 			} catch (Exception e) {
@@ -544,19 +540,12 @@ public class Utils {
 	public static byte[] download(URL url) {
 		ByteArrayOutputStream output = new ByteArrayOutputStream();
 		try {
-			// Build Request-Object:
+			// Build Request-Object, HTTP-Basic Authentication is added by the shared client:
 			Request.Builder reqBuilder = new Request.Builder();
 			reqBuilder.url(url);
 
-			// HTTP-Basic Authentication
-			if (Controller.getInstance().useHttpAuth()) {
-				String user = Controller.getInstance().httpUsername();
-				String pw = Controller.getInstance().httpPassword();
-				reqBuilder.addHeader("Authorization", Credentials.basic(user, pw));
-			}
-
 			Request request = reqBuilder.build();
-			Response response = new OkHttpClient().newCall(request).execute();
+			Response response = Controller.getInstance().getHttpClient().newCall(request).execute();
 
 			// download the file
 			try (ResponseBody body = response.body()) {
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+
+package org.ttrssreader.net;
+
+import com.google.gson.stream.JsonReader;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.ttrssreader.model.pojos.Article;
+import org.ttrssreader.utils.Allocations;
+import org.ttrssreader.utils.StringSupport;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures time and allocations of parsing full headline pages, the pages are built like the responses of a server
+ * with {@code show_content} and {@code include_attachments} set. The results are printed, only the comparison with the
+ * regular expression that was used before is asserted.
+ */
+public class ArticleParseBenchmark {
+
+	private static final int PAGE_SIZE = JSONConnector.PARAM_LIMIT_MAX_VALUE;
+	private static final int WARMUP_RUNS = 50;
+	private static final int RUNS = 200;
+
+	// The expression that was applied to the content of every article before
+	private static final Pattern OLD_PATTERN = Pattern.compile("(<(?:img|video)[^>]+?src=[\"'])//([^\"']*)");
+
+	// Pages with different shares of protocol-relative images
+	private static final int[] RELATIVE_IMAGES = {0, 4, 1};
+
+	private final JSONConnector connector = new JSONConnector(null, null);
+	private final List<String> pages = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		for (int i = 0; i < RELATIVE_IMAGES.length; i++) {
+			pages.add(buildPage(i * PAGE_SIZE, RELATIVE_IMAGES[i]));
+		}
+	}
+
+	@Test
+	public void parsePages() {
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			parse(pages.get(i % pages.size()));
+		}
+
+		boolean countAllocations = Allocations.supported();
+		long allocated = countAllocations ? Allocations.allocatedBytes() : 0;
+		long time = System.nanoTime();
+		for (int i = 0; i < RUNS; i++) {
+			assertEquals(PAGE_SIZE, parse(pages.get(i % pages.size())));
+		}
+		time = System.nanoTime() - time;
+		allocated = countAllocations ? Allocations.allocatedBytes() - allocated : -1;
+
+		long articles = (long) RUNS * PAGE_SIZE;
+		System.out.println(String.format(Locale.ROOT, "parseArticleArray: %.2fms per page of %s, %.0f articles/s, %s bytes allocated per article",
+				time / 1e6 / RUNS, PAGE_SIZE, articles * 1e9 / time, countAllocations ? allocated / articles : "unknown"));
+	}
+
+	@Test
+	public void fixUrlsAllocatesLessThanPattern() {
+		Assume.assumeTrue(Allocations.supported());
+
+		List<String> contents = new ArrayList<>();
+		for (int i = 0; i < RELATIVE_IMAGES.length; i++) {
+			for (int id = i * PAGE_SIZE + 1; id <= (i + 1) * PAGE_SIZE; id++) {
+				contents.add(content(id, isRelative(id, RELATIVE_IMAGES[i])));
+			}
+		}
+
+		for (String content : contents) {
+			assertEquals(fixWithPattern(content), StringSupport.fixProtocolRelativeUrls(content));
+		}
+
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			fixAll(contents, false);
+			fixAll(contents, true);
+		}
+		long patternBytes = Allocations.allocatedBytes();
+		long patternTime = System.nanoTime();
+		fixAll(contents, true);
+		patternTime = System.nanoTime() - patternTime;
+		patternBytes = Allocations.allocatedBytes() - patternBytes;
+
+		long fixBytes = Allocations.allocatedBytes();
+		long fixTime = System.nanoTime();
+		fixAll(contents, false);
+		fixTime = System.nanoTime() - fixTime;
+		fixBytes = Allocations.allocatedBytes() - fixBytes;
+
+		System.out.println(String.format(Locale.ROOT, "%s contents: pattern %.2fms, %s bytes, fixProtocolRelativeUrls %.2fms, %s bytes",
+				contents.size(), patternTime / 1e6, patternBytes, fixTime / 1e6, fixBytes));
+		assertTrue(fixBytes < patternBytes);
+	}
+
+	private int parse(String page) {
+		Set<Article> articles = new HashSet<>();
+		connector.parseArticleArray(articles, new JsonReader(new StringReader(page)), null);
+		return articles.size();
+	}
+
+	private static String fixWithPattern(String html) {
+		return OLD_PATTERN.matcher(html).replaceAll("$1https://$2");
+	}
+
+	private static int fixAll(List<String> contents, boolean pattern) {
+		int length = 0;
+		for (String content : contents) {
+			length += (pattern ? fixWithPattern(content) : StringSupport.fixProtocolRelativeUrls(content)).length();
+		}
+		return length;
+	}
+
+	/**
+	 * @param relativeImages every article with an id divisible by this links its first image without protocol, none
+	 *                       if 0
+	 */
+	private static boolean isRelative(int id, int relativeImages) {
+		return relativeImages > 0 && id % relativeImages == 0;
+	}
+
+	private static String buildPage(int offset, int relativeImages) {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 1; i <= PAGE_SIZE; i++) {
+			int id = offset + i;
+			if (i > 1)
+				sb.append(',');
+			sb.append("{\"id\":").append(id)
+					.append(",\"guid\":\"SHA1:").append(String.format(Locale.ROOT, "%040x", id * 2654435761L)).append('"')
+					.append(",\"unread\":").append(id % 3 != 0)
+					.append(",\"marked\":").append(id % 17 == 0)
+					.append(",\"published\":false")
+					.append(",\"updated\":").append(1700000000 + id * 60)
+					.append(",\"is_updated\":false")
+					.append(",\"title\":\"Article number ").append(id).append(" with a \\\"quoted\\\" title\"")
+					.append(",\"link\":\"https://news.example.com/").append(id).append("/article.html\"")
+					.append(",\"feed_id\":\"").append(id % 23).append('"')
+					.append(",\"tags\":[\"\"]")
+					.append(",\"attachments\":[");
+			if (id % 5 == 0) {
+				sb.append("{\"id\":").append(id).append(",\"content_url\":\"//cdn.example.com/").append(id)
+						.append(".mp3\",\"content_type\":\"audio/mpeg\",\"title\":\"\",\"duration\":\"\",\"width\":0,\"height\":0,\"post_id\":")
+						.append(id).append('}');
+			}
+			sb.append("],\"excerpt\":\"First words of the article&hellip;\"")
+					.append(",\"content\":\"").append(content(id, isRelative(id, relativeImages)).replace("\"", "\\\"")).append('"')
+					.append(",\"labels\":[");
+			if (id % 7 == 0)
+				sb.append("[-1026,\"Label\",\"#000000\",\"#ffffff\"]");
+			sb.append("],\"feed_title\":\"Feed ").append(id % 23).append('"')
+					.append(",\"comments_count\":").append(id % 4)
+					.append(",\"comments_link\":\"https://news.example.com/").append(id).append("/comments\"")
+					.append(",\"always_display_attachments\":false")
+					.append(",\"author\":\"Author ").append(id % 11).append('"')
+					.append(",\"score\":0,\"note\":null,\"lang\":\"en\"}");
+		}
+		return sb.append(']').toString();
+	}
+
+	private static String content(int id, boolean relative) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("<div class=\"content\"><p><img class=\"lead\" alt=\"Image ").append(id).append("\" src=\"")
+				.append(relative ? "//" : "https://").append("img.example.com/").append(id).append("/lead.jpg\" width=\"640\"></p>");
+		for (int p = 0; p < 6; p++) {
+			sb.append("<p>Paragraph ").append(p).append(" of article ").append(id)
+					.append(" has some text with <a href=\"https://example.com/").append(p).append("\">a link</a>, ")
+					.append("<em>emphasis</em> and enough words to be as long as the paragraphs of a usual news article.</p>");
+		}
+		sb.append("<figure><img src=\"https://img.example.com/").append(id).append("/figure.png\"><figcaption>Caption</figcaption></figure>");
+		return sb.append("</div>").toString();
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+package org.ttrssreader.net;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Every {@link ResponseReader} has to close its response, also if the connection breaks or the parser stops early,
+ * otherwise the connections of the HTTP client are leaked. The server injects these errors.
+ */
+public class ResponseReaderTest {
+
+	private static final String BODY = "{\"seq\":0,\"status\":0,\"content\":[{\"title\":\"\u00e4\u00f6\u00fc \u20ac\"}]}";
+
+	@Rule
+	public final MockWebServer server = new MockWebServer();
+
+	private final OkHttpClient client = new OkHttpClient();
+	private int openReaders;
+
+	@Before
+	public void setUp() {
+		openReaders = ResponseReader.getOpenReaders();
+	}
+
+	@After
+	public void tearDown() {
+		client.connectionPool().evictAll();
+	}
+
+	@Test
+	public void readsBodyAndReusesConnection() throws Exception {
+		server.enqueue(new MockResponse().setBody("\uFEFF" + BODY));
+		server.enqueue(new MockResponse().setBody(BODY));
+
+		try (ResponseReader reader = open()) {
+			assertEquals(BODY, readAll(reader));
+		}
+		try (ResponseReader reader = open()) {
+			assertEquals(BODY, readAll(reader));
+		}
+
+		assertEquals(openReaders, ResponseReader.getOpenReaders());
+		// Both requests were sent over the same connection
+		assertEquals(0, server.takeRequest().getSequenceNumber());
+		assertEquals(1, server.takeRequest().getSequenceNumber());
+	}
+
+	@Test
+	public void closesResponseWhenConnectionBreaks() throws Exception {
+		for (int i = 0; i < 10; i++) {
+			server.enqueue(new MockResponse().setBody(largeBody()).setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY));
+		}
+		server.enqueue(new MockResponse().setBody(BODY));
+
+		for (int i = 0; i < 10; i++) {
+			ResponseReader reader = open();
+			try {
+				readAll(reader);
+				fail("The body has been cut off, reading it has to fail");
+			} catch (IOException e) {
+				// Expected
+			} finally {
+				reader.close();
+			}
+		}
+		assertEquals(openReaders, ResponseReader.getOpenReaders());
+
+		try (ResponseReader reader = open()) {
+			assertEquals(BODY, readAll(reader));
+		}
+		assertEquals(openReaders, ResponseReader.getOpenReaders());
+	}
+
+	@Test
+	public void closesResponseWhenParsingStopsEarly() throws Exception {
+		server.enqueue(new MockResponse().setBody(largeBody()));
+		server.enqueue(new MockResponse().setBody(BODY));
+
+		ResponseReader reader = open();
+		char[] start = new char[10];
+		assertEquals(start.length, reader.read(start, 0, start.length));
+		reader.close();
+		assertEquals(openReaders, ResponseReader.getOpenReaders());
+
+		try {
+			reader.read(start, 0, start.length);
+			fail("Reading a closed reader has to fail");
+		} catch (IOException e) {
+			// Expected
+		}
+
+		try (ResponseReader next = open()) {
+			assertEquals(BODY, readAll(next));
+		}
+		assertEquals(openReaders, ResponseReader.getOpenReaders());
+	}
+
+	@Test
+	public void replacesMalformedInput() throws Exception {
+		// 0xC3 starts a two byte sequence which is not continued
+		server.enqueue(new MockResponse().setBody(new Buffer().write(new byte[]{'a', (byte) 0xC3, '(', 'b'})));
+
+		try (ResponseReader reader = open()) {
+			assertEquals("a\uFFFD(b", readAll(reader));
+		}
+		assertEquals(openReaders, ResponseReader.getOpenReaders());
+	}
+
+	private ResponseReader open() throws IOException {
+		Response response = client.newCall(new Request.Builder().url(server.url("/")).build()).execute();
+		return new ResponseReader(response, response.body());
+	}
+
+	private static String readAll(Reader reader) throws IOException {
+		StringBuilder ret = new StringBuilder();
+		char[] buffer = new char[1000];
+		int count;
+		while ((count = reader.read(buffer, 0, buffer.length)) != -1) {
+			ret.append(buffer, 0, count);
+		}
+		return ret.toString();
+	}
+
+	// Larger than the buffers of the reader and the socket, so the body is still being transferred when it is closed
+	private static String largeBody() {
+		StringBuilder ret = new StringBuilder(BODY);
+		while (ret.length() < 512 * 1024) {
+			ret.append(' ');
+		}
+		return ret.toString();
+	}
+
+}
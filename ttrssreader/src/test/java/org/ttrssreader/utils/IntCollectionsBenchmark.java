@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+
+package org.ttrssreader.utils;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the bytes allocated for the id sets and maps of a sync with the boxed collections used before. The results
+ * are printed, the primitive collections have to allocate less.
+ */
+public class IntCollectionsBenchmark {
+
+	// Ids of a large sync
+	private static final int IDS = 100000;
+	private static final int FIRST_ID = 1000000;
+	private static final int RUNS = 20;
+
+	@Test
+	public void allocatesLessThanBoxedSet() {
+		Assume.assumeTrue(Allocations.supported());
+
+		for (int i = 0; i < RUNS; i++) {
+			assertEquals(IDS, fillIntSet());
+			assertEquals(IDS, fillHashSet());
+		}
+
+		long intSet = Allocations.allocatedBytes();
+		fillIntSet();
+		intSet = Allocations.allocatedBytes() - intSet;
+
+		long hashSet = Allocations.allocatedBytes();
+		fillHashSet();
+		hashSet = Allocations.allocatedBytes() - hashSet;
+
+		System.out.println(String.format("%s ids: IntSet %s bytes, HashSet %s bytes", IDS, intSet, hashSet));
+		assertTrue(intSet < hashSet);
+	}
+
+	@Test
+	public void allocatesLessThanBoxedMap() {
+		Assume.assumeTrue(Allocations.supported());
+
+		for (int i = 0; i < RUNS; i++) {
+			assertEquals(IDS, fillIntLongMap());
+			assertEquals(IDS, fillHashMap());
+		}
+
+		long intLongMap = Allocations.allocatedBytes();
+		fillIntLongMap();
+		intLongMap = Allocations.allocatedBytes() - intLongMap;
+
+		long hashMap = Allocations.allocatedBytes();
+		fillHashMap();
+		hashMap = Allocations.allocatedBytes() - hashMap;
+
+		System.out.println(String.format("%s ids: IntLongMap %s bytes, HashMap %s bytes", IDS, intLongMap, hashMap));
+		assertTrue(intLongMap < hashMap);
+	}
+
+	private static int fillIntSet() {
+		IntSet set = new IntSet();
+		for (int id = FIRST_ID; id < FIRST_ID + IDS; id++) {
+			set.add(id);
+		}
+		return set.size();
+	}
+
+	private static int fillHashSet() {
+		Set<Integer> set = new HashSet<>();
+		for (int id = FIRST_ID; id < FIRST_ID + IDS; id++) {
+			set.add(id);
+		}
+		return set.size();
+	}
+
+	private static int fillIntLongMap() {
+		IntLongMap map = new IntLongMap();
+		for (int id = FIRST_ID; id < FIRST_ID + IDS; id++) {
+			map.put(id, id * 1000L);
+		}
+		return map.size();
+	}
+
+	private static int fillHashMap() {
+		Map<Integer, Long> map = new HashMap<>();
+		for (int id = FIRST_ID; id < FIRST_ID + IDS; id++) {
+			map.put(id, id * 1000L);
+		}
+		return map.size();
+	}
+
+}
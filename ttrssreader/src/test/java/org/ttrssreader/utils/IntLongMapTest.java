@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+
+package org.ttrssreader.utils;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link IntLongMap} with the key 0, overwritten values and growing, compared to a {@link HashMap}.
+ */
+public class IntLongMapTest {
+
+	@Test
+	public void tracksZeroKey() {
+		IntLongMap map = new IntLongMap();
+		assertFalse(map.containsKey(0));
+		assertEquals(-1, map.get(0, -1));
+
+		map.put(0, 5);
+		assertTrue(map.containsKey(0));
+		assertEquals(5, map.get(0, -1));
+		assertEquals(1, map.size());
+
+		map.put(0, 0);
+		assertEquals(0, map.get(0, -1));
+		assertEquals(1, map.size());
+	}
+
+	@Test
+	public void overwritesValues() {
+		IntLongMap map = new IntLongMap();
+		map.put(7, 1);
+		map.put(7, Long.MAX_VALUE);
+		map.put(-7, Long.MIN_VALUE);
+		assertEquals(2, map.size());
+		assertEquals(Long.MAX_VALUE, map.get(7, 0));
+		assertEquals(Long.MIN_VALUE, map.get(-7, 0));
+		assertEquals(42, map.get(8, 42));
+		assertFalse(map.containsKey(8));
+	}
+
+	@Test
+	public void keepsEntriesWhenGrowing() {
+		IntLongMap map = new IntLongMap();
+		long initialSize = map.byteSize();
+		for (int i = 1; i <= 10000; i++) {
+			map.put(i * 16, i * 1000L);
+		}
+		assertTrue(map.byteSize() > initialSize);
+		assertEquals(10000, map.size());
+		for (int i = 1; i <= 10000; i++) {
+			assertEquals(i * 1000L, map.get(i * 16, -1));
+			assertFalse(map.containsKey(i * 16 + 1));
+		}
+	}
+
+	@Test
+	public void doesNotGrowUpToExpectedSize() {
+		for (int expected : new int[]{0, 1, 11, 12, 13, 100, 1000, 4095}) {
+			IntLongMap map = new IntLongMap(expected);
+			long size = map.byteSize();
+			for (int i = 1; i <= expected; i++) {
+				map.put(i, i);
+			}
+			assertEquals("Expected size " + expected, size, map.byteSize());
+		}
+	}
+
+	@Test
+	public void matchesHashMap() {
+		Map<Integer, Long> expected = new HashMap<>();
+		IntLongMap map = new IntLongMap();
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			int key = random.nextInt(4000) - 1000;
+			long value = random.nextLong();
+			expected.put(key, value);
+			map.put(key, value);
+		}
+
+		assertEquals(expected.size(), map.size());
+		for (int key = -1000; key < 3000; key++) {
+			Long value = expected.get(key);
+			assertEquals(value != null, map.containsKey(key));
+			if (value != null)
+				assertEquals((long) value, map.get(key, -1));
+		}
+	}
+
+}
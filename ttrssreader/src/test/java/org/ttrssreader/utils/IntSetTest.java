@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+
+package org.ttrssreader.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link IntSet} with the special value 0, growing and the capacity chosen for an expected size.
+ */
+public class IntSetTest {
+
+	@Test
+	public void tracksZero() {
+		IntSet set = new IntSet();
+		assertFalse(set.contains(0));
+		assertTrue(set.add(0));
+		assertFalse(set.add(0));
+		assertTrue(set.contains(0));
+		assertEquals(1, set.size());
+		assertArrayEquals(new int[]{0}, set.toArray());
+
+		assertTrue(set.add(16));
+		assertEquals(2, set.size());
+		assertArrayEquals(new int[]{0, 16}, sorted(set));
+	}
+
+	@Test
+	public void addsNegativeAndExtremeValues() {
+		IntSet set = new IntSet();
+		int[] values = {-1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE, -4, 0};
+		for (int value : values) {
+			assertTrue(set.add(value));
+		}
+		for (int value : values) {
+			assertFalse(set.add(value));
+			assertTrue(set.contains(value));
+		}
+		assertFalse(set.contains(2));
+		assertEquals(values.length, set.size());
+	}
+
+	@Test
+	public void keepsValuesWhenGrowing() {
+		IntSet set = new IntSet();
+		long initialSize = set.byteSize();
+		for (int i = 1; i <= 10000; i++) {
+			assertTrue(set.add(i * 16));
+		}
+		assertTrue(set.byteSize() > initialSize);
+		assertEquals(10000, set.size());
+		for (int i = 1; i <= 10000; i++) {
+			assertTrue(set.contains(i * 16));
+			assertFalse(set.contains(i * 16 + 1));
+		}
+	}
+
+	@Test
+	public void doesNotGrowUpToExpectedSize() {
+		for (int expected : new int[]{0, 1, 11, 12, 13, 100, 1000, 4095}) {
+			IntSet set = new IntSet(expected);
+			long size = set.byteSize();
+			for (int i = 1; i <= expected; i++) {
+				set.add(i);
+			}
+			assertEquals("Expected size " + expected, size, set.byteSize());
+		}
+	}
+
+	@Test
+	public void addsAll() {
+		IntSet set = IntSet.of(Arrays.asList(1, 2, 3));
+		IntSet other = IntSet.of(Arrays.asList(0, 3, 4, 5));
+		set.addAll(other);
+		assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, sorted(set));
+		assertEquals(4, other.size());
+
+		set.addAll(set);
+		assertEquals(6, set.size());
+
+		IntSet empty = new IntSet();
+		empty.addAll(new IntSet());
+		assertTrue(empty.isEmpty());
+	}
+
+	@Test
+	public void convertsToArray() {
+		assertArrayEquals(new int[0], new IntSet().toArray());
+		assertArrayEquals(new int[0], IntSet.of(null).toArray());
+
+		Set<Integer> expected = new HashSet<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 1000; i++) {
+			expected.add(random.nextInt(5000) - 1000);
+		}
+		IntSet set = IntSet.of(expected);
+		assertEquals(expected.size(), set.size());
+
+		int[] array = set.toArray();
+		assertEquals(expected.size(), array.length);
+		Set<Integer> actual = new HashSet<>();
+		for (int value : array) {
+			actual.add(value);
+		}
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void boundsCapacity() {
+		assertEquals(16, IntSet.capacityFor(-1));
+		assertEquals(16, IntSet.capacityFor(0));
+		assertEquals(16, IntSet.capacityFor(11));
+		assertEquals(32, IntSet.capacityFor(12));
+		assertEquals(1024, IntSet.capacityFor(767));
+		assertEquals(2048, IntSet.capacityFor(768));
+		assertEquals(1 << 30, IntSet.capacityFor(Integer.MAX_VALUE));
+
+		for (int expected = 0; expected < 100000; expected += 7) {
+			int capacity = IntSet.capacityFor(expected);
+			assertEquals(0, capacity & (capacity - 1));
+			// Room for the expected entries below the load factor, but not twice as much as needed
+			assertTrue(capacity / 4 * 3 > expected);
+			assertTrue(capacity == 16 || capacity / 8 * 3 <= expected);
+		}
+	}
+
+	private static int[] sorted(IntSet set) {
+		int[] ret = set.toArray();
+		Arrays.sort(ret);
+		return ret;
+	}
+
+}
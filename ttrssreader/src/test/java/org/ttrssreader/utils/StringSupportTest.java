@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2015, Nils Braden
+ *
+ * This file is part of ttrss-reader-fork. This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation;
+ * either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details. You should have received a
+ * copy of the GNU General Public License along with this program; If
+ * not, see http://www.gnu.org/licenses/.
+ */
+
+
+
+package org.ttrssreader.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link StringSupport#fixProtocolRelativeUrls(String)} replaced a regular expression, it has to give the same result
+ * for every input.
+ */
+public class StringSupportTest {
+
+	// The expression that was applied to the content of every article before
+	private static final Pattern OLD_PATTERN = Pattern.compile("(<(?:img|video)[^>]+?src=[\"'])//([^\"']*)");
+
+	static String fixWithPattern(String html) {
+		return OLD_PATTERN.matcher(html).replaceAll("$1https://$2");
+	}
+
+	private static void assertSameAsPattern(String html) {
+		assertEquals(html, fixWithPattern(html), StringSupport.fixProtocolRelativeUrls(html));
+	}
+
+	@Test
+	public void fixesQuotes() {
+		assertEquals("<img src=\"https://a.com/b.png\">", StringSupport.fixProtocolRelativeUrls("<img src=\"//a.com/b.png\">"));
+		assertEquals("<img src='https://a.com/b.png'>", StringSupport.fixProtocolRelativeUrls("<img src='//a.com/b.png'>"));
+		assertSameAsPattern("<img src=\"//a.com/b.png'>");
+		assertSameAsPattern("<img src='//a.com/b.png\">");
+		assertSameAsPattern("<img src=//a.com/b.png>");
+		assertSameAsPattern("<img src=\"\"//a.com/b.png\">");
+		assertSameAsPattern("<img src=\"//\">");
+		assertSameAsPattern("<img src=\"/a.com/b.png\">");
+	}
+
+	@Test
+	public void fixesOnlyFirstSource() {
+		assertSameAsPattern("<img src=\"//a.com/1.png\" data-src=\"//a.com/2.png\">");
+		assertSameAsPattern("<img data-src=\"//a.com/1.png\" src=\"//a.com/2.png\">");
+		assertSameAsPattern("<img src=\"https://a.com/1.png\" srcset=\"//a.com/2.png\" data-src=\"//a.com/3.png\">");
+		assertSameAsPattern("<img src=x src='//a.com/1.png' src=\"//a.com/2.png\">");
+		assertSameAsPattern("<video poster=\"//a.com/p.png\" src=\"//a.com/v.mp4\"></video><img src=\"//a.com/1.png\">");
+	}
+
+	@Test
+	public void handlesUnterminatedTags() {
+		assertSameAsPattern("<img src=\"//a.com/1.png");
+		assertSameAsPattern("<img src=\"//a.com/1.png\"");
+		assertSameAsPattern("<img src='//");
+		assertSameAsPattern("<img src=\"");
+		assertSameAsPattern("<img src=");
+		assertSameAsPattern("<img ");
+		assertSameAsPattern("<img");
+		assertSameAsPattern("<video");
+		assertSameAsPattern("<");
+		assertSameAsPattern("<img <img src=\"//a.com/1.png\">");
+		assertSameAsPattern("<img alt=\"a > b\" src=\"//a.com/1.png\">");
+		assertSameAsPattern("<img src=\"//a.com/1.png <img src='//a.com/2.png'>");
+	}
+
+	@Test
+	public void handlesSimilarTagNames() {
+		assertSameAsPattern("<imgx src=\"//a.com/1.png\">");
+		assertSameAsPattern("<videos src=\"//a.com/1.png\">");
+		assertSameAsPattern("<IMG src=\"//a.com/1.png\">");
+		assertSameAsPattern("<im src=\"//a.com/1.png\">");
+		assertSameAsPattern("<iframe src=\"//a.com/1.html\">");
+		assertSameAsPattern("<img>src=\"//a.com/1.png\"");
+		assertSameAsPattern("<imgsrc=\"//a.com/1.png\">");
+		assertSameAsPattern("<img src=\"//a.com/1.png\"><imgx src=\"//a.com/2.png\">");
+	}
+
+	@Test
+	public void returnsSameStringWithoutChanges() {
+		assertNull(StringSupport.fixProtocolRelativeUrls(null));
+		String html = "<p>Text <img src=\"https://a.com/1.png\"> <a href=\"//a.com\">link</a></p>";
+		assertSame(html, StringSupport.fixProtocolRelativeUrls(html));
+		assertSame("", StringSupport.fixProtocolRelativeUrls(""));
+	}
+
+	/**
+	 * Compares both on random strings that consist mostly of the characters the pattern looks at.
+	 */
+	@Test
+	public void matchesPatternOnRandomInput() {
+		String[] parts = {"<", ">", "img", "video", " ", "src=", "\"", "'", "//", "/", "a", "x", "<img ", "<video ", " src=\"//", " src='//"};
+		Random random = new Random(42);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			sb.setLength(0);
+			int count = random.nextInt(16);
+			for (int j = 0; j < count; j++) {
+				sb.append(parts[random.nextInt(parts.length)]);
+			}
+			assertSameAsPattern(sb.toString());
+		}
+	}
+
+}